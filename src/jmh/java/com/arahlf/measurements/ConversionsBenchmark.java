@@ -0,0 +1,47 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for bulk conversions with {@link Conversions}.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConversionsBenchmark {
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        
+        for (int i = 0; i < _lengths.length; i++) {
+            _lengths[i] = BigDecimal.valueOf(random.nextInt(100000), 3);
+        }
+    }
+    
+    @Benchmark
+    public BigDecimal[] convertAllExact() {
+        return Conversions.convertAll(_lengths, FOOT, INCH);
+    }
+    
+    @Benchmark
+    public BigDecimal[] convertAllRounded() {
+        return Conversions.convertAll(_lengths, INCH, FOOT);
+    }
+    
+    private BigDecimal[] _lengths = new BigDecimal[1000];
+}
@@ -0,0 +1,64 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for totalling a column of Measurements with {@link MeasurementAccumulator} against a loop
+ * of {@link Measurement#add(Measurement)}.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MeasurementAccumulatorBenchmark {
+    
+    @Setup
+    public void setUp() {
+        _measurements = new Measurement[COUNT];
+        
+        for (int i = 0; i < COUNT; i++) {
+            _measurements[i] = Measurement.create(i % 1000 + "." + i % 8 + "25", i % 2 == 0 ? INCH : FOOT);
+        }
+    }
+    
+    @Benchmark
+    public Measurement sumWithAdd() {
+        Measurement sum = Measurement.zero(INCH);
+        
+        for (Measurement measurement : _measurements) {
+            sum = sum.add(measurement);
+        }
+        return sum;
+    }
+    
+    @Benchmark
+    public Measurement sumWithAccumulator() {
+        MeasurementAccumulator accumulator = new MeasurementAccumulator();
+        
+        for (Measurement measurement : _measurements) {
+            accumulator.accept(measurement);
+        }
+        return accumulator.sum(INCH);
+    }
+    
+    @Benchmark
+    public MeasurementAccumulator collectParallel() {
+        return Arrays.stream(_measurements).parallel().collect(MeasurementAccumulator.collector());
+    }
+    
+    private Measurement[] _measurements;
+    
+    private static final int COUNT = 10_000;
+}
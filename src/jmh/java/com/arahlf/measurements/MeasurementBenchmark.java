@@ -0,0 +1,149 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the public operations of {@link Measurement}.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeasurementBenchmark {
+    
+    @Benchmark
+    public Measurement createFromInt() {
+        return Measurement.create(_intLength, FOOT);
+    }
+    
+    @Benchmark
+    public Measurement createFromString() {
+        return Measurement.create(_stringLength, INCH);
+    }
+    
+    @Benchmark
+    public Measurement add() {
+        return _feet.add(_inches);
+    }
+    
+    @Benchmark
+    public Measurement subtract() {
+        return _feet.subtract(_inches);
+    }
+    
+    @Benchmark
+    public Measurement multiply() {
+        return _feet.multiply(_factor);
+    }
+    
+    @Benchmark
+    public Measurement divide() {
+        return _feet.divide(_factor);
+    }
+    
+    @Benchmark
+    public Measurement convert() {
+        return _feet.convert(INCH);
+    }
+    
+    @Benchmark
+    public Measurement convertInexact() {
+        return _inches.convert(FOOT);
+    }
+    
+    @Benchmark
+    public Measurement divideExact() {
+        return _exactInches.divide(_factor);
+    }
+    
+    @Benchmark
+    public Measurement addExact() {
+        return _exactThird.add(_exactThird);
+    }
+    
+    @Benchmark
+    public Measurement convertExact() {
+        return _exactThird.convert(FOOT);
+    }
+    
+    @Benchmark
+    public Measurement scale() {
+        return _inches.scale(2);
+    }
+    
+    @Benchmark
+    public Measurement scaleWithRoundingMode() {
+        return _inches.scale(2, RoundingMode.DOWN);
+    }
+    
+    @Benchmark
+    public BigDecimal getLength() {
+        return _inches.getLength();
+    }
+    
+    @Benchmark
+    public BigDecimal getLengthInMillimeters() {
+        return _inches.getLengthInMillimeters();
+    }
+    
+    @Benchmark
+    public boolean isNegativeLength() {
+        return _inches.isNegativeLength();
+    }
+    
+    @Benchmark
+    public Measurement parseAbbreviation() {
+        return Measurement.parse(_abbreviated);
+    }
+    
+    @Benchmark
+    public Measurement parseDisplayName() {
+        return Measurement.parse(_displayed);
+    }
+    
+    @Benchmark
+    public Measurement parseRange() {
+        return Measurement.parse(_feed, 7, 6);
+    }
+    
+    @Benchmark
+    public String toStringBenchmark() {
+        return _inches.toString();
+    }
+    
+    @Benchmark
+    public boolean equalsBenchmark() {
+        return _feet.equals(_feetInInches);
+    }
+    
+    @Benchmark
+    public int hashCodeBenchmark() {
+        return _inches.hashCode();
+    }
+    
+    // non-final so that the JIT cannot constant-fold the inputs
+    private int _intLength = 12;
+    private String _stringLength = "17.375";
+    private BigDecimal _factor = new BigDecimal("3");
+    private String _abbreviated = "12.5in";
+    private String _displayed = "-1005 millimeters";
+    private CharSequence _feed = new StringBuilder("3.25ft,12.5in,-1005mm");
+    
+    private Measurement _feet = Measurement.create("10.125", FOOT);
+    private Measurement _feetInInches = Measurement.create("121.5", INCH);
+    private Measurement _inches = Measurement.create("3.578", INCH);
+    private Measurement _exactInches = Measurement.create("3.578", INCH).exact();
+    private Measurement _exactThird = Measurement.create(1, INCH).exact().divide(new BigDecimal(3));
+}
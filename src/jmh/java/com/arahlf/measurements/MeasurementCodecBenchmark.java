@@ -0,0 +1,75 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link MeasurementCodec} against sending the same Measurements as text.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MeasurementCodecBenchmark {
+    
+    @Setup
+    public void setUp() {
+        _measurements = new Measurement[COUNT];
+        _strings = new String[COUNT];
+        
+        for (int i = 0; i < COUNT; i++) {
+            _measurements[i] = Measurement.create(i % 1000 + "." + i % 8 + "25", i % 2 == 0 ? INCH : MILLIMETER);
+            _strings[i] = _measurements[i].toString();
+        }
+        
+        _buffer = ByteBuffer.allocateDirect(MeasurementCodec.encodedSize(_measurements));
+        MeasurementCodec.encodeAll(_measurements, _buffer);
+    }
+    
+    @Benchmark
+    public ByteBuffer encodeAll() {
+        _buffer.clear();
+        MeasurementCodec.encodeAll(_measurements, _buffer);
+        
+        return _buffer;
+    }
+    
+    @Benchmark
+    public Measurement[] decodeAll() {
+        _buffer.rewind();
+        
+        return MeasurementCodec.decodeAll(_buffer);
+    }
+    
+    @Benchmark
+    public MeasurementArray decodeArray() {
+        _buffer.rewind();
+        
+        return MeasurementCodec.decodeArray(_buffer, INCH);
+    }
+    
+    @Benchmark
+    public void parseStrings(Blackhole blackhole) {
+        for (String string : _strings) {
+            blackhole.consume(Measurement.parse(string));
+        }
+    }
+    
+    private Measurement[] _measurements;
+    private String[] _strings;
+    private ByteBuffer _buffer;
+    
+    private static final int COUNT = 10_000;
+}
@@ -0,0 +1,92 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for matching a cut list to the shortest stock length that fits each cut, with a
+ * {@link MeasurementIndex} against scanning the stock lengths with {@link Measurement#subtract(Measurement)}.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MeasurementIndexBenchmark {
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Measurement[] stock = new Measurement[STOCK_COUNT];
+        
+        for (int i = 0; i < STOCK_COUNT; i++) {
+            stock[i] = Measurement.create(24 + i / 4 + "." + i % 4 * 25, INCH);
+        }
+        
+        _stock = stock;
+        _index = MeasurementIndex.create(stock);
+        _cuts = new Measurement[CUT_COUNT];
+        
+        for (int i = 0; i < CUT_COUNT; i++) {
+            _cuts[i] = Measurement.create(random.nextInt(270) + "." + random.nextInt(16) * 625, INCH);
+        }
+        
+        _sortedCuts = _cuts.clone();
+        MeasurementSort.sort(_sortedCuts);
+        _results = new Measurement[CUT_COUNT];
+    }
+    
+    @Benchmark
+    public Measurement[] matchWithScan() {
+        for (int i = 0; i < _cuts.length; i++) {
+            Measurement best = null;
+            
+            for (Measurement stock : _stock) {
+                if (!stock.subtract(_cuts[i]).isNegativeLength() && (best == null || stock.subtract(best).isNegativeLength())) {
+                    best = stock;
+                }
+            }
+            _results[i] = best;
+        }
+        return _results;
+    }
+    
+    @Benchmark
+    public Measurement[] matchWithCeiling() {
+        for (int i = 0; i < _cuts.length; i++) {
+            _results[i] = _index.ceiling(_cuts[i]);
+        }
+        return _results;
+    }
+    
+    @Benchmark
+    public Measurement[] matchUnsortedBatch() {
+        _index.ceilingAll(_cuts, _results);
+        return _results;
+    }
+    
+    @Benchmark
+    public Measurement[] matchSortedBatch() {
+        _index.ceilingAll(_sortedCuts, _results);
+        return _results;
+    }
+    
+    private Measurement[] _stock;
+    private MeasurementIndex _index;
+    private Measurement[] _cuts;
+    private Measurement[] _sortedCuts;
+    private Measurement[] _results;
+    
+    private static final int STOCK_COUNT = 1000;
+    private static final int CUT_COUNT = 10_000;
+}
@@ -0,0 +1,62 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.arahlf.measurements.formatting.FractionMeasurementFormatter;
+import com.arahlf.measurements.formatting.MeasurementFormatter;
+
+/**
+ * Benchmarks for parsing and formatting with {@link MeasurementMetrics} disabled, which should cost the
+ * same as before metrics existed, and enabled.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MeasurementMetricsBenchmark {
+    
+    @Setup
+    public void setUp() {
+        if (enabled) {
+            MeasurementMetrics.enable();
+        }
+        else {
+            MeasurementMetrics.disable();
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        MeasurementMetrics.disable();
+    }
+    
+    @Benchmark
+    public Measurement parse() {
+        return Measurement.parse(_text);
+    }
+    
+    @Benchmark
+    public String format() {
+        return _formatter.format(_measurement);
+    }
+    
+    @Param({ "false", "true" })
+    public boolean enabled;
+    
+    private String _text = "1050.7mm";
+    private Measurement _measurement = Measurement.create("1050.7", MILLIMETER);
+    private MeasurementFormatter _formatter = new FractionMeasurementFormatter(16, FOOT, INCH);
+}
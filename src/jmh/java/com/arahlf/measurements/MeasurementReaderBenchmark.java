@@ -0,0 +1,66 @@
+package com.arahlf.measurements;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for {@link MeasurementReader} against parsing the same lines one String at a time.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MeasurementReaderBenchmark {
+    
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        
+        for (int i = 0; i < LINES; i++) {
+            text.append(i % 1000).append('.').append(i % 8).append("25").append(UNITS[i % UNITS.length]).append('\n');
+        }
+        
+        _text = text.toString();
+        _lines = _text.split("\n");
+        _bytes = ByteBuffer.allocateDirect(_text.length()).put(_text.getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    @Benchmark
+    public double[] readMillimeters() {
+        _bytes.flip();
+        
+        return _reader.readMillimeters(_bytes);
+    }
+    
+    @Benchmark
+    public void readMeasurements(Blackhole blackhole) {
+        _bytes.flip();
+        _reader.read(_bytes, blackhole::consume);
+    }
+    
+    @Benchmark
+    public void parseLines(Blackhole blackhole) {
+        for (String line : _lines) {
+            blackhole.consume(Measurement.parse(line));
+        }
+    }
+    
+    private MeasurementReader _reader = new MeasurementReader();
+    private String _text;
+    private String[] _lines;
+    private ByteBuffer _bytes;
+    
+    private static final int LINES = 10_000;
+    private static final String[] UNITS = { "in", "ft", "mm", " yards" };
+}
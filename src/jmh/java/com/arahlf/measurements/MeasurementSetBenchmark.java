@@ -0,0 +1,79 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for deduplicating a column of stock lengths with {@link MeasurementSet} against a
+ * {@link HashSet}, and for the hashCode and equals of lengths that aren't held as picometers.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MeasurementSetBenchmark {
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        
+        _measurements = new Measurement[COUNT];
+        
+        for (int i = 0; i < COUNT; i++) {
+            _measurements[i] = Measurement.create(random.nextInt(2400) + "." + random.nextInt(16) * 625, i % 2 == 0 ? INCH : FOOT);
+        }
+    }
+    
+    @Benchmark
+    public int deduplicateWithHashSet() {
+        Set<Measurement> set = new HashSet<>();
+        
+        for (Measurement measurement : _measurements) {
+            set.add(measurement);
+        }
+        return set.size();
+    }
+    
+    @Benchmark
+    public int deduplicateWithMeasurementSet() {
+        MeasurementSet set = new MeasurementSet();
+        
+        for (Measurement measurement : _measurements) {
+            set.add(measurement);
+        }
+        return set.size();
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int hashCodeBigDecimal() {
+        return _huge.hashCode();
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean equalsBigDecimal() {
+        return _huge.equals(_otherHuge);
+    }
+    
+    private Measurement[] _measurements;
+    
+    // non-final so that the JIT cannot constant-fold the inputs
+    private Measurement _huge = Measurement.create("1000000000000000.001", METER);
+    private Measurement _otherHuge = Measurement.create("1000000000000000.002", METER);
+    
+    private static final int COUNT = 100_000;
+}
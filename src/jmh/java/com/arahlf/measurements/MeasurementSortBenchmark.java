@@ -0,0 +1,71 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for sorting a cut list of Measurements with {@link MeasurementSort} against
+ * {@link Arrays#sort(Object[])} and a comparator of the lengths in millimeters.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MeasurementSortBenchmark {
+    
+    @Param({ "1000", "1000000" })
+    public int size;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        
+        _measurements = new Measurement[size];
+        
+        for (int i = 0; i < size; i++) {
+            _measurements[i] = Measurement.create(random.nextInt(240) + "." + random.nextInt(16) * 625, i % 2 == 0 ? INCH : FOOT);
+        }
+    }
+    
+    @Benchmark
+    public Measurement[] sortWithMillimeterComparator() {
+        Measurement[] measurements = _measurements.clone();
+        
+        Arrays.sort(measurements, BY_MILLIMETERS);
+        return measurements;
+    }
+    
+    @Benchmark
+    public Measurement[] sortComparable() {
+        Measurement[] measurements = _measurements.clone();
+        
+        Arrays.sort(measurements);
+        return measurements;
+    }
+    
+    @Benchmark
+    public Measurement[] sortByKey() {
+        Measurement[] measurements = _measurements.clone();
+        
+        MeasurementSort.sort(measurements);
+        return measurements;
+    }
+    
+    private Measurement[] _measurements;
+    
+    private static final Comparator<Measurement> BY_MILLIMETERS = Comparator.comparing(Measurement::getLengthInMillimeters);
+}
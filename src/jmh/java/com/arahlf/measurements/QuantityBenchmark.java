@@ -0,0 +1,54 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for areas and volumes, with {@link Measurement#add(Measurement)} as the baseline the
+ * dimension-checked operations are compared against.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuantityBenchmark {
+    
+    @Benchmark
+    public Measurement measurementAdd() {
+        return _feet.add(_inches);
+    }
+    
+    @Benchmark
+    public Quantity area() {
+        return _feet.multiply(_inches);
+    }
+    
+    @Benchmark
+    public Quantity volume() {
+        return _area.multiply(_inches);
+    }
+    
+    @Benchmark
+    public Quantity areaAdd() {
+        return _area.add(_otherArea);
+    }
+    
+    @Benchmark
+    public Quantity convert() {
+        return _area.convert(QuantityUnit.SQUARE_INCH);
+    }
+    
+    private Measurement _feet = Measurement.create("12.5", FOOT);
+    private Measurement _inches = Measurement.create("7.25", INCH);
+    private Quantity _area = Quantity.create("42.5", QuantityUnit.SQUARE_FOOT);
+    private Quantity _otherArea = Quantity.create("310", QuantityUnit.SQUARE_INCH);
+}
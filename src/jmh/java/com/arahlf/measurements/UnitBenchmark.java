@@ -0,0 +1,40 @@
+package com.arahlf.measurements;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@link Unit#parse(String)}.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnitBenchmark {
+    
+    @Benchmark
+    public Unit parseFirstAbbreviation() {
+        return Unit.parse(_firstAbbreviation);
+    }
+    
+    @Benchmark
+    public Unit parseLastAbbreviation() {
+        return Unit.parse(_lastAbbreviation);
+    }
+    
+    @Benchmark
+    public Unit parseDisplayName() {
+        return Unit.parse(_displayName);
+    }
+    
+    private String _firstAbbreviation = "mm";
+    private String _lastAbbreviation = "YD";
+    private String _displayName = "Inches";
+}
@@ -0,0 +1,118 @@
+package com.arahlf.measurements.formatting;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.arahlf.measurements.Measurement;
+
+/**
+ * Benchmarks for formatting many Measurements at once, sequentially and with formatAll.  To see how
+ * formatAll scales, compare runs with the common pool limited to different numbers of threads, e.g.
+ * <code>-Djava.util.concurrent.ForkJoinPool.common.parallelism=1</code> (or 2, 4, ...).
+ * 
+ * @author arahlf
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkFormatterBenchmark {
+    
+    @Setup
+    public void setUp() {
+        _measurements = new Measurement[size];
+        
+        for (int i = 0; i < size; i++) {
+            _measurements[i] = Measurement.create(BigDecimal.valueOf(i * 7919L % 100_000, 3), INCH);
+        }
+        
+        _list = Arrays.asList(_measurements);
+    }
+    
+    @Benchmark
+    public String[] decimalSequential() {
+        String[] formatted = new String[_measurements.length];
+        
+        for (int i = 0; i < _measurements.length; i++) {
+            formatted[i] = _decimal.format(_measurements[i]);
+        }
+        return formatted;
+    }
+    
+    @Benchmark
+    public String[] decimalFormatAll() {
+        return _decimal.formatAll(_measurements);
+    }
+    
+    @Benchmark
+    public String[] fractionSequential() {
+        String[] formatted = new String[_measurements.length];
+        
+        for (int i = 0; i < _measurements.length; i++) {
+            formatted[i] = _fraction.format(_measurements[i]);
+        }
+        return formatted;
+    }
+    
+    @Benchmark
+    public String[] fractionFormatAll() {
+        return _fraction.formatAll(_measurements);
+    }
+    
+    @Benchmark
+    public long decimalFormatAllToWriter() throws IOException {
+        CountingWriter writer = new CountingWriter();
+        _decimal.formatAll(_list, writer, "\n");
+        
+        return writer._count;
+    }
+    
+    /**
+     * Discards what's written, so that the benchmark measures the formatting.
+     */
+    private static final class CountingWriter extends Writer {
+        
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            _count += length;
+        }
+        
+        @Override
+        public Writer append(CharSequence sequence) {
+            _count += sequence.length();
+            return this;
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        private long _count;
+    }
+    
+    @Param({ "10000", "1000000" })
+    public int size;
+    
+    private MeasurementFormatter _decimal = new DecimalMeasurementFormatter(2, FOOT, INCH);
+    private MeasurementFormatter _fraction = new FractionMeasurementFormatter(64, FOOT, INCH);
+    private Measurement[] _measurements;
+    private List<Measurement> _list;
+}
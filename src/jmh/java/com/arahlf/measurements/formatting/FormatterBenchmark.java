@@ -0,0 +1,126 @@
+package com.arahlf.measurements.formatting;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.arahlf.measurements.Measurement;
+import com.arahlf.measurements.Unit;
+
+/**
+ * Benchmarks for the decimal and fraction formatters using chains of one, two and three units, in the
+ * default style and others that should cost the same.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormatterBenchmark {
+    
+    @Setup
+    public void setUp() {
+        Unit[] chain = CHAINS[units - 1];
+        
+        MeasurementStyle measurementStyle = _getStyle();
+        
+        _decimal = new DecimalMeasurementFormatter(3, measurementStyle, chain);
+        _fraction = new FractionMeasurementFormatter(16, measurementStyle, chain);
+        _cachedFraction = new CachingMeasurementFormatter(_fraction, 1024);
+    }
+    
+    @Benchmark
+    public String decimalExact() {
+        return _decimal.format(_exact);
+    }
+    
+    @Benchmark
+    public String decimalApproximate() {
+        return _decimal.format(_approximate);
+    }
+    
+    @Benchmark
+    public String decimalNegative() {
+        return _decimal.format(_negative);
+    }
+    
+    @Benchmark
+    public StringBuilder decimalFormatTo() {
+        _builder.setLength(0);
+        _decimal.formatTo(_approximate, _builder);
+        
+        return _builder;
+    }
+    
+    @Benchmark
+    public String fractionExact() {
+        return _fraction.format(_exact);
+    }
+    
+    @Benchmark
+    public String fractionApproximate() {
+        return _fraction.format(_approximate);
+    }
+    
+    @Benchmark
+    public String fractionNegative() {
+        return _fraction.format(_negative);
+    }
+    
+    @Benchmark
+    public StringBuilder fractionFormatTo() {
+        _builder.setLength(0);
+        _fraction.formatTo(_approximate, _builder);
+        
+        return _builder;
+    }
+    
+    @Benchmark
+    public String cachedFractionApproximate() {
+        return _cachedFraction.format(_approximate);
+    }
+    
+    private MeasurementStyle _getStyle() {
+        switch (style) {
+            case "symbols":
+                return MeasurementStyle.SYMBOLS;
+            case "long":
+                return MeasurementStyle.LONG_NAMES;
+            case "german":
+                return MeasurementStyle.DEFAULT.withLocale(Locale.GERMANY).withFractionSeparator(" ").withApproximationMarker("");
+            default:
+                return MeasurementStyle.DEFAULT;
+        }
+    }
+    
+    @Param({ "1", "2", "3" })
+    public int units;
+    
+    @Param({ "default", "symbols", "long", "german" })
+    public String style;
+    
+    private MeasurementFormatter _decimal;
+    private MeasurementFormatter _fraction;
+    private MeasurementFormatter _cachedFraction;
+    private StringBuilder _builder = new StringBuilder();
+    
+    private Measurement _exact = Measurement.create("89.25", INCH);
+    private Measurement _approximate = Measurement.create("1050.7", MILLIMETER);
+    private Measurement _negative = Measurement.create("-25.126", INCH);
+    
+    private static final Unit[][] CHAINS = new Unit[][] {
+        { INCH },
+        { FOOT, INCH },
+        { YARD, FOOT, INCH }
+    };
+}
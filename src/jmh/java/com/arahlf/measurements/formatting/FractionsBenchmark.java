@@ -0,0 +1,44 @@
+package com.arahlf.measurements.formatting;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for {@link Fractions#getFractionString(double, int)} across a range of denominators.
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FractionsBenchmark {
+    
+    @Benchmark
+    public String exactFraction() {
+        return Fractions.getFractionString(_exact, denominator);
+    }
+    
+    @Benchmark
+    public String approximateFraction() {
+        return Fractions.getFractionString(_approximate, denominator);
+    }
+    
+    @Benchmark
+    public String wholeNumber() {
+        return Fractions.getFractionString(_whole, denominator);
+    }
+    
+    @Param({ "4", "16", "64", "128", "256" })
+    public int denominator;
+    
+    private double _exact = 139.75;
+    private double _approximate = 139.140629;
+    private double _whole = 143;
+}
@@ -0,0 +1,77 @@
+package com.arahlf.measurements.formatting;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.arahlf.measurements.Measurement;
+import com.arahlf.measurements.Unit;
+
+/**
+ * Benchmarks for round tripping formatters and Measurements through Java serialization, comparing the
+ * compact serialized forms with the default form (which subclasses of the formatters still use).
+ * 
+ * @author arahlf
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+    
+    @Benchmark
+    public Object decimalFormatter() throws Exception {
+        return _roundTrip(_decimal);
+    }
+    
+    @Benchmark
+    public Object decimalFormatterDefaultForm() throws Exception {
+        return _roundTrip(_decimalDefaultForm);
+    }
+    
+    @Benchmark
+    public Object fractionFormatter() throws Exception {
+        return _roundTrip(_fraction);
+    }
+    
+    @Benchmark
+    public Object measurement() throws Exception {
+        return _roundTrip(_measurement);
+    }
+    
+    private static Object _roundTrip(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+    
+    private static final class DefaultForm extends DecimalMeasurementFormatter {
+        
+        DefaultForm(int scale, Unit... units) {
+            super(scale, units);
+        }
+        
+        private static final long serialVersionUID = 1L;
+    }
+    
+    private MeasurementFormatter _decimal = new DecimalMeasurementFormatter(2, FOOT, INCH);
+    private MeasurementFormatter _decimalDefaultForm = new DefaultForm(2, FOOT, INCH);
+    private MeasurementFormatter _fraction = new FractionMeasurementFormatter(16, YARD, FOOT, INCH);
+    private Measurement _measurement = Measurement.create("17.375", INCH);
+}
@@ -0,0 +1,161 @@
+package com.arahlf.measurements;
+
+import java.math.BigDecimal;
+
+/**
+ * Exact conversion factors between every pair of Units, precomputed as reduced fractions.  Conversions
+ * with a whole number factor (e.g. FOOT to INCH) are exact multiplications.  Other conversions use the
+ * same scale and HALF_UP rounding as {@link Measurement#convert(Unit)}.
+ * 
+ * @author arahlf
+ */
+public final class Conversions {
+    
+    /**
+     * Returns the numerator of the reduced factor that converts lengths in one Unit to another.
+     * @param from The Unit to convert from
+     * @param to The Unit to convert to
+     * @return the numerator of the conversion factor
+     */
+    public static long getNumerator(Unit from, Unit to) {
+        return NUMERATORS[from.ordinal()][to.ordinal()];
+    }
+    
+    /**
+     * Returns the denominator of the reduced factor that converts lengths in one Unit to another.
+     * @param from The Unit to convert from
+     * @param to The Unit to convert to
+     * @return the denominator of the conversion factor
+     */
+    public static long getDenominator(Unit from, Unit to) {
+        return DENOMINATORS[from.ordinal()][to.ordinal()];
+    }
+    
+    /**
+     * Returns true if lengths in one Unit are converted to another with a whole number factor, and so
+     * never need rounding.
+     * @param from The Unit to convert from
+     * @param to The Unit to convert to
+     * @return true if the conversion factor is a whole number
+     */
+    public static boolean isExact(Unit from, Unit to) {
+        return getDenominator(from, to) == 1;
+    }
+    
+    /**
+     * Converts a length from one Unit to another.  Trailing zeros are stripped.
+     * @param length The length to convert
+     * @param from The Unit of the length
+     * @param to The Unit to convert to
+     * @return the converted length
+     */
+    public static BigDecimal convert(BigDecimal length, Unit from, Unit to) {
+        int f = from.ordinal();
+        int t = to.ordinal();
+        
+        return _convert(length, FACTORS[f][t], DENOMINATORS[f][t]);
+    }
+    
+    /**
+     * Converts an array of lengths from one Unit to another.  Trailing zeros are stripped.
+     * @param lengths The lengths to convert
+     * @param from The Unit of the lengths
+     * @param to The Unit to convert to
+     * @return a new array of the converted lengths
+     */
+    public static BigDecimal[] convertAll(BigDecimal[] lengths, Unit from, Unit to) {
+        int f = from.ordinal();
+        int t = to.ordinal();
+        BigDecimal factor = FACTORS[f][t];
+        long denominator = DENOMINATORS[f][t];
+        BigDecimal[] converted = new BigDecimal[lengths.length];
+        
+        for (int i = 0; i < lengths.length; i++) {
+            converted[i] = _convert(lengths[i], factor, denominator);
+        }
+        
+        return converted;
+    }
+    
+    /**
+     * Converts an array of lengths from one Unit to another using double precision.
+     * @param lengths The lengths to convert
+     * @param from The Unit of the lengths
+     * @param to The Unit to convert to
+     * @return a new array of the converted lengths
+     */
+    public static double[] convertAll(double[] lengths, Unit from, Unit to) {
+        double numerator = getNumerator(from, to);
+        double denominator = getDenominator(from, to);
+        double[] converted = new double[lengths.length];
+        
+        for (int i = 0; i < lengths.length; i++) {
+            converted[i] = lengths[i] * numerator / denominator;
+        }
+        
+        return converted;
+    }
+    
+    /**
+     * Returns true if a fixed point length converts to the given Unit without rounding, i.e. its length
+     * in that Unit has no more than {@link Measurement#SCALE} decimal places.
+     */
+    static boolean isExact(long picometers, Unit to) {
+        return picometers % EXACT_PICOMETER_MULTIPLES[to.ordinal()] == 0;
+    }
+    
+    private static BigDecimal _convert(BigDecimal length, BigDecimal numerator, long denominator) {
+        BigDecimal product = length.multiply(numerator);
+        
+        if (denominator == 1) {
+            return product.stripTrailingZeros();
+        }
+        
+        return product.divide(BigDecimal.valueOf(denominator), Measurement.SCALE, Measurement.ROUNDING_MODE).stripTrailingZeros();
+    }
+    
+    private static long _gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+    
+    private Conversions() {
+    }
+    
+    private static final long[][] NUMERATORS;
+    private static final long[][] DENOMINATORS;
+    private static final BigDecimal[][] FACTORS; // the numerators as BigDecimals
+    private static final long[] EXACT_PICOMETER_MULTIPLES;
+    
+    static {
+        Unit[] units = Unit.values();
+        
+        // picometers * 10^SCALE / picometersPerUnit is whole when picometers is a multiple of this
+        EXACT_PICOMETER_MULTIPLES = new long[units.length];
+        for (Unit unit : units) {
+            long picometersPerUnit = unit.getPicometersPerUnit();
+            
+            EXACT_PICOMETER_MULTIPLES[unit.ordinal()] = picometersPerUnit / _gcd(picometersPerUnit, BigDecimal.TEN.pow(Measurement.SCALE).longValueExact());
+        }
+        
+        NUMERATORS = new long[units.length][units.length];
+        DENOMINATORS = new long[units.length][units.length];
+        FACTORS = new BigDecimal[units.length][units.length];
+        
+        for (Unit from : units) {
+            for (Unit to : units) {
+                long numerator = from.getPicometersPerUnit();
+                long denominator = to.getPicometersPerUnit();
+                long gcd = _gcd(numerator, denominator);
+                
+                NUMERATORS[from.ordinal()][to.ordinal()] = numerator / gcd;
+                DENOMINATORS[from.ordinal()][to.ordinal()] = denominator / gcd;
+                FACTORS[from.ordinal()][to.ordinal()] = BigDecimal.valueOf(numerator / gcd);
+            }
+        }
+    }
+}
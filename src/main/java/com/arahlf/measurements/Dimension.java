@@ -0,0 +1,37 @@
+package com.arahlf.measurements;
+
+/**
+ * The dimension of a quantity: a length (a {@link Measurement}), an area or a volume (a {@link Quantity}).
+ * 
+ * @author arahlf
+ */
+public enum Dimension {
+    
+    LENGTH(1, FixedPoint.PICOMETER_SCALE),
+    AREA(2, 6),
+    VOLUME(3, 3);
+    
+    /**
+     * Returns the power of length of the dimension, e.g. 2 for an area.
+     */
+    public int getExponent() {
+        return _exponent;
+    }
+    
+    /**
+     * Returns the number of decimal places of (square or cubic) millimeters held by a fixed point amount
+     * of the dimension.  Fewer are held for areas and volumes so that they have a useful range, as each
+     * factor of a length multiplies it.
+     */
+    int getScale() {
+        return _scale;
+    }
+    
+    private Dimension(int exponent, int scale) {
+        _exponent = exponent;
+        _scale = scale;
+    }
+    
+    private final int _exponent;
+    private final int _scale;
+}
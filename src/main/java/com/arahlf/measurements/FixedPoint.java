@@ -0,0 +1,231 @@
+package com.arahlf.measurements;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Primitive arithmetic on lengths held as a whole number of picometers (10^-9 millimeters).  Results
+ * that cannot be represented exactly are reported with the {@link #INEXACT} sentinel so that callers
+ * can fall back to BigDecimal arithmetic.
+ * 
+ * @author arahlf
+ */
+final class FixedPoint {
+    
+    /**
+     * Converts a length in a unit with the given number of picometers per unit to picometers.
+     * @param length The length to convert
+     * @param picometersPerUnit The number of picometers in one unit of the length
+     * @return the length in picometers, or {@link #INEXACT} if it is not a whole number of picometers within range
+     */
+    static long toPicometers(BigDecimal length, long picometersPerUnit) {
+        BigInteger unscaled = length.unscaledValue();
+        
+        if (length.scale() > 0 && (unscaled.bitLength() > 63 || length.scale() > MAX_DIGITS)) {
+            // e.g. "1.00000000000000000000", whose unscaled value doesn't fit in a long
+            length = length.stripTrailingZeros();
+            unscaled = length.unscaledValue();
+        }
+        
+        if (unscaled.bitLength() > 63) {
+            return INEXACT;
+        }
+        
+        return toPicometers(unscaled.longValue(), length.scale(), picometersPerUnit);
+    }
+    
+    /**
+     * Converts a length given as an unscaled value and scale (as with BigDecimal) in a unit with the
+     * given number of picometers per unit to picometers.
+     * @return the length in picometers, or {@link #INEXACT} if it is not a whole number of picometers within range
+     */
+    static long toPicometers(long unscaled, int scale, long picometersPerUnit) {
+        // absorb as much of the scale as possible into the (decimal) unit factor
+        while (scale > 0 && picometersPerUnit % 10 == 0) {
+            picometersPerUnit /= 10;
+            scale--;
+        }
+        
+        // trailing zeros (e.g. "1.500000000000000000") would otherwise overflow the product below
+        while (scale > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        
+        if (scale < -MAX_DIGITS || scale > MAX_DIGITS) {
+            return INEXACT;
+        }
+        
+        long picometers = multiply(unscaled, picometersPerUnit);
+        
+        if (picometers == INEXACT) {
+            return scale > 0 ? _toPicometers(unscaled, scale, picometersPerUnit) : INEXACT;
+        }
+        
+        if (scale > 0) {
+            long power = POWERS_OF_TEN[scale];
+            
+            if (picometers % power != 0) {
+                return INEXACT;
+            }
+            picometers /= power;
+        }
+        else if (scale < 0) {
+            picometers = multiply(picometers, POWERS_OF_TEN[-scale]);
+        }
+        
+        return inRange(picometers) ? picometers : INEXACT;
+    }
+    
+    private static long _toPicometers(long unscaled, int scale, long picometersPerUnit) {
+        // the product overflowed, but dividing out the scale may still bring it back in range
+        BigInteger[] result = BigInteger.valueOf(unscaled).multiply(BigInteger.valueOf(picometersPerUnit)).divideAndRemainder(BigInteger.TEN.pow(scale));
+        
+        if (result[1].signum() != 0 || result[0].bitLength() > 63 || !inRange(result[0].longValue())) {
+            return INEXACT;
+        }
+        
+        return result[0].longValue();
+    }
+    
+    /**
+     * Rounds a length in millimeters to the nearest picometer using HALF_UP rounding.
+     * @throws ArithmeticException if the rounded length is outside of the fixed point range
+     */
+    static long roundToPicometers(BigDecimal millis) {
+        BigDecimal picometers = millis.movePointRight(PICOMETER_SCALE).setScale(0, RoundingMode.HALF_UP);
+        
+        if (picometers.compareTo(MAX) > 0 || picometers.compareTo(MIN) < 0) {
+            throw new ArithmeticException("Length out of range: " + millis + "mm");
+        }
+        
+        return picometers.longValue();
+    }
+    
+    /**
+     * Divides the dividend by a power of ten using HALF_UP rounding.
+     */
+    static long divideByPowerOfTen(long dividend, int exponent) {
+        long divisor = POWERS_OF_TEN[exponent];
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        
+        if (remainder * 2 >= divisor) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        
+        return quotient;
+    }
+    
+    /**
+     * Returns true if the given number of picometers can be held as a fixed point length.
+     */
+    static boolean inRange(long picometers) {
+        return picometers >= -MAX_PICOMETERS && picometers <= MAX_PICOMETERS;
+    }
+    
+    /**
+     * Multiplies two longs, returning {@link #INEXACT} on overflow.
+     */
+    static long multiply(long x, long y) {
+        long result = x * y;
+        long ax = Math.abs(x);
+        long ay = Math.abs(y);
+        
+        if (((ax | ay) >>> 31 != 0)) {
+            if ((y != 0 && result / y != x) || (x == Long.MIN_VALUE && y == -1)) {
+                return INEXACT;
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Divides the dividend by the (positive) divisor at {@link Measurement#SCALE} decimal places using
+     * HALF_UP rounding, stripping trailing zeros.  This matches
+     * <code>dividend.divide(divisor, SCALE, HALF_UP).stripTrailingZeros()</code> for BigDecimals.
+     * @return the quotient, or null if it is too large to be computed with longs
+     */
+    static BigDecimal divide(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        
+        if (remainder == 0) {
+            return stripped(quotient, 0);
+        }
+        
+        if (Math.abs(quotient) >= MAX_QUOTIENT) {
+            return null;
+        }
+        
+        remainder = Math.abs(remainder);
+        
+        long fraction = 0;
+        for (int i = 0; i < Measurement.SCALE; i++) {
+            remainder *= 10;
+            fraction = fraction * 10 + remainder / divisor;
+            remainder %= divisor;
+        }
+        
+        if (remainder * 2 >= divisor) {
+            fraction++;
+        }
+        
+        long unscaled = Math.abs(quotient) * POWERS_OF_TEN[Measurement.SCALE] + fraction;
+        
+        return stripped(dividend < 0 ? -unscaled : unscaled, Measurement.SCALE);
+    }
+    
+    /**
+     * Returns the equivalent of <code>BigDecimal.valueOf(unscaled, scale).stripTrailingZeros()</code>.
+     */
+    static BigDecimal stripped(long unscaled, int scale) {
+        if (unscaled == 0) {
+            return BigDecimal.ZERO;
+        }
+        
+        while (unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+    
+    private FixedPoint() {
+    }
+    
+    /**
+     * The number of decimal places of a millimeter that are held by a fixed point length.
+     */
+    static final int PICOMETER_SCALE = 9;
+    
+    /**
+     * Sentinel returned when a value can't be represented exactly as a fixed point length.  It is
+     * outside of the range of valid fixed point lengths.
+     */
+    static final long INEXACT = Long.MIN_VALUE;
+    
+    /**
+     * The largest magnitude held as a fixed point length (just under 1,000,000km).  Larger lengths
+     * are held as BigDecimals.
+     */
+    static final long MAX_PICOMETERS = 999_999_999_999_999_999L;
+    
+    private static final BigDecimal MAX = BigDecimal.valueOf(MAX_PICOMETERS);
+    private static final BigDecimal MIN = MAX.negate();
+    
+    static final int MAX_DIGITS = 18;
+    private static final long MAX_QUOTIENT = 900_000_000L;
+    
+    static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+    
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+}
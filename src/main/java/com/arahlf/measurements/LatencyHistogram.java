@@ -0,0 +1,78 @@
+package com.arahlf.measurements;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds that many threads can record to without contending, with a
+ * bucket per power of two: bucket 0 counts durations of 0 and bucket i those in [2^(i-1), 2^i).
+ * Percentiles are reported as the upper bound of their bucket, so they are within a factor of two.
+ * 
+ * @author arahlf
+ */
+final class LatencyHistogram {
+    
+    LatencyHistogram() {
+        _buckets = new LongAdder[BUCKETS];
+        
+        for (int i = 0; i < BUCKETS; i++) {
+            _buckets[i] = new LongAdder();
+        }
+    }
+    
+    void record(long nanos) {
+        // a clock going backwards is counted as no time at all
+        _buckets[nanos > 0 ? BUCKETS - Long.numberOfLeadingZeros(nanos) : 0].increment();
+    }
+    
+    /**
+     * Returns the number of durations in each bucket.  The counts are read one bucket at a time, so they
+     * may include some but not all of the durations recorded concurrently.
+     */
+    long[] getCounts() {
+        long[] counts = new long[BUCKETS];
+        
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = _buckets[i].sum();
+        }
+        return counts;
+    }
+    
+    /**
+     * Returns the upper bound in nanoseconds of the bucket holding the given percentile (0 to 100) of
+     * durations, or 0 if none have been recorded.
+     */
+    long getPercentile(double percentile) {
+        long[] counts = getCounts();
+        long total = 0;
+        
+        for (long count : counts) {
+            total += count;
+        }
+        
+        if (total == 0) {
+            return 0;
+        }
+        
+        // nearest rank, as for MeasurementAccumulator
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        
+        for (int i = 0; i < BUCKETS; i++) {
+            rank -= counts[i];
+            
+            if (rank <= 0) {
+                return i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+    
+    void reset() {
+        for (LongAdder bucket : _buckets) {
+            bucket.reset();
+        }
+    }
+    
+    private final LongAdder[] _buckets;
+    
+    static final int BUCKETS = 64;
+}
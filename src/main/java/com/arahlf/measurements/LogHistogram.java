@@ -0,0 +1,183 @@
+package com.arahlf.measurements;
+
+/**
+ * Counts lengths (in millimeters) in logarithmically sized buckets, so that any value can be estimated
+ * to within a fixed relative accuracy from a small, mergeable summary.  Bucket <code>i</code> holds the
+ * magnitudes in <code>(gamma^(i-1), gamma^i]</code>, with negative lengths counted separately, and
+ * magnitudes below a picometer counted as zero.
+ * 
+ * @author arahlf
+ */
+final class LogHistogram {
+    
+    LogHistogram(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        
+        _relativeAccuracy = relativeAccuracy;
+        _gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        _logGamma = Math.log(_gamma);
+    }
+    
+    void add(double millimeters) {
+        if (millimeters >= MIN_MAGNITUDE) {
+            _positive.add(_index(millimeters), 1);
+        }
+        else if (millimeters <= -MIN_MAGNITUDE) {
+            _negative.add(_index(-millimeters), 1);
+        }
+        else {
+            _zeros++;
+        }
+        _count++;
+    }
+    
+    /**
+     * Adds the other histogram's counts to this one, which must have the same relative accuracy.
+     */
+    void merge(LogHistogram other) {
+        if (other._relativeAccuracy != _relativeAccuracy) {
+            throw new IllegalArgumentException("Relative accuracies differ: " + _relativeAccuracy + " and " + other._relativeAccuracy);
+        }
+        
+        _positive.merge(other._positive);
+        _negative.merge(other._negative);
+        _zeros += other._zeros;
+        _count += other._count;
+    }
+    
+    /**
+     * Returns an estimate of the value with the given (zero based) rank in ascending order.
+     */
+    double getValueAtRank(long rank) {
+        if (rank < 0 || rank >= _count) {
+            throw new IllegalArgumentException("Rank out of range: " + rank);
+        }
+        
+        long seen = 0;
+        
+        // the most negative lengths have the largest magnitudes, so they're walked from the top down
+        for (int index = _negative.getHighIndex(); index >= _negative.getLowIndex(); index--) {
+            seen += _negative.get(index);
+            
+            if (rank < seen) {
+                return -_value(index);
+            }
+        }
+        
+        seen += _zeros;
+        
+        if (rank < seen) {
+            return 0;
+        }
+        
+        for (int index = _positive.getLowIndex(); ; index++) {
+            seen += _positive.get(index);
+            
+            if (rank < seen) {
+                return _value(index);
+            }
+        }
+    }
+    
+    long getCount() {
+        return _count;
+    }
+    
+    double getRelativeAccuracy() {
+        return _relativeAccuracy;
+    }
+    
+    private int _index(double magnitude) {
+        return (int) Math.ceil(Math.log(Math.min(magnitude, Double.MAX_VALUE)) / _logGamma);
+    }
+    
+    private double _value(int index) {
+        // the point within the bucket that is the same relative distance from both of its bounds
+        return 2 * Math.pow(_gamma, index) / (_gamma + 1);
+    }
+    
+    /**
+     * The counts of a contiguous range of bucket indexes, grown as lengths are added outside of it.
+     */
+    private static final class Buckets {
+        
+        void add(int index, long count) {
+            if (_counts == null) {
+                _counts = new long[INITIAL_SIZE];
+                _offset = index - INITIAL_SIZE / 2;
+            }
+            else if (index < _offset || index >= _offset + _counts.length) {
+                _grow(index);
+            }
+            
+            _counts[index - _offset] += count;
+            _low = Math.min(_low, index);
+            _high = Math.max(_high, index);
+        }
+        
+        void merge(Buckets other) {
+            for (int index = other._low; index <= other._high; index++) {
+                long count = other.get(index);
+                
+                if (count != 0) {
+                    add(index, count);
+                }
+            }
+        }
+        
+        long get(int index) {
+            return _counts[index - _offset];
+        }
+        
+        /**
+         * Returns the lowest index with a count, or {@link Integer#MAX_VALUE} if there are none.
+         */
+        int getLowIndex() {
+            return _low;
+        }
+        
+        /**
+         * Returns the highest index with a count, or {@link Integer#MIN_VALUE} if there are none.
+         */
+        int getHighIndex() {
+            return _high;
+        }
+        
+        private void _grow(int index) {
+            int low = Math.min(_offset, index);
+            int high = Math.max(_offset + _counts.length - 1, index);
+            int size = Math.max(_counts.length * 2, high - low + 1);
+            
+            // the spare room goes on the side that grew, as more lengths are likely to follow there
+            int offset = index < _offset ? high - size + 1 : low;
+            long[] counts = new long[size];
+            
+            System.arraycopy(_counts, 0, counts, _offset - offset, _counts.length);
+            
+            _counts = counts;
+            _offset = offset;
+        }
+        
+        private long[] _counts;
+        private int _offset; // the index of _counts[0]
+        private int _low = Integer.MAX_VALUE;
+        private int _high = Integer.MIN_VALUE;
+        
+        private static final int INITIAL_SIZE = 64;
+    }
+    
+    private final double _relativeAccuracy;
+    private final double _gamma;
+    private final double _logGamma;
+    private final Buckets _positive = new Buckets();
+    private final Buckets _negative = new Buckets();
+    private long _zeros;
+    private long _count;
+    
+    /**
+     * The smallest magnitude that is bucketed, smaller lengths are counted as zero.
+     */
+    private static final double MIN_MAGNITUDE = 1e-9;
+}
@@ -2,39 +2,153 @@ package com.arahlf.measurements;
 
 import static com.arahlf.measurements.Unit.MILLIMETER;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * An immutable class representing a measurement, consisting of a length and unit.  Instances
  * of this class can be created by using the static create or parse methods.  All operations 
  * return new instances of this class, using the HALF_UP rounding mode when applicable.
+ * <p>
+ * Lengths that are a whole number of picometers (10^-9 millimeters) are held as a primitive
+ * fixed point value so that the common operations avoid BigDecimal arithmetic.  Lengths that are
+ * too precise or too large for this are held as BigDecimals, with the same results.
+ * <p>
+ * Measurements are serialized in the compact form of {@link MeasurementCodec}.
+ * <p>
+ * An exact Measurement, from {@link #exact()}, divides and converts without rounding, so that chained
+ * operations (e.g. splitting a length into thirds, converting and re-summing) have no drift.  Lengths
+ * with no decimal form in millimeters (e.g. a third of one) are held as exact fractions, and the operations
+ * on an exact Measurement return exact Measurements.  Only {@link #getLength()}, {@link #toString()} and
+ * the other methods that return a BigDecimal round, to 10 decimal places.
+ * <p>
+ * Measurements are ordered by their total length regardless of Unit, consistent with equals.  For sorting
+ * large arrays, {@link #getSortKey()} gives a primitive key in the same order, which
+ * {@link MeasurementSort} sorts by.
  * 
  * @author arahlf
  */
-public final class Measurement {
+public final class Measurement implements Comparable<Measurement>, Serializable {
     
     public static Measurement create(int length, Unit unit) {
-        return new Measurement(new BigDecimal(length), unit, unit);
+        Measurement cached = MeasurementCache.get(length, unit);
+        
+        if (cached != null) {
+            return cached;
+        }
+        
+        long picometers = FixedPoint.multiply(length, unit.getPicometersPerUnit());
+        
+        if (FixedPoint.inRange(picometers)) {
+            return new Measurement(picometers, unit);
+        }
+        return create(new BigDecimal(length), unit);
     }
     
     public static Measurement create(String length, Unit unit) {
-        return new Measurement(new BigDecimal(length), unit, unit);
+        return create(new BigDecimal(length), unit, unit);
     }
     
     public static Measurement create(BigDecimal length, Unit unit) {
-        return new Measurement(length, unit, unit);
+        return create(length, unit, unit);
     }
     
     public static Measurement create(BigDecimal length, Unit desiredUnit, Unit inputUnit) {
-        return new Measurement(length, desiredUnit, inputUnit);
+        long picometers = FixedPoint.toPicometers(length, inputUnit.getPicometersPerUnit());
+        
+        if (picometers != FixedPoint.INEXACT) {
+            return new Measurement(picometers, desiredUnit);
+        }
+        return new Measurement(length.multiply(inputUnit.getMillimetersPerUnit()).stripTrailingZeros(), desiredUnit);
+    }
+    
+    /**
+     * Returns the shared Measurement with a length of 0 in the given Unit.
+     * @param unit The Unit of the Measurement.
+     * @return Measurement with a length of 0
+     */
+    public static Measurement zero(Unit unit) {
+        return create(0, unit);
+    }
+    
+    private static Measurement _fromMillimeters(BigDecimal millis, Unit unit) {
+        return create(millis, unit, MILLIMETER);
+    }
+    
+    /**
+     * Creates a Measurement from a length in picometers, which must be within the fixed point range.
+     */
+    static Measurement fromPicometers(long picometers, Unit unit) {
+        return new Measurement(picometers, unit);
+    }
+    
+    /**
+     * Creates an exact Measurement from a length in millimeters.
+     */
+    static Measurement fromRational(Rational millis, Unit unit) {
+        BigDecimal decimal = millis.toExactBigDecimal();
+        
+        if (decimal != null) {
+            return _fromMillimeters(decimal, unit).exact();
+        }
+        return new Measurement(millis, unit);
+    }
+    
+    private Measurement(long picometers, Unit unit) {
+        this(picometers, unit, false);
+    }
+    
+    private Measurement(long picometers, Unit unit, boolean exact) {
+        _picometers = picometers;
+        _millis = null;
+        _rational = null;
+        _unit = unit;
+        _exact = exact;
+    }
+    
+    private Measurement(BigDecimal millis, Unit unit) {
+        this(millis, unit, false);
     }
     
-    private Measurement(BigDecimal length, Unit desiredUnit, Unit inputUnit) {
-        _millis = length.multiply(inputUnit.getMillimetersPerUnit()).stripTrailingZeros();
-        _unit = desiredUnit;
+    private Measurement(BigDecimal millis, Unit unit, boolean exact) {
+        _picometers = 0;
+        _millis = millis;
+        _rational = null;
+        _unit = unit;
+        _exact = exact;
+    }
+    
+    private Measurement(Rational rational, Unit unit) {
+        _picometers = 0;
+        _millis = rational.toBigDecimal(SCALE, ROUNDING_MODE).stripTrailingZeros();
+        _rational = rational;
+        _unit = unit;
+        _exact = true;
+    }
+    
+    /**
+     * Returns a Measurement with the same length and Unit as this one that divides and converts without
+     * rounding, as do the Measurements returned by its operations.  Exact Measurements are equal to the
+     * others with the same length.
+     * @return the exact Measurement
+     */
+    public Measurement exact() {
+        if (_exact) {
+            return this;
+        }
+        return _millis == null ? new Measurement(_picometers, _unit, true) : new Measurement(_millis, _unit, true);
+    }
+    
+    /**
+     * Returns true if this Measurement divides and converts without rounding, see {@link #exact()}.
+     * @return true if this Measurement is exact
+     */
+    public boolean isExact() {
+        return _exact;
     }
     
     /**
@@ -42,15 +156,117 @@ public final class Measurement {
      * @return the length of the Measurement
      */
     public BigDecimal getLength() {
-        return _millis.divide(_unit.getMillimetersPerUnit(), SCALE, ROUNDING_MODE).stripTrailingZeros();
+        BigDecimal length = _length;
+        
+        if (length == null) {
+            _length = length = _computeLength();
+        }
+        return length;
+    }
+    
+    private BigDecimal _computeLength() {
+        if (_rational != null) {
+            return _rational.divide(_millimetersPerUnit(_unit)).toBigDecimal(SCALE, ROUNDING_MODE).stripTrailingZeros();
+        }
+        if (_millis == null) {
+            BigDecimal length = FixedPoint.divide(_picometers, _unit.getPicometersPerUnit());
+            
+            if (length != null) {
+                return length;
+            }
+        }
+        return getLengthInMillimeters().divide(_unit.getMillimetersPerUnit(), SCALE, ROUNDING_MODE).stripTrailingZeros();
     }
     
     /**
-     * Returns the length of the Measurement in millimeters.
+     * Returns the length of the Measurement in millimeters, rounded to 10 decimal places for an exact
+     * length with no decimal form.
      * @return the length of the Measurement in millimeters
      */
     public BigDecimal getLengthInMillimeters() {
-        return _millis;
+        if (_millis != null) {
+            return _millis;
+        }
+        
+        BigDecimal millis = _fixedPointMillis;
+        
+        if (millis == null) {
+            _fixedPointMillis = millis = FixedPoint.stripped(_picometers, FixedPoint.PICOMETER_SCALE);
+        }
+        return millis;
+    }
+    
+    /**
+     * Returns true if the length is held as a fixed point number of picometers (10^-9 millimeters), in
+     * which case it is available from {@link #getLengthInPicometers()}.
+     * @return true if the length is held as a fixed point number of picometers
+     */
+    public boolean isFixedPoint() {
+        return _millis == null;
+    }
+    
+    /**
+     * Returns the length of the Measurement in picometers (10^-9 millimeters).
+     * @return the length of the Measurement in picometers
+     * @throws ArithmeticException if the length is not held as a fixed point number of picometers
+     */
+    public long getLengthInPicometers() {
+        if (_millis != null) {
+            throw new ArithmeticException("Length is not a fixed point number of picometers: " + _millis + "mm");
+        }
+        return _picometers;
+    }
+    
+    /**
+     * Returns the length in picometers, rounded to the nearest picometer if necessary.
+     * @throws ArithmeticException if the length is outside of the fixed point range
+     */
+    long toPicometers() {
+        if (_rational != null) {
+            return FixedPoint.roundToPicometers(_rational.toBigDecimal(FixedPoint.PICOMETER_SCALE, ROUNDING_MODE));
+        }
+        return _millis == null ? _picometers : FixedPoint.roundToPicometers(_millis);
+    }
+    
+    /**
+     * Returns the exact length in millimeters when it has no decimal form, otherwise null.
+     */
+    Rational getRational() {
+        return _rational;
+    }
+    
+    private Rational _toRational() {
+        if (_rational != null) {
+            return _rational;
+        }
+        return _millis == null ? Rational.valueOf(_picometers, PICOMETERS_PER_MILLIMETER) : Rational.valueOf(_millis);
+    }
+    
+    private static Rational _millimetersPerUnit(Unit unit) {
+        return MILLIMETERS_PER_UNIT[unit.ordinal()];
+    }
+    
+    /**
+     * Returns a key that orders Measurements by length: the length in picometers, rounded down to a whole
+     * picometer and limited to the range of a long.  Measurements with different keys are in the same order
+     * as their keys, and fixed point Measurements with the same key are equal.  Others with the same key
+     * (those more precise than a picometer or beyond the fixed point range) are ordered by
+     * {@link #compareTo(Measurement)}.
+     * @return the key of the Measurement's length
+     */
+    public long getSortKey() {
+        if (_millis == null) {
+            return _picometers;
+        }
+        
+        BigDecimal millis = _rational != null ? _rational.toBigDecimal(FixedPoint.PICOMETER_SCALE, RoundingMode.FLOOR)
+                : _millis.setScale(FixedPoint.PICOMETER_SCALE, RoundingMode.FLOOR);
+        BigInteger picometers = millis.unscaledValue();
+        
+        if (picometers.bitLength() < Long.SIZE) {
+            return picometers.longValue();
+        }
+        return picometers.signum() > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
     }
     
     /**
@@ -66,7 +282,7 @@ public final class Measurement {
      * @return true if the measurement has a length of 0
      */
     public boolean isZeroLength() {
-        return _millis.compareTo(BigDecimal.ZERO) == 0;
+        return _signum() == 0;
     }
     
     /**
@@ -74,7 +290,7 @@ public final class Measurement {
      * @return true if the measurement has a length less than 0
      */
     public boolean isNegativeLength() {
-        return _millis.compareTo(BigDecimal.ZERO) == -1;
+        return _signum() == -1;
     }
     
     /**
@@ -82,7 +298,14 @@ public final class Measurement {
      * @return true if the measurement has a length greater than 0
      */
     public boolean isPositiveLength() {
-        return _millis.compareTo(BigDecimal.ZERO) == 1;
+        return _signum() == 1;
+    }
+    
+    private int _signum() {
+        if (_rational != null) {
+            return _rational.signum();
+        }
+        return _millis == null ? Long.signum(_picometers) : _millis.signum();
     }
     
     /**
@@ -91,9 +314,23 @@ public final class Measurement {
      * @return Measurement that is the sum of the two
      */
     public Measurement add(Measurement measurement) {
-        BigDecimal lengthInMillis = _millis.add(measurement.getLengthInMillimeters());
+        boolean exact = _exact || measurement._exact;
         
-        return new Measurement(lengthInMillis.stripTrailingZeros(), _unit, MILLIMETER);
+        if (_millis == null && measurement._millis == null) {
+            long picometers = _picometers + measurement._picometers; // can't overflow, both are within range
+            
+            if (FixedPoint.inRange(picometers)) {
+                return new Measurement(picometers, _unit, exact);
+            }
+        }
+        
+        if (_rational != null || measurement._rational != null) {
+            return fromRational(_toRational().add(measurement._toRational()), _unit);
+        }
+        
+        BigDecimal lengthInMillis = getLengthInMillimeters().add(measurement.getLengthInMillimeters());
+        
+        return _exact(_fromMillimeters(lengthInMillis, _unit), exact);
     }
     
     /**
@@ -102,9 +339,27 @@ public final class Measurement {
      * @return Measurement that is the difference of the two
      */
     public Measurement subtract(Measurement measurement) {
-        BigDecimal lengthInMillis = _millis.subtract(measurement.getLengthInMillimeters());
+        boolean exact = _exact || measurement._exact;
+        
+        if (_millis == null && measurement._millis == null) {
+            long picometers = _picometers - measurement._picometers; // can't overflow, both are within range
+            
+            if (FixedPoint.inRange(picometers)) {
+                return new Measurement(picometers, _unit, exact);
+            }
+        }
+        
+        if (_rational != null || measurement._rational != null) {
+            return fromRational(_toRational().add(measurement._toRational().negate()), _unit);
+        }
+        
+        BigDecimal lengthInMillis = getLengthInMillimeters().subtract(measurement.getLengthInMillimeters());
         
-        return new Measurement(lengthInMillis.stripTrailingZeros(), _unit, MILLIMETER);
+        return _exact(_fromMillimeters(lengthInMillis, _unit), exact);
+    }
+    
+    private static Measurement _exact(Measurement measurement, boolean exact) {
+        return exact ? measurement.exact() : measurement;
     }
     
     /**
@@ -113,17 +368,38 @@ public final class Measurement {
      * @return Measurement that is the product of the two
      */
     public Measurement multiply(BigDecimal multiplicand) {
+        if (_rational != null) {
+            return fromRational(_rational.multiply(Rational.valueOf(multiplicand)), _unit);
+        }
+        if (_exact) {
+            return _fromMillimeters(getLengthInMillimeters().multiply(multiplicand), _unit).exact();
+        }
+        
         BigDecimal length = getLength().multiply(multiplicand);
         
         return create(length.stripTrailingZeros(), _unit);
     }
     
+    /**
+     * Returns the area of a rectangle with the two Measurements as its sides, in the square of the original
+     * Measurement's Unit (e.g. square feet for "2ft" multiplied by "18in").
+     * @param measurement The Measurement to multiply by
+     * @return Quantity that is the area
+     */
+    public Quantity multiply(Measurement measurement) {
+        return Quantity.area(this, measurement);
+    }
+    
     /**
      * Returns a new Measurement that is the quotient of the two. The original Measurement's Unit is maintained.
      * @param divisor The amount to divide by
      * @return Measurement that is the quotient of the two
      */
     public Measurement divide(BigDecimal divisor) {
+        if (_exact) {
+            return fromRational(_toRational().divide(Rational.valueOf(divisor)), _unit);
+        }
+        
         BigDecimal length = getLength().divide(divisor, SCALE, ROUNDING_MODE);
         
         return create(length.stripTrailingZeros(), _unit);
@@ -135,7 +411,26 @@ public final class Measurement {
      * @return Measurement that is converted to the specified Unit
      */
     public Measurement convert(Unit unit) {
-        BigDecimal length = _millis.divide(unit.getMillimetersPerUnit(), SCALE, ROUNDING_MODE);
+        if (_exact) {
+            // the length in millimeters is unchanged, only the Unit it's shown in
+            if (_rational != null) {
+                return new Measurement(_rational, unit);
+            }
+            return _millis == null ? new Measurement(_picometers, unit, true) : new Measurement(_millis, unit, true);
+        }
+        if (_millis == null) {
+            if (Conversions.isExact(_picometers, unit)) {
+                return new Measurement(_picometers, unit); // nothing to round, so the length is unchanged
+            }
+            
+            BigDecimal length = FixedPoint.divide(_picometers, unit.getPicometersPerUnit());
+            
+            if (length != null) {
+                return create(length, unit);
+            }
+        }
+        
+        BigDecimal length = getLengthInMillimeters().divide(unit.getMillimetersPerUnit(), SCALE, ROUNDING_MODE);
         
         return create(length.stripTrailingZeros(), unit);
     }
@@ -147,7 +442,7 @@ public final class Measurement {
      * @return Measurement with the specified scale (number of decimal places).
      */
     public Measurement scale(int scale) {
-        return create(getLength().setScale(scale, ROUNDING_MODE).stripTrailingZeros(), _unit);
+        return scale(scale, ROUNDING_MODE);
     }
     
     /**
@@ -158,7 +453,13 @@ public final class Measurement {
      * @return Measurement with the specified scale (number of decimal places).
      */
     public Measurement scale(int scale, RoundingMode roundingMode) {
-        return create(getLength().setScale(scale, roundingMode).stripTrailingZeros(), _unit);
+        if (_rational != null) {
+            // rounded once from the exact length, rather than again from the rounded one
+            BigDecimal length = _rational.divide(_millimetersPerUnit(_unit)).toBigDecimal(scale, roundingMode);
+            
+            return create(length.stripTrailingZeros(), _unit).exact();
+        }
+        return _exact(create(getLength().setScale(scale, roundingMode).stripTrailingZeros(), _unit), _exact);
     }
     
     /**
@@ -168,9 +469,50 @@ public final class Measurement {
      * @return Measurement that was parsed, otherwise a NumberFormatException or IllegalArgumentException.
      */
     public static Measurement parse(String measurement) {
-        Matcher matcher = PARSE_PATTERN.matcher(measurement);
-        matcher.find();
-        return create(matcher.group(1), Unit.parse(matcher.group(2)));
+        return MeasurementParser.parse(measurement, 0, measurement.length());
+    }
+    
+    /**
+     * Attempts to parse a Measurement from a range of characters, such as a token within a larger
+     * buffer, without copying them.  The range must contain just the Measurement (e.g. "6ft" or
+     * "12.5 inches"), where the unit's abbreviation or display name is matched ignoring case.
+     * @param measurement The characters to parse.
+     * @param offset The index of the first character of the Measurement.
+     * @param length The number of characters in the Measurement.
+     * @return Measurement that was parsed, otherwise a NumberFormatException for a malformed length or an
+     *         IllegalArgumentException for a malformed or unrecognized unit, giving the index of the problem.
+     */
+    public static Measurement parse(CharSequence measurement, int offset, int length) {
+        return MeasurementParser.parse(measurement, offset, length);
+    }
+    
+    /**
+     * Returns a shared Measurement with the same length and Unit as this one, so that equal Measurements
+     * kept for a long time (e.g. as map keys) can share a single instance.  Whole lengths in a small range
+     * (e.g. "12in") return the same instances as {@link #create(int, Unit)}.
+     * Exact Measurements aren't shared, as the shared ones aren't exact.
+     * @return the shared Measurement equal to this one, or this one if too many are already shared or it's exact
+     */
+    public Measurement intern() {
+        if (_exact) {
+            return this;
+        }
+        return MeasurementCache.intern(this);
+    }
+    
+    /**
+     * Compares the total lengths of the Measurements (regardless of Unit), so that "1ft" is less than "13in"
+     * and equal to "12in", consistent with equals.
+     */
+    @Override
+    public int compareTo(Measurement measurement) {
+        if (_millis == null && measurement._millis == null) {
+            return Long.compare(_picometers, measurement._picometers);
+        }
+        if (_rational != null || measurement._rational != null) {
+            return _toRational().compareTo(measurement._toRational());
+        }
+        return getLengthInMillimeters().compareTo(measurement.getLengthInMillimeters());
     }
     
     /**
@@ -178,7 +520,12 @@ public final class Measurement {
      */
     @Override
     public String toString() {
-        return getLength().toPlainString() + _unit.getAbbreviation();
+        String string = _string;
+        
+        if (string == null) {
+            _string = string = getLength().toPlainString() + _unit.getAbbreviation();
+        }
+        return string;
     }
     
     /**
@@ -196,18 +543,73 @@ public final class Measurement {
         
         Measurement measurement = (Measurement) other;
         
-        return _millis.equals(measurement.getLengthInMillimeters());
+        if (_millis == null && measurement._millis == null) {
+            return _picometers == measurement._picometers;
+        }
+        
+        // when both hashes are already cached, they rule out most unequal lengths without comparing them
+        int hash = _hash;
+        int otherHash = measurement._hash;
+        
+        if (hash != 0 && otherHash != 0 && hash != otherHash) {
+            return false;
+        }
+        
+        // lengths with no decimal form are never equal to those with one
+        if (_rational != null || measurement._rational != null) {
+            return _rational != null && _rational.equals(measurement._rational);
+        }
+        
+        // lengths are only held as BigDecimals when they can't be held as picometers, so mixed representations are never equal
+        return _millis != null && _millis.equals(measurement._millis);
     }
     
     @Override
     public int hashCode() {
-        return getLengthInMillimeters().hashCode();
+        if (_millis == null) {
+            return Long.hashCode(_picometers);
+        }
+        
+        int hash = _hash;
+        
+        if (hash == 0) {
+            _hash = hash = _rational != null ? _rational.hashCode() : _millis.hashCode();
+        }
+        return hash;
+    }
+    
+    private Object writeReplace() {
+        return new SerializedMeasurement(this);
+    }
+    
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        // only ever written as a SerializedMeasurement, so this stream was forged
+        throw new InvalidObjectException("Measurements are serialized as a SerializedMeasurement.");
     }
     
-    private final BigDecimal _millis;
+    private final long _picometers;
+    private final BigDecimal _millis; // null when the length is held in _picometers
+    private final Rational _rational; // only when exact with no decimal form, _millis then holds it rounded
     private final Unit _unit;
+    private final boolean _exact;
+    
+    // lazily computed, racy single-check is safe as the instance is immutable and the cached values are too
+    private transient BigDecimal _length;
+    private transient BigDecimal _fixedPointMillis;
+    private transient String _string;
+    private transient int _hash; // only for lengths that aren't held as picometers, 0 until computed
+    
+    static final int SCALE = 10;
+    static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
+    
+    private static final long PICOMETERS_PER_MILLIMETER = FixedPoint.POWERS_OF_TEN[FixedPoint.PICOMETER_SCALE];
+    private static final Rational[] MILLIMETERS_PER_UNIT = new Rational[Unit.values().length];
+    
+    static {
+        for (Unit unit : Unit.values()) {
+            MILLIMETERS_PER_UNIT[unit.ordinal()] = Rational.valueOf(unit.getMillimetersPerUnit());
+        }
+    }
     
-    private static final int SCALE = 10;
-    private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
-    private static final Pattern PARSE_PATTERN = Pattern.compile("^(.+?)\\s?([a-z]+)");
+    private static final long serialVersionUID = 1L;
 }
@@ -0,0 +1,311 @@
+package com.arahlf.measurements;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * A mutable running summary of Measurements: their exact total, count, mean, shortest and longest
+ * lengths and approximate percentiles.  Adding a Measurement doesn't allocate (other than occasionally
+ * growing the percentile histogram), so it is much cheaper than totalling with {@link Measurement#add(Measurement)},
+ * and the results are only created when asked for, in whichever Unit is wanted.
+ * <p>
+ * Accumulators are not thread safe, but separate ones can be combined, which is how the {@link #collector()}
+ * summarizes parallel streams:
+ * <pre>
+ * MeasurementAccumulator summary = measurements.parallelStream().collect(MeasurementAccumulator.collector());
+ * 
+ * summary.mean(Unit.INCH);
+ * summary.percentile(95, Unit.INCH);
+ * </pre>
+ * 
+ * @author arahlf
+ */
+public final class MeasurementAccumulator implements Consumer<Measurement> {
+    
+    /**
+     * Returns a Collector that summarizes a stream of Measurements into an accumulator.
+     * @return Collector of Measurements into an accumulator
+     */
+    public static Collector<Measurement, ?, MeasurementAccumulator> collector() {
+        return Collector.of(MeasurementAccumulator::new, MeasurementAccumulator::accept, MeasurementAccumulator::combine, Collector.Characteristics.UNORDERED);
+    }
+    
+    /**
+     * Returns a Collector that totals a stream of Measurements exactly, giving the sum in the given Unit.
+     * @param unit The Unit of the sum.
+     * @return Collector of Measurements into their sum
+     */
+    public static Collector<Measurement, ?, Measurement> summing(Unit unit) {
+        return Collector.of(MeasurementAccumulator::new, MeasurementAccumulator::accept, MeasurementAccumulator::combine, accumulator -> accumulator.sum(unit), Collector.Characteristics.UNORDERED);
+    }
+    
+    /**
+     * Creates an empty accumulator whose percentiles are accurate to within 1%.
+     */
+    public MeasurementAccumulator() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+    
+    /**
+     * Creates an empty accumulator.
+     * @param relativeAccuracy The largest relative error of a percentile (e.g. 0.01 for 1%), smaller
+     *                         values take more memory.
+     */
+    public MeasurementAccumulator(double relativeAccuracy) {
+        _histogram = new LogHistogram(relativeAccuracy);
+    }
+    
+    /**
+     * Adds a Measurement to the summary.
+     * @param measurement The Measurement to add.
+     */
+    @Override
+    public void accept(Measurement measurement) {
+        double millimeters;
+        
+        if (measurement.isFixedPoint()) {
+            long picometers = measurement.getLengthInPicometers();
+            
+            _addPicometers(picometers);
+            millimeters = picometers / PICOMETERS_PER_MILLIMETER;
+        }
+        else if (measurement.getRational() != null) {
+            // exact lengths with no decimal form (e.g. a third of an inch) are totalled as fractions
+            Rational rational = measurement.getRational();
+            
+            _rational = _rational == null ? rational : _rational.add(rational);
+            millimeters = measurement.getLengthInMillimeters().doubleValue();
+        }
+        else {
+            BigDecimal millis = measurement.getLengthInMillimeters();
+            
+            _millis = _millis == null ? millis : _millis.add(millis);
+            millimeters = millis.doubleValue();
+        }
+        
+        if (_count == 0 || measurement.compareTo(_min) < 0) {
+            _min = measurement;
+        }
+        if (_count == 0 || measurement.compareTo(_max) > 0) {
+            _max = measurement;
+        }
+        
+        _histogram.add(millimeters);
+        _count++;
+    }
+    
+    /**
+     * Adds everything summarized by another accumulator to this one.  Both must have the same relative accuracy.
+     * @param other The accumulator to combine with this one, which is unchanged.
+     * @return this accumulator
+     */
+    public MeasurementAccumulator combine(MeasurementAccumulator other) {
+        if (other._count == 0) {
+            return this;
+        }
+        
+        _histogram.merge(other._histogram);
+        _addPicometers(other._picometers);
+        
+        if (other._overflow != null) {
+            _overflow = _overflow == null ? other._overflow : _overflow.add(other._overflow);
+        }
+        if (other._millis != null) {
+            _millis = _millis == null ? other._millis : _millis.add(other._millis);
+        }
+        if (other._rational != null) {
+            _rational = _rational == null ? other._rational : _rational.add(other._rational);
+        }
+        if (_count == 0 || other._min.compareTo(_min) < 0) {
+            _min = other._min;
+        }
+        if (_count == 0 || other._max.compareTo(_max) > 0) {
+            _max = other._max;
+        }
+        
+        _count += other._count;
+        
+        return this;
+    }
+    
+    /**
+     * Returns the number of Measurements that were added.
+     * @return the number of Measurements
+     */
+    public long count() {
+        return _count;
+    }
+    
+    /**
+     * Returns the exact total of the Measurements in the given Unit, which is 0 if there are none.  The
+     * total is an {@link Measurement#exact() exact} Measurement if any exact lengths with no decimal form
+     * (e.g. a third of an inch) were added.
+     * @param unit The Unit of the total.
+     * @return Measurement of the total length
+     */
+    public Measurement sum(Unit unit) {
+        if (_rational != null) {
+            return Measurement.fromRational(_rational.add(Rational.valueOf(_totalMillimeters())), unit);
+        }
+        if (_overflow == null && _millis == null) {
+            return Measurement.fromPicometers(_picometers, unit);
+        }
+        
+        return Measurement.create(_totalMillimeters(), unit, Unit.MILLIMETER);
+    }
+    
+    /**
+     * Returns the mean of the Measurements in the given Unit, rounded to the nearest picometer (10^-9
+     * millimeters) using the HALF_UP rounding mode.
+     * @param unit The Unit of the mean.
+     * @return Measurement of the mean length
+     * @throws NoSuchElementException if no Measurements were added
+     */
+    public Measurement mean(Unit unit) {
+        _checkNotEmpty();
+        
+        if (_rational != null) {
+            Rational mean = _rational.add(Rational.valueOf(_totalMillimeters())).divide(Rational.valueOf(_count, 1));
+            
+            return Measurement.create(mean.toBigDecimal(FixedPoint.PICOMETER_SCALE, RoundingMode.HALF_UP), unit, Unit.MILLIMETER);
+        }
+        if (_overflow == null && _millis == null) {
+            long mean = _picometers / _count;
+            long remainder = Math.abs(_picometers % _count);
+            
+            if (remainder >= _count - remainder) {
+                mean += _picometers < 0 ? -1 : 1;
+            }
+            return Measurement.fromPicometers(mean, unit);
+        }
+        
+        BigDecimal mean = _totalMillimeters().divide(BigDecimal.valueOf(_count), FixedPoint.PICOMETER_SCALE, RoundingMode.HALF_UP);
+        
+        return Measurement.create(mean, unit, Unit.MILLIMETER);
+    }
+    
+    /**
+     * Returns the shortest of the Measurements, converted to the given Unit.
+     * @param unit The Unit of the result.
+     * @return the shortest Measurement
+     * @throws NoSuchElementException if no Measurements were added
+     */
+    public Measurement min(Unit unit) {
+        _checkNotEmpty();
+        
+        return _min.getUnit() == unit ? _min : _min.convert(unit);
+    }
+    
+    /**
+     * Returns the longest of the Measurements, converted to the given Unit.
+     * @param unit The Unit of the result.
+     * @return the longest Measurement
+     * @throws NoSuchElementException if no Measurements were added
+     */
+    public Measurement max(Unit unit) {
+        _checkNotEmpty();
+        
+        return _max.getUnit() == unit ? _max : _max.convert(unit);
+    }
+    
+    /**
+     * Returns an estimate of the given percentile of the Measurements, using the nearest rank (e.g. the
+     * 50th percentile of 4 Measurements is the 2nd shortest).  The estimate is within the accumulator's
+     * relative accuracy of the actual Measurement, rounded to the nearest picometer (10^-9 millimeters),
+     * while the 0th and 100th percentiles are exactly the shortest and longest Measurements.
+     * @param percentile The percentile, from 0 to 100.
+     * @param unit The Unit of the result.
+     * @return Measurement at the given percentile
+     * @throws NoSuchElementException if no Measurements were added
+     */
+    public Measurement percentile(double percentile, Unit unit) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        
+        _checkNotEmpty();
+        
+        long rank = Math.max(0, (long) Math.ceil(percentile / 100 * _count) - 1);
+        
+        if (rank == 0) {
+            return min(unit);
+        }
+        if (rank >= _count - 1) {
+            return max(unit);
+        }
+        
+        // the bucket's midpoint may be beyond the lengths that were actually added
+        double millimeters = _histogram.getValueAtRank(rank);
+        millimeters = Math.max(millimeters, _min.getLengthInMillimeters().doubleValue());
+        millimeters = Math.min(millimeters, _max.getLengthInMillimeters().doubleValue());
+        
+        BigDecimal length = BigDecimal.valueOf(millimeters).setScale(FixedPoint.PICOMETER_SCALE, RoundingMode.HALF_UP);
+        
+        return Measurement.create(length, unit, Unit.MILLIMETER);
+    }
+    
+    /**
+     * Returns the largest relative error of the percentiles.
+     * @return the relative accuracy of the percentiles
+     */
+    public double getRelativeAccuracy() {
+        return _histogram.getRelativeAccuracy();
+    }
+    
+    /**
+     * Returns the String representation of the summary in millimeters (e.g. "count=2, sum=3mm, min=1mm, max=2mm").
+     */
+    @Override
+    public String toString() {
+        if (_count == 0) {
+            return "count=0";
+        }
+        return "count=" + _count + ", sum=" + sum(Unit.MILLIMETER) + ", min=" + min(Unit.MILLIMETER) + ", max=" + max(Unit.MILLIMETER);
+    }
+    
+    private void _addPicometers(long picometers) {
+        long sum = _picometers + picometers; // can't overflow, both are within range
+        
+        // moved to a BigInteger before the next addition could overflow a long
+        if (!FixedPoint.inRange(sum)) {
+            _overflow = _overflow == null ? BigInteger.valueOf(sum) : _overflow.add(BigInteger.valueOf(sum));
+            sum = 0;
+        }
+        
+        _picometers = sum;
+    }
+    
+    private BigDecimal _totalMillimeters() {
+        BigInteger picometers = BigInteger.valueOf(_picometers);
+        
+        if (_overflow != null) {
+            picometers = picometers.add(_overflow);
+        }
+        
+        BigDecimal millis = new BigDecimal(picometers, FixedPoint.PICOMETER_SCALE);
+        
+        return _millis == null ? millis : millis.add(_millis);
+    }
+    
+    private void _checkNotEmpty() {
+        if (_count == 0) {
+            throw new NoSuchElementException("No Measurements were added.");
+        }
+    }
+    
+    private final LogHistogram _histogram;
+    private long _count;
+    private long _picometers; // the running total, within the fixed point range
+    private BigInteger _overflow; // picometers moved out of _picometers before it left the fixed point range
+    private BigDecimal _millis; // the total of the lengths that aren't held as picometers or as fractions
+    private Rational _rational; // the total of the exact lengths with no decimal form
+    private Measurement _min;
+    private Measurement _max;
+    
+    private static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    private static final double PICOMETERS_PER_MILLIMETER = 1e9;
+}
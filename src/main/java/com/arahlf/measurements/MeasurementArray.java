@@ -0,0 +1,339 @@
+package com.arahlf.measurements;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, fixed size array of lengths that share a single display Unit.  Lengths are held in a
+ * primitive array of picometers (10^-9 millimeters), so a large number of lengths uses a fraction of
+ * the memory of a list of Measurements, and bulk operations run over primitives.
+ * <p>
+ * Lengths that are more precise than a picometer are rounded to the nearest picometer using the HALF_UP
+ * rounding mode.  Operations throw an ArithmeticException if a length exceeds the fixed point range of
+ * just under 1,000,000km.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementArray {
+    
+    public static MeasurementArray create(Measurement[] measurements, Unit unit) {
+        long[] picometers = new long[measurements.length];
+        
+        for (int i = 0; i < measurements.length; i++) {
+            picometers[i] = measurements[i].toPicometers();
+        }
+        
+        return new MeasurementArray(picometers, unit);
+    }
+    
+    public static MeasurementArray create(List<Measurement> measurements, Unit unit) {
+        return create(measurements.toArray(new Measurement[measurements.size()]), unit);
+    }
+    
+    public static MeasurementArray create(BigDecimal[] lengths, Unit unit) {
+        long[] picometers = new long[lengths.length];
+        long picometersPerUnit = unit.getPicometersPerUnit();
+        
+        for (int i = 0; i < lengths.length; i++) {
+            long exact = FixedPoint.toPicometers(lengths[i], picometersPerUnit);
+            
+            picometers[i] = exact != FixedPoint.INEXACT ? exact : FixedPoint.roundToPicometers(lengths[i].multiply(unit.getMillimetersPerUnit()));
+        }
+        
+        return new MeasurementArray(picometers, unit);
+    }
+    
+    /**
+     * Creates an array that takes ownership of the given picometers, which must be within the fixed point range.
+     */
+    static MeasurementArray fromPicometers(long[] picometers, Unit unit) {
+        return new MeasurementArray(picometers, unit);
+    }
+    
+    private MeasurementArray(long[] picometers, Unit unit) {
+        _picometers = picometers;
+        _unit = unit;
+    }
+    
+    /**
+     * Returns the number of lengths in the array.
+     * @return the number of lengths in the array
+     */
+    public int size() {
+        return _picometers.length;
+    }
+    
+    /**
+     * Returns the display Unit of the array.
+     * @return the display Unit of the array
+     */
+    public Unit getUnit() {
+        return _unit;
+    }
+    
+    /**
+     * Returns the length at the given index as a Measurement in the array's Unit.
+     * @param index The index of the length
+     * @return Measurement for the length at the given index
+     */
+    public Measurement get(int index) {
+        return Measurement.fromPicometers(_picometers[index], _unit);
+    }
+    
+    /**
+     * Returns the lengths as an array of Measurements in the array's Unit.
+     * @return array of Measurements
+     */
+    public Measurement[] toArray() {
+        Measurement[] measurements = new Measurement[_picometers.length];
+        
+        for (int i = 0; i < measurements.length; i++) {
+            measurements[i] = get(i);
+        }
+        
+        return measurements;
+    }
+    
+    /**
+     * Returns a new array where each length is the sum of the lengths at the same index in the two arrays.
+     * The original array's Unit is maintained.
+     * @param other The array to add, which must be the same size
+     * @return array of the sums
+     */
+    public MeasurementArray add(MeasurementArray other) {
+        long[] otherPicometers = _checkSize(other);
+        long[] sums = new long[_picometers.length];
+        
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = _checkRange(_picometers[i] + otherPicometers[i]);
+        }
+        
+        return new MeasurementArray(sums, _unit);
+    }
+    
+    /**
+     * Returns a new array with the given Measurement added to each length.  The original array's Unit is maintained.
+     * @param measurement The Measurement to add
+     * @return array of the sums
+     */
+    public MeasurementArray add(Measurement measurement) {
+        long addend = measurement.toPicometers();
+        long[] sums = new long[_picometers.length];
+        
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = _checkRange(_picometers[i] + addend);
+        }
+        
+        return new MeasurementArray(sums, _unit);
+    }
+    
+    /**
+     * Returns a new array where each length is the difference of the lengths at the same index in the two
+     * arrays.  The original array's Unit is maintained.
+     * @param other The array to subtract, which must be the same size
+     * @return array of the differences
+     */
+    public MeasurementArray subtract(MeasurementArray other) {
+        long[] otherPicometers = _checkSize(other);
+        long[] differences = new long[_picometers.length];
+        
+        for (int i = 0; i < differences.length; i++) {
+            differences[i] = _checkRange(_picometers[i] - otherPicometers[i]);
+        }
+        
+        return new MeasurementArray(differences, _unit);
+    }
+    
+    /**
+     * Returns a new array with the given Measurement subtracted from each length.  The original array's
+     * Unit is maintained.
+     * @param measurement The Measurement to subtract
+     * @return array of the differences
+     */
+    public MeasurementArray subtract(Measurement measurement) {
+        return add(Measurement.fromPicometers(-measurement.toPicometers(), _unit));
+    }
+    
+    /**
+     * Returns a new array with each length multiplied by the given amount.  The original array's Unit is maintained.
+     * @param multiplicand The amount to multiply by
+     * @return array of the products
+     */
+    public MeasurementArray multiply(BigDecimal multiplicand) {
+        long[] products = new long[_picometers.length];
+        BigInteger unscaledValue = multiplicand.unscaledValue();
+        int scale = multiplicand.scale();
+        
+        if (unscaledValue.bitLength() > 63 || scale < 0 || scale > FixedPoint.MAX_DIGITS) {
+            for (int i = 0; i < products.length; i++) {
+                products[i] = _multiply(_picometers[i], multiplicand);
+            }
+        }
+        else {
+            long unscaled = unscaledValue.longValue();
+            
+            for (int i = 0; i < products.length; i++) {
+                long product = FixedPoint.multiply(_picometers[i], unscaled);
+                
+                if (product == FixedPoint.INEXACT) {
+                    products[i] = _multiply(_picometers[i], multiplicand);
+                }
+                else {
+                    products[i] = _checkRange(scale == 0 ? product : FixedPoint.divideByPowerOfTen(product, scale));
+                }
+            }
+        }
+        
+        return new MeasurementArray(products, _unit);
+    }
+    
+    private static long _multiply(long picometers, BigDecimal multiplicand) {
+        BigDecimal product = BigDecimal.valueOf(picometers).multiply(multiplicand).setScale(0, RoundingMode.HALF_UP);
+        
+        return FixedPoint.roundToPicometers(product.movePointLeft(FixedPoint.PICOMETER_SCALE));
+    }
+    
+    /**
+     * Returns the same lengths with a different display Unit.  Unlike {@link Measurement#convert(Unit)} no
+     * rounding takes place, the lengths are unchanged.
+     * @param unit The Unit to display the lengths in
+     * @return array with the specified Unit
+     */
+    public MeasurementArray convert(Unit unit) {
+        return new MeasurementArray(_picometers, unit); // the lengths are never modified, so they can be shared
+    }
+    
+    /**
+     * Returns the sum of all of the lengths as a Measurement in the array's Unit.
+     * @return Measurement of the total length
+     */
+    public Measurement sum() {
+        long sum = 0;
+        BigInteger overflow = null;
+        
+        for (long picometers : _picometers) {
+            sum += picometers;
+            
+            // each length is below 10^18, so the sum can be moved to a BigInteger before a long overflows
+            if (!FixedPoint.inRange(sum)) {
+                overflow = overflow == null ? BigInteger.valueOf(sum) : overflow.add(BigInteger.valueOf(sum));
+                sum = 0;
+            }
+        }
+        
+        if (overflow == null) {
+            return Measurement.fromPicometers(sum, _unit);
+        }
+        
+        BigDecimal millis = new BigDecimal(overflow.add(BigInteger.valueOf(sum)), FixedPoint.PICOMETER_SCALE);
+        
+        return Measurement.create(millis, _unit, Unit.MILLIMETER);
+    }
+    
+    /**
+     * Returns the shortest length as a Measurement in the array's Unit.
+     * @return Measurement of the shortest length
+     * @throws NoSuchElementException if the array is empty
+     */
+    public Measurement min() {
+        _checkNotEmpty();
+        
+        long min = _picometers[0];
+        for (int i = 1; i < _picometers.length; i++) {
+            min = Math.min(min, _picometers[i]);
+        }
+        
+        return Measurement.fromPicometers(min, _unit);
+    }
+    
+    /**
+     * Returns the longest length as a Measurement in the array's Unit.
+     * @return Measurement of the longest length
+     * @throws NoSuchElementException if the array is empty
+     */
+    public Measurement max() {
+        _checkNotEmpty();
+        
+        long max = _picometers[0];
+        for (int i = 1; i < _picometers.length; i++) {
+            max = Math.max(max, _picometers[i]);
+        }
+        
+        return Measurement.fromPicometers(max, _unit);
+    }
+    
+    /**
+     * Returns a new array with the lengths sorted in ascending order.  The original array's Unit is maintained.
+     * @return sorted array
+     */
+    public MeasurementArray sort() {
+        long[] sorted = _picometers.clone();
+        Arrays.sort(sorted);
+        
+        return new MeasurementArray(sorted, _unit);
+    }
+    
+    /**
+     * Returns the String representation of the array (e.g. "[4ft, 3.5ft]").
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        
+        for (int i = 0; i < _picometers.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(get(i));
+        }
+        
+        return builder.append(']').toString();
+    }
+    
+    /**
+     * Returns true if the given array has equal lengths (regardless of Unit) in the same order as this one.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof MeasurementArray)) {
+            return false;
+        }
+        
+        return Arrays.equals(_picometers, ((MeasurementArray) other)._picometers);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(_picometers);
+    }
+    
+    private long[] _checkSize(MeasurementArray other) {
+        if (other._picometers.length != _picometers.length) {
+            throw new IllegalArgumentException("Array sizes differ: " + _picometers.length + " and " + other._picometers.length);
+        }
+        return other._picometers;
+    }
+    
+    private static long _checkRange(long picometers) {
+        if (!FixedPoint.inRange(picometers)) {
+            throw new ArithmeticException("Length out of range: " + picometers + "pm");
+        }
+        return picometers;
+    }
+    
+    private void _checkNotEmpty() {
+        if (_picometers.length == 0) {
+            throw new NoSuchElementException("Array is empty.");
+        }
+    }
+    
+    private final long[] _picometers;
+    private final Unit _unit;
+}
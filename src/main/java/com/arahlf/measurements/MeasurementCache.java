@@ -0,0 +1,109 @@
+package com.arahlf.measurements;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared instances of common Measurements, so that frequently created lengths don't allocate.  Whole
+ * lengths in a small range are cached for each Unit and created on first use, much like the Integer
+ * cache.  The range defaults to -128 to 1024 for every Unit and can be changed with system properties:
+ * <code>com.arahlf.measurements.cache.low</code> and <code>com.arahlf.measurements.cache.high</code> for
+ * all Units, or e.g. <code>com.arahlf.measurements.cache.high.INCH</code> for one Unit.
+ * <p>
+ * Other lengths are shared through {@link Measurement#intern()}, which keeps up to {@link #MAX_INTERNED}
+ * instances per Unit.
+ * 
+ * @author arahlf
+ */
+final class MeasurementCache {
+    
+    /**
+     * Returns the cached Measurement with the given whole length, or null if it is outside of the
+     * Unit's cached range.
+     */
+    static Measurement get(int length, Unit unit) {
+        int ordinal = unit.ordinal();
+        long index = (long) length - LOWS[ordinal];
+        Measurement[] cache = CACHES[ordinal];
+        
+        if (index < 0 || index >= cache.length) {
+            return null;
+        }
+        
+        Measurement cached = cache[(int) index];
+        
+        if (cached == null) {
+            // racy, but Measurements are safely published through their final fields and any copy will do
+            cache[(int) index] = cached = Measurement.fromPicometers(length * unit.getPicometersPerUnit(), unit);
+        }
+        return cached;
+    }
+    
+    static Measurement intern(Measurement measurement) {
+        Unit unit = measurement.getUnit();
+        
+        if (measurement.isFixedPoint()) {
+            long picometers = measurement.getLengthInPicometers();
+            long length = picometers / unit.getPicometersPerUnit();
+            
+            if (length * unit.getPicometersPerUnit() == picometers && length >= Integer.MIN_VALUE && length <= Integer.MAX_VALUE) {
+                Measurement cached = get((int) length, unit);
+                
+                if (cached != null) {
+                    return cached;
+                }
+            }
+        }
+        
+        // keyed by length (equals) within a Unit, so the interned instance has the same Unit as well
+        ConcurrentHashMap<Measurement, Measurement> interned = INTERNED.get(unit);
+        Measurement existing = interned.get(measurement);
+        
+        if (existing != null) {
+            return existing;
+        }
+        if (interned.size() >= MAX_INTERNED) {
+            return measurement;
+        }
+        
+        existing = interned.putIfAbsent(measurement, measurement);
+        
+        return existing != null ? existing : measurement;
+    }
+    
+    private static int _property(String name, Unit unit, int defaultValue) {
+        return Integer.getInteger(PROPERTY_PREFIX + name + "." + unit.name(), Integer.getInteger(PROPERTY_PREFIX + name, defaultValue));
+    }
+    
+    private MeasurementCache() {
+    }
+    
+    /**
+     * The most Measurements interned for each Unit, after which {@link Measurement#intern()} returns the
+     * Measurement it is given.
+     */
+    static final int MAX_INTERNED = 1 << 16;
+    
+    private static final String PROPERTY_PREFIX = "com.arahlf.measurements.cache.";
+    private static final int DEFAULT_LOW = -128;
+    private static final int DEFAULT_HIGH = 1024;
+    private static final int MAX_CACHED = 1 << 20;
+    
+    private static final int[] LOWS = new int[Unit.values().length];
+    private static final Measurement[][] CACHES = new Measurement[Unit.values().length][];
+    private static final Map<Unit, ConcurrentHashMap<Measurement, Measurement>> INTERNED = new EnumMap<>(Unit.class);
+    
+    static {
+        for (Unit unit : Unit.values()) {
+            // limited to the lengths that can be held as fixed point values
+            long limit = FixedPoint.MAX_PICOMETERS / unit.getPicometersPerUnit();
+            long low = Math.max(-limit, _property("low", unit, DEFAULT_LOW));
+            long high = Math.min(Math.min(limit, _property("high", unit, DEFAULT_HIGH)), low + MAX_CACHED - 1);
+            
+            LOWS[unit.ordinal()] = (int) low;
+            CACHES[unit.ordinal()] = new Measurement[(int) Math.max(0, high - low + 1)];
+            INTERNED.put(unit, new ConcurrentHashMap<>());
+        }
+    }
+}
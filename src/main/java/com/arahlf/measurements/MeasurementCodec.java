@@ -0,0 +1,371 @@
+package com.arahlf.measurements;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary form of Measurements, for sending batches of them between processes or holding them
+ * in caches.  Most Measurements take 2 to 5 bytes (e.g. "12in" takes 3), compared with over a hundred
+ * for Java serialization of a BigDecimal and an enum.
+ * <p>
+ * Each Measurement starts with a header byte: the low 3 bits hold the Unit's ordinal and the high 5 bits
+ * hold a power of ten.  A fixed point length is written as its number of picometers (10^-9 millimeters)
+ * divided by that power of ten, as a zigzag encoded varint, so that trailing zeros take no space.  Lengths
+ * that aren't held as fixed point use the power 31, followed by the millimeters' scale as
+ * a zigzag encoded varint, and the length and two's complement bytes of its unscaled value.  Exact lengths
+ * with no decimal form (see {@link Measurement#exact()}) use the power 30, followed by the length and two's
+ * complement bytes of the numerator and then of the denominator of their millimeters.  Other exact
+ * Measurements are written like any other, after a header with the power 29 and no Unit that marks them as
+ * exact.  Arrays start with their length as a varint.
+ * <p>
+ * Decoding reads the buffer in place, so direct and memory mapped buffers are never copied, and
+ * {@link #decodeArray(ByteBuffer, Unit)} reads straight into primitives without creating any Measurements.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementCodec {
+    
+    /**
+     * Returns the number of bytes that {@link #encode(Measurement, ByteBuffer)} writes for the Measurement.
+     * @param measurement The Measurement to encode.
+     * @return the number of bytes in the encoded Measurement
+     */
+    public static int encodedSize(Measurement measurement) {
+        Rational rational = measurement.getRational();
+        
+        if (rational != null) {
+            return 1 + _bytesSize(rational.getNumerator()) + _bytesSize(rational.getDenominator());
+        }
+        
+        int marker = measurement.isExact() ? 1 : 0;
+        
+        if (measurement.isFixedPoint()) {
+            long picometers = measurement.getLengthInPicometers();
+            
+            return marker + 1 + _varintSize(_zigzag(picometers / POWERS_OF_TEN[_exponent(picometers)]));
+        }
+        
+        BigDecimal millis = measurement.getLengthInMillimeters();
+        
+        return marker + 1 + _varintSize(_zigzag(millis.scale())) + _bytesSize(millis.unscaledValue());
+    }
+    
+    /**
+     * Returns the number of bytes that {@link #encodeAll(Measurement[], ByteBuffer)} writes for the Measurements.
+     * @param measurements The Measurements to encode.
+     * @return the number of bytes in the encoded Measurements
+     */
+    public static int encodedSize(Measurement[] measurements) {
+        int size = _varintSize(measurements.length);
+        
+        for (Measurement measurement : measurements) {
+            size += encodedSize(measurement);
+        }
+        return size;
+    }
+    
+    /**
+     * Writes the Measurement to the buffer at its position, which is advanced past it.
+     * @param measurement The Measurement to encode.
+     * @param buffer The buffer to write to.
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have enough room
+     */
+    public static void encode(Measurement measurement, ByteBuffer buffer) {
+        int ordinal = measurement.getUnit().ordinal();
+        Rational rational = measurement.getRational();
+        
+        if (rational != null) {
+            buffer.put((byte) (RATIONAL << UNIT_BITS | ordinal));
+            _putBytes(buffer, rational.getNumerator());
+            _putBytes(buffer, rational.getDenominator());
+            return;
+        }
+        if (measurement.isExact()) {
+            buffer.put((byte) (EXACT << UNIT_BITS));
+        }
+        if (measurement.isFixedPoint()) {
+            long picometers = measurement.getLengthInPicometers();
+            int exponent = _exponent(picometers);
+            
+            buffer.put((byte) (exponent << UNIT_BITS | ordinal));
+            _putVarint(buffer, _zigzag(picometers / POWERS_OF_TEN[exponent]));
+            return;
+        }
+        
+        BigDecimal millis = measurement.getLengthInMillimeters();
+        
+        buffer.put((byte) (BIG_DECIMAL << UNIT_BITS | ordinal));
+        _putVarint(buffer, _zigzag(millis.scale()));
+        _putBytes(buffer, millis.unscaledValue());
+    }
+    
+    /**
+     * Reads a Measurement from the buffer at its position, which is advanced past it.
+     * @param buffer The buffer to read from.
+     * @return Measurement that was read
+     * @throws IllegalArgumentException if the bytes aren't an encoded Measurement
+     * @throws java.nio.BufferUnderflowException if the buffer ends part way through the Measurement
+     */
+    public static Measurement decode(ByteBuffer buffer) {
+        int header = buffer.get() & 0xFF;
+        
+        if (header >>> UNIT_BITS == EXACT) {
+            return _decode(buffer, _getExactHeader(buffer, header)).exact();
+        }
+        return _decode(buffer, header);
+    }
+    
+    private static Measurement _decode(ByteBuffer buffer, int header) {
+        Unit unit = _unit(header);
+        int exponent = header >>> UNIT_BITS;
+        
+        if (exponent == BIG_DECIMAL) {
+            return Measurement.create(_getBigDecimal(buffer), unit, Unit.MILLIMETER);
+        }
+        if (exponent == RATIONAL) {
+            return Measurement.fromRational(_getRational(buffer), unit);
+        }
+        
+        return Measurement.fromPicometers(_getPicometers(buffer, exponent), unit);
+    }
+    
+    /**
+     * Writes the Measurements to the buffer at its position, which is advanced past them.
+     * @param measurements The Measurements to encode.
+     * @param buffer The buffer to write to, see {@link #encodedSize(Measurement[])}.
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have enough room
+     */
+    public static void encodeAll(Measurement[] measurements, ByteBuffer buffer) {
+        _putVarint(buffer, measurements.length);
+        
+        for (Measurement measurement : measurements) {
+            encode(measurement, buffer);
+        }
+    }
+    
+    /**
+     * Reads an array of Measurements written by {@link #encodeAll(Measurement[], ByteBuffer)} from the buffer
+     * at its position, which is advanced past them.
+     * @param buffer The buffer to read from.
+     * @return array of the Measurements that were read
+     * @throws IllegalArgumentException if the bytes aren't encoded Measurements
+     * @throws java.nio.BufferUnderflowException if the buffer ends part way through the Measurements
+     */
+    public static Measurement[] decodeAll(ByteBuffer buffer) {
+        Measurement[] measurements = new Measurement[_getCount(buffer)];
+        
+        for (int i = 0; i < measurements.length; i++) {
+            measurements[i] = decode(buffer);
+        }
+        return measurements;
+    }
+    
+    /**
+     * Reads an array of Measurements written by {@link #encodeAll(Measurement[], ByteBuffer)} from the buffer
+     * at its position (which is advanced past them) directly into a MeasurementArray, without creating a
+     * Measurement for each one.  As with {@link MeasurementArray}, lengths that are more precise than a
+     * picometer (including exact ones with no decimal form) are rounded to the nearest picometer.
+     * @param buffer The buffer to read from.
+     * @param unit The display Unit of the array.
+     * @return array of the lengths that were read
+     * @throws IllegalArgumentException if the bytes aren't encoded Measurements
+     * @throws java.nio.BufferUnderflowException if the buffer ends part way through the Measurements
+     * @throws ArithmeticException if a length is outside of the fixed point range
+     */
+    public static MeasurementArray decodeArray(ByteBuffer buffer, Unit unit) {
+        long[] picometers = new long[_getCount(buffer)];
+        
+        for (int i = 0; i < picometers.length; i++) {
+            int header = buffer.get() & 0xFF;
+            
+            if (header >>> UNIT_BITS == EXACT) {
+                header = _getExactHeader(buffer, header); // only the lengths are kept, which are the same
+            }
+            
+            int exponent = header >>> UNIT_BITS;
+            
+            _unit(header); // only checked, the array has its own Unit
+            
+            if (exponent == BIG_DECIMAL) {
+                picometers[i] = FixedPoint.roundToPicometers(_getBigDecimal(buffer));
+            }
+            else if (exponent == RATIONAL) {
+                picometers[i] = FixedPoint.roundToPicometers(_getRational(buffer).toBigDecimal(FixedPoint.PICOMETER_SCALE, Measurement.ROUNDING_MODE));
+            }
+            else {
+                picometers[i] = _getPicometers(buffer, exponent);
+            }
+        }
+        
+        return MeasurementArray.fromPicometers(picometers, unit);
+    }
+    
+    private static int _exponent(long picometers) {
+        if (picometers == 0) {
+            return 0;
+        }
+        
+        int exponent = 0;
+        
+        while (exponent < FixedPoint.MAX_DIGITS && picometers % POWERS_OF_TEN[exponent + 1] == 0) {
+            exponent++;
+        }
+        return exponent;
+    }
+    
+    private static Unit _unit(int header) {
+        int ordinal = header & UNIT_MASK;
+        
+        if (ordinal >= UNITS.length) {
+            throw new IllegalArgumentException("Malformed Measurement, unknown unit: " + ordinal);
+        }
+        return UNITS[ordinal];
+    }
+    
+    /**
+     * Checks the header that marks an exact Measurement and returns the header of the Measurement that
+     * follows it, which can't be marked again.
+     */
+    private static int _getExactHeader(ByteBuffer buffer, int marker) {
+        if ((marker & UNIT_MASK) != 0) {
+            throw new IllegalArgumentException("Malformed Measurement, exact marker with a unit: " + (marker & UNIT_MASK));
+        }
+        
+        int header = buffer.get() & 0xFF;
+        int exponent = header >>> UNIT_BITS;
+        
+        if (exponent == EXACT || exponent == RATIONAL) {
+            throw new IllegalArgumentException("Malformed Measurement, exact marker before exponent: " + exponent);
+        }
+        return header;
+    }
+    
+    private static long _getPicometers(ByteBuffer buffer, int exponent) {
+        if (exponent > FixedPoint.MAX_DIGITS) {
+            throw new IllegalArgumentException("Malformed Measurement, unknown exponent: " + exponent);
+        }
+        
+        long picometers = FixedPoint.multiply(_unzigzag(_getVarint(buffer)), POWERS_OF_TEN[exponent]);
+        
+        if (!FixedPoint.inRange(picometers)) {
+            throw new IllegalArgumentException("Malformed Measurement, length out of range.");
+        }
+        return picometers;
+    }
+    
+    private static BigDecimal _getBigDecimal(ByteBuffer buffer) {
+        long scale = _unzigzag(_getVarint(buffer));
+        
+        if (scale != (int) scale) {
+            throw new IllegalArgumentException("Malformed Measurement, invalid length.");
+        }
+        return new BigDecimal(_getBytes(buffer), (int) scale);
+    }
+    
+    private static Rational _getRational(ByteBuffer buffer) {
+        BigInteger numerator = _getBytes(buffer);
+        BigInteger denominator = _getBytes(buffer);
+        
+        if (denominator.signum() <= 0) {
+            throw new IllegalArgumentException("Malformed Measurement, invalid denominator: " + denominator);
+        }
+        return Rational.valueOf(numerator, denominator);
+    }
+    
+    private static BigInteger _getBytes(ByteBuffer buffer) {
+        long length = _getVarint(buffer);
+        
+        if (length < 1 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Malformed Measurement, invalid length.");
+        }
+        
+        byte[] bytes = new byte[(int) length];
+        buffer.get(bytes);
+        
+        return new BigInteger(bytes);
+    }
+    
+    private static void _putBytes(ByteBuffer buffer, BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        
+        _putVarint(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+    
+    private static int _bytesSize(BigInteger value) {
+        int length = value.bitLength() / 8 + 1;
+        
+        return _varintSize(length) + length;
+    }
+    
+    private static int _getCount(ByteBuffer buffer) {
+        long count = _getVarint(buffer);
+        
+        // every Measurement takes at least 2 bytes, which guards against allocating a huge array for bad input
+        if (count < 0) {
+            throw new IllegalArgumentException("Malformed Measurements, negative count: " + count);
+        }
+        if (count > buffer.remaining() / 2) {
+            throw new IllegalArgumentException("Malformed Measurements, count exceeds the remaining bytes: " + count);
+        }
+        return (int) count;
+    }
+    
+    private static void _putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    private static long _getVarint(ByteBuffer buffer) {
+        long value = 0;
+        
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed Measurement, varint is too long.");
+    }
+    
+    private static int _varintSize(long value) {
+        return (Long.SIZE - Long.numberOfLeadingZeros(value | 1) + 6) / 7;
+    }
+    
+    private static long _zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+    
+    private static long _unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+    
+    private MeasurementCodec() {
+    }
+    
+    /**
+     * The power of ten in a header that marks a length held as a BigDecimal.
+     */
+    static final int BIG_DECIMAL = 31;
+    
+    /**
+     * The power of ten in a header that marks an exact length with no decimal form.
+     */
+    static final int RATIONAL = 30;
+    
+    /**
+     * The power of ten in a header that marks the Measurement that follows as exact.
+     */
+    static final int EXACT = 29;
+    
+    private static final int UNIT_BITS = 3;
+    private static final int UNIT_MASK = (1 << UNIT_BITS) - 1;
+    private static final Unit[] UNITS = Unit.values();
+    private static final long[] POWERS_OF_TEN = FixedPoint.POWERS_OF_TEN;
+}
@@ -0,0 +1,340 @@
+package com.arahlf.measurements;
+
+import java.util.Collection;
+
+/**
+ * An immutable, sorted index of distinct lengths for nearest length lookups, such as finding the shortest
+ * stock length that a cut fits in.  The Measurements are held in ascending order along with their primitive
+ * {@link Measurement#getSortKey() sort keys}, so a query is a binary search over longs that creates nothing.
+ * Only the few lengths that share a key (those more precise than a picometer or beyond the fixed point
+ * range) are compared as Measurements.
+ * <p>
+ * The batch queries resolve an array of lengths in one pass.  Each search starts from where the last one
+ * ended and gallops forward, so a sorted array of n lengths is resolved against m indexed ones in
+ * O(n + m) time when they are dense, and O(n log m) at worst.  Unsorted arrays are resolved too, with a
+ * search from the start for each length that is shorter than the one before it.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementIndex {
+    
+    /**
+     * Creates an index of the Measurements, keeping the first of those with equal lengths (e.g. "1ft" and "12in").
+     * @param measurements The Measurements to index, which is unchanged.
+     * @return the index of the Measurements
+     * @throws NullPointerException if any of the Measurements are null
+     */
+    public static MeasurementIndex create(Measurement[] measurements) {
+        Measurement[] sorted = measurements.clone();
+        MeasurementSort.sort(sorted);
+        
+        int size = 0;
+        
+        for (Measurement measurement : sorted) {
+            // the sort is stable, so the first of equal lengths is kept
+            if (size == 0 || sorted[size - 1].compareTo(measurement) != 0) {
+                sorted[size++] = measurement;
+            }
+        }
+        
+        long[] keys = new long[size];
+        
+        for (int i = 0; i < size; i++) {
+            keys[i] = sorted[i].getSortKey();
+        }
+        
+        return new MeasurementIndex(keys, sorted, 0, size);
+    }
+    
+    public static MeasurementIndex create(Collection<Measurement> measurements) {
+        return create(measurements.toArray(new Measurement[measurements.size()]));
+    }
+    
+    private MeasurementIndex(long[] keys, Measurement[] measurements, int start, int end) {
+        _keys = keys;
+        _measurements = measurements;
+        _start = start;
+        _end = end;
+    }
+    
+    public int size() {
+        return _end - _start;
+    }
+    
+    public boolean isEmpty() {
+        return _end == _start;
+    }
+    
+    /**
+     * Returns the Measurement at the given position, where the shortest is at 0.
+     * @param index The position of the Measurement.
+     * @return the Measurement at the position
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Measurement get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        return _measurements[_start + index];
+    }
+    
+    /**
+     * Returns the shortest indexed Measurement that is at least as long as the given one.
+     * @param measurement The length to look up.
+     * @return the shortest Measurement that is greater than or equal to the given one, or null if there is none
+     */
+    public Measurement ceiling(Measurement measurement) {
+        int index = ceilingIndex(measurement);
+        
+        return index < 0 ? null : _measurements[_start + index];
+    }
+    
+    /**
+     * Returns the longest indexed Measurement that is at most as long as the given one.
+     * @param measurement The length to look up.
+     * @return the longest Measurement that is less than or equal to the given one, or null if there is none
+     */
+    public Measurement floor(Measurement measurement) {
+        int index = floorIndex(measurement);
+        
+        return index < 0 ? null : _measurements[_start + index];
+    }
+    
+    /**
+     * Returns the position of the shortest indexed Measurement that is at least as long as the given one.
+     * @param measurement The length to look up.
+     * @return the position for {@link #get(int)}, or -1 if there is none
+     */
+    public int ceilingIndex(Measurement measurement) {
+        long key = measurement.getSortKey();
+        
+        return _position(_ceiling(measurement, key, _lowerBound(key, _start)));
+    }
+    
+    /**
+     * Returns the position of the longest indexed Measurement that is at most as long as the given one.
+     * @param measurement The length to look up.
+     * @return the position for {@link #get(int)}, or -1 if there is none
+     */
+    public int floorIndex(Measurement measurement) {
+        long key = measurement.getSortKey();
+        
+        return _position(_floor(measurement, key, _upperBound(key, _start)));
+    }
+    
+    /**
+     * Returns a view of the indexed Measurements from one length to another, inclusive, that shares this
+     * index's arrays.
+     * @param from The shortest length of the range.
+     * @param to The longest length of the range.
+     * @return index of the Measurements in the range, which is empty if there are none or from is after to
+     */
+    public MeasurementIndex range(Measurement from, Measurement to) {
+        long fromKey = from.getSortKey();
+        long toKey = to.getSortKey();
+        int start = _ceiling(from, fromKey, _lowerBound(fromKey, _start));
+        int end = _floor(to, toKey, _upperBound(toKey, _start)) + 1;
+        
+        return new MeasurementIndex(_keys, _measurements, start, Math.max(start, end));
+    }
+    
+    /**
+     * Finds the shortest indexed Measurement that is at least as long as each of the given ones, which are
+     * fastest to resolve when sorted in ascending order.
+     * @param measurements The lengths to look up.
+     * @param results The array to fill with the Measurement for each length, or null where there is none.
+     * @throws IllegalArgumentException if the arrays are of different lengths
+     */
+    public void ceilingAll(Measurement[] measurements, Measurement[] results) {
+        _checkLengths(measurements.length, results.length);
+        
+        long previous = Long.MIN_VALUE;
+        int from = _start;
+        
+        for (int i = 0; i < measurements.length; i++) {
+            long key = measurements[i].getSortKey();
+            
+            from = _lowerBound(key, key < previous ? _start : from);
+            previous = key;
+            
+            int index = _ceiling(measurements[i], key, from);
+            results[i] = index < _end ? _measurements[index] : null;
+        }
+    }
+    
+    /**
+     * Finds the position of the shortest indexed Measurement that is at least as long as each of the given
+     * ones, which are fastest to resolve when sorted in ascending order.
+     * @param measurements The lengths to look up.
+     * @param results The array to fill with the position for {@link #get(int)} of each length, or -1 where
+     *        there is none.
+     * @throws IllegalArgumentException if the arrays are of different lengths
+     */
+    public void ceilingIndexAll(Measurement[] measurements, int[] results) {
+        _checkLengths(measurements.length, results.length);
+        
+        long previous = Long.MIN_VALUE;
+        int from = _start;
+        
+        for (int i = 0; i < measurements.length; i++) {
+            long key = measurements[i].getSortKey();
+            
+            from = _lowerBound(key, key < previous ? _start : from);
+            previous = key;
+            
+            results[i] = _position(_ceiling(measurements[i], key, from));
+        }
+    }
+    
+    /**
+     * Finds the longest indexed Measurement that is at most as long as each of the given ones, which are
+     * fastest to resolve when sorted in ascending order.
+     * @param measurements The lengths to look up.
+     * @param results The array to fill with the Measurement for each length, or null where there is none.
+     * @throws IllegalArgumentException if the arrays are of different lengths
+     */
+    public void floorAll(Measurement[] measurements, Measurement[] results) {
+        _checkLengths(measurements.length, results.length);
+        
+        long previous = Long.MIN_VALUE;
+        int from = _start;
+        
+        for (int i = 0; i < measurements.length; i++) {
+            long key = measurements[i].getSortKey();
+            
+            from = _upperBound(key, key < previous ? _start : from);
+            previous = key;
+            
+            int index = _floor(measurements[i], key, from);
+            results[i] = index >= _start ? _measurements[index] : null;
+        }
+    }
+    
+    /**
+     * Returns the indexed Measurements in ascending order.
+     * @return array of the Measurements
+     */
+    public Measurement[] toArray() {
+        Measurement[] measurements = new Measurement[size()];
+        System.arraycopy(_measurements, _start, measurements, 0, measurements.length);
+        
+        return measurements;
+    }
+    
+    /**
+     * Returns the String representation of the index (e.g. "[3in, 1ft]").
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        
+        for (int i = _start; i < _end; i++) {
+            if (i > _start) {
+                builder.append(", ");
+            }
+            builder.append(_measurements[i]);
+        }
+        return builder.append(']').toString();
+    }
+    
+    /**
+     * Moves past the indexed Measurements with the same key that are shorter than the given one.
+     * @param lowerBound The first index with a key that isn't less than the Measurement's.
+     * @return the index of the ceiling, or _end if there is none
+     */
+    private int _ceiling(Measurement measurement, long key, int lowerBound) {
+        int index = lowerBound;
+        
+        while (index < _end && _keys[index] == key && _measurements[index].compareTo(measurement) < 0) {
+            index++;
+        }
+        return index;
+    }
+    
+    /**
+     * Moves back past the indexed Measurements with the same key that are longer than the given one.
+     * @param upperBound The first index with a key that is greater than the Measurement's.
+     * @return the index of the floor, or _start - 1 if there is none
+     */
+    private int _floor(Measurement measurement, long key, int upperBound) {
+        int index = upperBound - 1;
+        
+        while (index >= _start && _keys[index] == key && _measurements[index].compareTo(measurement) > 0) {
+            index--;
+        }
+        return index;
+    }
+    
+    /**
+     * Returns the first index from the given one with a key that isn't less than the given key, or _end.
+     */
+    private int _lowerBound(long key, int from) {
+        // gallops forward in doubling steps, then binary searches within the last one
+        int low = from;
+        int high = from;
+        int step = 1;
+        
+        while (high < _end && _keys[high] < key) {
+            low = high + 1;
+            high = Math.min(_end, high + step);
+            step <<= 1;
+        }
+        
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            
+            if (_keys[middle] < key) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Returns the first index from the given one with a key that is greater than the given key, or _end.
+     */
+    private int _upperBound(long key, int from) {
+        int low = from;
+        int high = from;
+        int step = 1;
+        
+        while (high < _end && _keys[high] <= key) {
+            low = high + 1;
+            high = Math.min(_end, high + step);
+            step <<= 1;
+        }
+        
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            
+            if (_keys[middle] <= key) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Returns the position for get of an index into the arrays, or -1 if it's outside of this index.
+     */
+    private int _position(int index) {
+        return index >= _start && index < _end ? index - _start : -1;
+    }
+    
+    private static void _checkLengths(int length, int resultsLength) {
+        if (length != resultsLength) {
+            throw new IllegalArgumentException("Arrays must be the same length: " + length + ", " + resultsLength);
+        }
+    }
+    
+    private final long[] _keys;
+    private final Measurement[] _measurements;
+    private final int _start;
+    private final int _end;
+}
@@ -0,0 +1,240 @@
+package com.arahlf.measurements;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * A map keyed on the total length of Measurements (regardless of Unit, as with equals), for deduplicating a
+ * large number of them.  Lengths held as picometers are kept in an open addressing table of primitive keys,
+ * so a lookup hashes and compares a long rather than calling hashCode and equals on the Measurement.  The
+ * few lengths that aren't held as picometers are kept in a HashMap.
+ * <p>
+ * Like {@link java.util.HashMap}, the first key put for a length is kept when its value is replaced.  The
+ * map only grows: there is no remove, as deduplication never needs one.  Null keys and values aren't
+ * allowed, and the map isn't thread safe.
+ * 
+ * @param <V> the type of the values
+ * @author arahlf
+ */
+public final class MeasurementMap<V> {
+    
+    public MeasurementMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+    
+    /**
+     * Creates a map that holds the given number of Measurements without growing.
+     * @param expectedSize The number of Measurements that will be put in the map.
+     */
+    public MeasurementMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Invalid expected size: " + expectedSize);
+        }
+        
+        int capacity = MIN_CAPACITY;
+        
+        while (capacity < MAX_CAPACITY && _threshold(capacity) < expectedSize) {
+            capacity <<= 1;
+        }
+        _allocate(capacity);
+    }
+    
+    public int size() {
+        return _size + (_others == null ? 0 : _others.size());
+    }
+    
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+    
+    public boolean containsKey(Measurement key) {
+        return get(key) != null;
+    }
+    
+    /**
+     * Returns the value for the Measurement's length, or null if there is none.
+     * @param key The Measurement to look up.
+     * @return the value for the Measurement's length, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Measurement key) {
+        if (!key.isFixedPoint()) {
+            return _others == null ? null : _others.get(key);
+        }
+        
+        int index = _indexOf(key.getLengthInPicometers());
+        
+        return index < 0 ? null : (V) _values[index];
+    }
+    
+    /**
+     * Maps the Measurement's length to the value.
+     * @param key The Measurement whose length is mapped.
+     * @param value The value to map it to.
+     * @return the previous value for the Measurement's length, or null if there was none
+     */
+    public V put(Measurement key, V value) {
+        return _put(key, value, true);
+    }
+    
+    /**
+     * Maps the Measurement's length to the value, unless it is already mapped.
+     * @param key The Measurement whose length is mapped.
+     * @param value The value to map it to.
+     * @return the existing value for the Measurement's length, or null if there was none and the value was put
+     */
+    public V putIfAbsent(Measurement key, V value) {
+        return _put(key, value, false);
+    }
+    
+    /**
+     * Calls the action with each key and value, in no particular order.
+     * @param action The action to call.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Measurement, ? super V> action) {
+        for (int i = 0; i < _keys.length; i++) {
+            if (_picometers[i] != EMPTY) {
+                action.accept(_keys[i], (V) _values[i]);
+            }
+        }
+        
+        if (_others != null) {
+            for (Map.Entry<Measurement, V> entry : _others.entrySet()) {
+                action.accept(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private V _put(Measurement key, V value, boolean replace) {
+        if (value == null) {
+            throw new IllegalArgumentException("Must specify a value.");
+        }
+        
+        if (!key.isFixedPoint()) {
+            return _putOther(key, value, replace);
+        }
+        
+        long picometers = key.getLengthInPicometers();
+        int mask = _picometers.length - 1;
+        
+        for (int index = _hash(picometers); ; index = (index + 1) & mask) {
+            long existing = _picometers[index];
+            
+            if (existing == picometers) {
+                V previous = (V) _values[index];
+                
+                if (replace) {
+                    _values[index] = value;
+                }
+                return previous;
+            }
+            
+            if (existing == EMPTY) {
+                _picometers[index] = picometers;
+                _keys[index] = key;
+                _values[index] = value;
+                
+                if (++_size > _threshold(_picometers.length)) {
+                    _grow();
+                }
+                return null;
+            }
+        }
+    }
+    
+    private V _putOther(Measurement key, V value, boolean replace) {
+        if (_others == null) {
+            _others = new HashMap<>();
+        }
+        return replace ? _others.put(key, value) : _others.putIfAbsent(key, value);
+    }
+    
+    /**
+     * Returns the index of the picometers in the table, or -1 if they aren't in it.
+     */
+    private int _indexOf(long picometers) {
+        int mask = _picometers.length - 1;
+        
+        for (int index = _hash(picometers); ; index = (index + 1) & mask) {
+            long existing = _picometers[index];
+            
+            if (existing == picometers) {
+                return index;
+            }
+            if (existing == EMPTY) {
+                return -1;
+            }
+        }
+    }
+    
+    private void _grow() {
+        if (_picometers.length == MAX_CAPACITY) {
+            throw new IllegalStateException("MeasurementMap is full: " + _size);
+        }
+        
+        long[] picometers = _picometers;
+        Measurement[] keys = _keys;
+        Object[] values = _values;
+        
+        _allocate(picometers.length << 1);
+        int mask = _picometers.length - 1;
+        
+        for (int i = 0; i < picometers.length; i++) {
+            if (picometers[i] != EMPTY) {
+                int index = _hash(picometers[i]);
+                
+                while (_picometers[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                
+                _picometers[index] = picometers[i];
+                _keys[index] = keys[i];
+                _values[index] = values[i];
+            }
+        }
+    }
+    
+    private void _allocate(int capacity) {
+        _picometers = new long[capacity];
+        _keys = new Measurement[capacity];
+        _values = new Object[capacity];
+        
+        _shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+        
+        Arrays.fill(_picometers, EMPTY);
+    }
+    
+    /**
+     * Spreads the picometers over the table with Fibonacci hashing, taking the high bits of the product, as
+     * lengths are often multiples of a large power of ten (e.g. whole millimeters) whose low bits are all zero.
+     */
+    private int _hash(long picometers) {
+        return (int) (picometers * GOLDEN_RATIO >>> _shift);
+    }
+    
+    private static int _threshold(int capacity) {
+        return capacity - (capacity >>> 2); // a load factor of 0.75
+    }
+    
+    private long[] _picometers; // EMPTY for the unused slots
+    private Measurement[] _keys;
+    private Object[] _values;
+    private int _size;
+    
+    private int _shift; // the number of bits of a hash that aren't used for the index
+    private Map<Measurement, V> _others; // the lengths that aren't held as picometers, created when the first one is put
+    
+    /**
+     * Marks an unused slot, which can't be confused with a length as it's outside of the fixed point range.
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+    
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+}
@@ -0,0 +1,225 @@
+package com.arahlf.measurements;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts of the library's formatting and parsing: how many Measurements are formatted, how many of those
+ * are approximations (e.g. "~1ft 3in") and how many are rounded up into a larger unit (e.g. 11.999in
+ * carrying into 1ft), how many are parsed and how many of those fail, and histograms of how long each
+ * takes.  The counters are {@link LongAdder}s, so recording from many threads doesn't contend.
+ * <p>
+ * The shared metrics, for the whole library, are disabled by default, when formatters and parsers only
+ * check {@link #current()} and record nothing.  They can be enabled with {@link #enable()} or by starting
+ * the JVM with the system property <code>com.arahlf.measurements.metrics=true</code>, and exported to JMX
+ * with {@link #registerMBean()}.
+ * <p>
+ * Metrics for a single formatter are {@link #create() created} and passed to the formatter's constructor.
+ * They record every call to that formatter, as well as the shared metrics recording it when enabled.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementMetrics implements MeasurementMetricsMXBean {
+    
+    /**
+     * Returns the shared metrics if they are enabled, otherwise null, so callers only time and record calls
+     * when something will read the results, e.g.
+     * <pre>
+     * MeasurementMetrics metrics = MeasurementMetrics.current();
+     * long start = metrics != null ? System.nanoTime() : 0;
+     * </pre>
+     * @return the shared metrics, or null if they are disabled
+     */
+    public static MeasurementMetrics current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Creates metrics for a single formatter, which are always enabled and are separate from the shared
+     * metrics.  They can be exported to JMX by registering them with an MBeanServer under a name of the
+     * caller's choosing.
+     * @return the new metrics
+     */
+    public static MeasurementMetrics create() {
+        return new MeasurementMetrics();
+    }
+    
+    /**
+     * Enables the shared metrics, which keep any counts from when they were last enabled.
+     * @return the shared metrics
+     */
+    public static MeasurementMetrics enable() {
+        CURRENT.set(INSTANCE);
+        
+        return INSTANCE;
+    }
+    
+    /**
+     * Disables the shared metrics, after which nothing more is recorded to them.
+     */
+    public static void disable() {
+        CURRENT.set(null);
+    }
+    
+    /**
+     * Registers the shared metrics with the platform MBeanServer as
+     * <code>com.arahlf.measurements:type=MeasurementMetrics</code>, unless they already are.  The MBean
+     * remains registered whether or not the metrics are enabled.
+     * @return the name of the MBean
+     * @throws IllegalStateException if the MBean couldn't be registered
+     */
+    public static ObjectName registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            
+            synchronized (INSTANCE) {
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(INSTANCE, name);
+                }
+            }
+            return name;
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Unable to register the MeasurementMetrics MBean.", e);
+        }
+    }
+    
+    /**
+     * Records a Measurement being formatted.
+     * @param nanos How long formatting took.
+     * @param approximation Whether the output was an approximation.
+     * @param roundingCarry Whether the last unit was rounded up into a larger one.
+     */
+    public void recordFormat(long nanos, boolean approximation, boolean roundingCarry) {
+        _formatCount.increment();
+        
+        if (approximation) {
+            _approximationCount.increment();
+        }
+        
+        if (roundingCarry) {
+            _roundingCarryCount.increment();
+        }
+        _formatLatency.record(nanos);
+    }
+    
+    /**
+     * Records a Measurement being parsed.
+     * @param nanos How long parsing took.
+     * @param failed Whether the text was malformed.
+     */
+    public void recordParse(long nanos, boolean failed) {
+        _parseCount.increment();
+        
+        if (failed) {
+            _parseFailureCount.increment();
+        }
+        _parseLatency.record(nanos);
+    }
+    
+    /**
+     * Returns true if the metrics record calls, which created metrics always do.
+     */
+    @Override
+    public boolean isEnabled() {
+        return this != INSTANCE || CURRENT.get() == this;
+    }
+    
+    @Override
+    public long getFormatCount() {
+        return _formatCount.sum();
+    }
+    
+    @Override
+    public long getApproximationCount() {
+        return _approximationCount.sum();
+    }
+    
+    @Override
+    public long getRoundingCarryCount() {
+        return _roundingCarryCount.sum();
+    }
+    
+    @Override
+    public long getParseCount() {
+        return _parseCount.sum();
+    }
+    
+    @Override
+    public long getParseFailureCount() {
+        return _parseFailureCount.sum();
+    }
+    
+    @Override
+    public long getFormatLatencyMedian() {
+        return _formatLatency.getPercentile(50);
+    }
+    
+    @Override
+    public long getFormatLatency99thPercentile() {
+        return _formatLatency.getPercentile(99);
+    }
+    
+    @Override
+    public long getParseLatencyMedian() {
+        return _parseLatency.getPercentile(50);
+    }
+    
+    @Override
+    public long getParseLatency99thPercentile() {
+        return _parseLatency.getPercentile(99);
+    }
+    
+    @Override
+    public long[] getFormatLatencyHistogram() {
+        return _formatLatency.getCounts();
+    }
+    
+    @Override
+    public long[] getParseLatencyHistogram() {
+        return _parseLatency.getCounts();
+    }
+    
+    /**
+     * Sets all of the counts back to zero.  Calls recorded concurrently may be partly kept.
+     */
+    @Override
+    public void reset() {
+        _formatCount.reset();
+        _approximationCount.reset();
+        _roundingCarryCount.reset();
+        _parseCount.reset();
+        _parseFailureCount.reset();
+        _formatLatency.reset();
+        _parseLatency.reset();
+    }
+    
+    @Override
+    public String toString() {
+        return "MeasurementMetrics[formats=" + getFormatCount() + ", approximations=" + getApproximationCount() + ", roundingCarries=" + getRoundingCarryCount()
+                + ", parses=" + getParseCount() + ", parseFailures=" + getParseFailureCount() + "]";
+    }
+    
+    private MeasurementMetrics() {
+    }
+    
+    private final LongAdder _formatCount = new LongAdder();
+    private final LongAdder _approximationCount = new LongAdder();
+    private final LongAdder _roundingCarryCount = new LongAdder();
+    private final LongAdder _parseCount = new LongAdder();
+    private final LongAdder _parseFailureCount = new LongAdder();
+    private final LatencyHistogram _formatLatency = new LatencyHistogram();
+    private final LatencyHistogram _parseLatency = new LatencyHistogram();
+    
+    private static final MeasurementMetrics INSTANCE = new MeasurementMetrics();
+    private static final AtomicReference<MeasurementMetrics> CURRENT = new AtomicReference<>(Boolean.getBoolean("com.arahlf.measurements.metrics") ? INSTANCE : null);
+    
+    private static final String OBJECT_NAME = "com.arahlf.measurements:type=MeasurementMetrics";
+}
@@ -0,0 +1,37 @@
+package com.arahlf.measurements;
+
+/**
+ * The management interface of {@link MeasurementMetrics}, registered by
+ * {@link MeasurementMetrics#registerMBean()} so the metrics can be read with JConsole, VisualVM and the like.
+ * Latencies are in nanoseconds, and the histograms are the counts of each power of two bucket.
+ * 
+ * @author arahlf
+ */
+public interface MeasurementMetricsMXBean {
+    
+    boolean isEnabled();
+    
+    long getFormatCount();
+    
+    long getApproximationCount();
+    
+    long getRoundingCarryCount();
+    
+    long getParseCount();
+    
+    long getParseFailureCount();
+    
+    long getFormatLatencyMedian();
+    
+    long getFormatLatency99thPercentile();
+    
+    long getParseLatencyMedian();
+    
+    long getParseLatency99thPercentile();
+    
+    long[] getFormatLatencyHistogram();
+    
+    long[] getParseLatencyHistogram();
+    
+    void reset();
+}
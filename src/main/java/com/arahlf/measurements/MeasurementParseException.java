@@ -0,0 +1,28 @@
+package com.arahlf.measurements;
+
+/**
+ * Thrown (or collected) by a {@link MeasurementReader} when a token in its input can't be parsed as
+ * a Measurement.
+ * 
+ * @author arahlf
+ */
+public class MeasurementParseException extends IllegalArgumentException {
+    
+    public MeasurementParseException(String message, long offset, IllegalArgumentException cause) {
+        super(message + " (token at offset " + offset + ")", cause);
+        
+        _offset = offset;
+    }
+    
+    /**
+     * Returns the offset in the input (in bytes) of the token that couldn't be parsed.
+     * @return the offset of the token that couldn't be parsed
+     */
+    public long getOffset() {
+        return _offset;
+    }
+    
+    private final long _offset;
+    
+    private static final long serialVersionUID = -2316460584735001147L;
+}
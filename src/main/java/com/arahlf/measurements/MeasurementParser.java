@@ -0,0 +1,238 @@
+package com.arahlf.measurements;
+
+import java.math.BigDecimal;
+
+/**
+ * Parses Measurements in the format produced by {@link Measurement#toString()} (e.g. "12.5in"), in a
+ * single pass over the characters.  The length is a decimal number with an optional sign and exponent,
+ * which is accumulated directly into a fixed point value when it fits.  It is followed by an optional
+ * whitespace character and the (case insensitive) abbreviation or display name of a Unit.
+ * <p>
+ * Malformed lengths are reported with a NumberFormatException and unknown or malformed units with an
+ * IllegalArgumentException, giving the index of the offending character.
+ * 
+ * @author arahlf
+ */
+final class MeasurementParser {
+    
+    static Measurement parse(CharSequence text, int offset, int length) {
+        MeasurementMetrics metrics = MeasurementMetrics.current();
+        
+        if (metrics == null) {
+            return _parse(text, offset, length);
+        }
+        
+        long start = System.nanoTime();
+        
+        try {
+            Measurement measurement = _parse(text, offset, length);
+            metrics.recordParse(System.nanoTime() - start, false);
+            
+            return measurement;
+        }
+        catch (IllegalArgumentException e) {
+            // NumberFormatExceptions included
+            metrics.recordParse(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+    
+    private static Measurement _parse(CharSequence text, int offset, int length) {
+        MeasurementParser parser = new MeasurementParser();
+        parser.read(text, offset, length);
+        
+        return parser.toMeasurement();
+    }
+    
+    /**
+     * Parses a Measurement from a range of characters, holding the result in this parser until the next
+     * call.  Nothing is allocated unless the length is too large or precise for a fixed point value.
+     */
+    void read(CharSequence text, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > text.length() - length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", text length: " + text.length());
+        }
+        
+        int end = offset + length;
+        int index = offset;
+        
+        boolean negative = false;
+        long unscaled = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean point = false;
+        boolean overflow = false;
+        
+        if (index < end && (text.charAt(index) == '-' || text.charAt(index) == '+')) {
+            negative = text.charAt(index) == '-';
+            index++;
+        }
+        
+        for (; index < end; index++) {
+            char c = text.charAt(index);
+            
+            if (c >= '0' && c <= '9') {
+                if (unscaled > MAX_UNSCALED) {
+                    overflow = true; // finished with a BigDecimal below
+                }
+                else {
+                    unscaled = unscaled * 10 + (c - '0');
+                    
+                    if (point) {
+                        scale++;
+                    }
+                }
+                digits = true;
+            }
+            else if (c == '.' && !point) {
+                point = true;
+            }
+            else {
+                break;
+            }
+        }
+        
+        if (!digits) {
+            throw new NumberFormatException(_describe(index < end ? "Expected a number" : "Missing number", text, offset, end, index));
+        }
+        
+        if (index < end && (text.charAt(index) == 'e' || text.charAt(index) == 'E') && _isExponent(text, index + 1, end)) {
+            boolean negativeExponent = text.charAt(++index) == '-';
+            long exponent = 0;
+            
+            if (text.charAt(index) == '-' || text.charAt(index) == '+') {
+                index++;
+            }
+            
+            for (; index < end && text.charAt(index) >= '0' && text.charAt(index) <= '9'; index++) {
+                exponent = Math.min(exponent * 10 + (text.charAt(index) - '0'), Integer.MAX_VALUE);
+            }
+            
+            if (exponent > MAX_EXPONENT) {
+                overflow = true;
+            }
+            else {
+                scale += (int) (negativeExponent ? exponent : -exponent);
+            }
+        }
+        
+        int numberEnd = index;
+        
+        if (index < end && !_isLetter(text.charAt(index))) {
+            if (!_isWhitespace(text.charAt(index))) {
+                throw new NumberFormatException(_describe("Unexpected '" + text.charAt(index) + "'", text, offset, end, index));
+            }
+            index++;
+        }
+        
+        int unitStart = index;
+        
+        while (index < end && _isLetter(text.charAt(index))) {
+            index++;
+        }
+        
+        if (index == unitStart) {
+            throw new IllegalArgumentException(_describe(index < end ? "Expected a unit" : "Missing unit", text, offset, end, index));
+        }
+        
+        if (index < end) {
+            throw new IllegalArgumentException(_describe("Unexpected '" + text.charAt(index) + "'", text, offset, end, index));
+        }
+        
+        Unit unit = Unit.find(text, unitStart, index);
+        
+        if (unit == null) {
+            throw new IllegalArgumentException(_describe("Unrecognized unit specified: " + text.subSequence(unitStart, index), text, offset, end, unitStart));
+        }
+        
+        _unit = unit;
+        _length = null;
+        
+        if (overflow) {
+            _length = _parseBigDecimal(text, offset, numberEnd, end);
+            return;
+        }
+        
+        if (negative) {
+            unscaled = -unscaled;
+        }
+        
+        _picometers = FixedPoint.toPicometers(unscaled, scale, unit.getPicometersPerUnit());
+        
+        if (_picometers == FixedPoint.INEXACT) {
+            _length = BigDecimal.valueOf(unscaled, scale);
+        }
+    }
+    
+    Unit getUnit() {
+        return _unit;
+    }
+    
+    /**
+     * Returns the parsed length in millimeters, as the nearest double.
+     */
+    double getMillimeters() {
+        if (_length != null) {
+            return _length.multiply(_unit.getMillimetersPerUnit()).doubleValue();
+        }
+        
+        if (Math.abs(_picometers) <= MAX_EXACT_DOUBLE) {
+            // both operands are exact, so the single division is correctly rounded
+            return _picometers / PICOMETERS_PER_MILLIMETER;
+        }
+        return BigDecimal.valueOf(_picometers, FixedPoint.PICOMETER_SCALE).doubleValue();
+    }
+    
+    Measurement toMeasurement() {
+        if (_length != null) {
+            return Measurement.create(_length, _unit);
+        }
+        return Measurement.fromPicometers(_picometers, _unit);
+    }
+    
+    private static boolean _isExponent(CharSequence text, int index, int end) {
+        if (index < end && (text.charAt(index) == '-' || text.charAt(index) == '+')) {
+            index++;
+        }
+        return index < end && text.charAt(index) >= '0' && text.charAt(index) <= '9';
+    }
+    
+    private static BigDecimal _parseBigDecimal(CharSequence text, int offset, int numberEnd, int end) {
+        try {
+            return new BigDecimal(text.subSequence(offset, numberEnd).toString());
+        }
+        catch (NumberFormatException e) {
+            // e.g. "1e99999999999in", whose exponent doesn't fit in an int
+            throw new NumberFormatException(_describe("Number out of range", text, offset, end, offset));
+        }
+    }
+    
+    private static boolean _isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+    
+    private static boolean _isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+    
+    private static String _describe(String problem, CharSequence text, int offset, int end, int index) {
+        return problem + " at index " + index + " in \"" + text.subSequence(offset, end) + "\"";
+    }
+    
+    private Unit _unit;
+    private long _picometers;
+    private BigDecimal _length; // the length in _unit when it isn't a fixed point value, otherwise null
+    
+    /**
+     * The largest unscaled value that another digit can be appended to without overflowing.
+     */
+    private static final long MAX_UNSCALED = (Long.MAX_VALUE - 9) / 10;
+    
+    /**
+     * Exponents beyond this are left to BigDecimal, as they are far outside of the fixed point range.
+     */
+    private static final int MAX_EXPONENT = 100_000;
+    
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final double PICOMETERS_PER_MILLIMETER = 1e9;
+}
@@ -0,0 +1,291 @@
+package com.arahlf.measurements;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads delimited Measurements (e.g. "12.5in\n3ft\n") directly from bytes, such as a memory-mapped file
+ * or a channel, without creating a String for each one.  Tokens are parsed in the same format as
+ * {@link Measurement#parse(String)} and the text is expected to be ASCII.  Whitespace around a token is
+ * ignored, as are empty tokens (e.g. blank lines).
+ * <p>
+ * Readers hold buffers that are reused between reads, so an instance should only be used by one thread
+ * at a time.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementReader {
+    
+    /**
+     * What a reader does with a token that can't be parsed.
+     */
+    public enum ErrorPolicy {
+        /** Ignore the token. */
+        SKIP,
+        /** Throw a {@link MeasurementParseException}, stopping the read. */
+        FAIL,
+        /** Ignore the token and keep the exception, see {@link MeasurementReader#getErrors()}. */
+        COLLECT
+    }
+    
+    /**
+     * Creates a reader of Measurements separated by line breaks or commas, which fails on the first
+     * token that can't be parsed.
+     */
+    public MeasurementReader() {
+        this(DEFAULT_DELIMITERS, ErrorPolicy.FAIL);
+    }
+    
+    /**
+     * Creates a reader of Measurements separated by any of the given (ASCII) delimiters.
+     * @param delimiters The characters that separate Measurements.
+     * @param errorPolicy What to do with tokens that can't be parsed.
+     */
+    public MeasurementReader(String delimiters, ErrorPolicy errorPolicy) {
+        if (delimiters.isEmpty()) {
+            throw new IllegalArgumentException("Must specify at least one delimiter.");
+        }
+        
+        _delimiters = new boolean[128];
+        
+        for (int i = 0; i < delimiters.length(); i++) {
+            char delimiter = delimiters.charAt(i);
+            
+            if (delimiter >= _delimiters.length || Character.isLetterOrDigit(delimiter) || delimiter == '.' || delimiter == '-' || delimiter == '+') {
+                throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+            }
+            _delimiters[delimiter] = true;
+        }
+        
+        _errorPolicy = errorPolicy;
+    }
+    
+    /**
+     * Reads the Measurements from the buffer's position to its limit, passing each to the consumer.  The
+     * buffer's position is advanced to its limit.
+     * @param buffer The bytes to read.
+     * @param consumer Receives each Measurement in order.
+     */
+    public void read(ByteBuffer buffer, Consumer<Measurement> consumer) {
+        _start();
+        _scan(buffer, 0, true, parser -> consumer.accept(parser.toMeasurement()));
+    }
+    
+    /**
+     * Reads the Measurements from the buffer's position to its limit.  The buffer's position is
+     * advanced to its limit.
+     * @param buffer The bytes to read.
+     * @return the length of each Measurement in millimeters, in order
+     */
+    public double[] readMillimeters(ByteBuffer buffer) {
+        _start();
+        _scan(buffer, 0, true, this::_addMillimeters);
+        
+        return Arrays.copyOf(_millimeters, _count);
+    }
+    
+    /**
+     * Reads the Measurements from the channel until it reaches the end of its stream, passing each to
+     * the consumer.  The channel must be in blocking mode, and is not closed.
+     * @param channel The channel to read from.
+     * @param consumer Receives each Measurement in order.
+     * @throws IOException if the channel can't be read
+     * @throws IllegalArgumentException if the channel is a non-blocking {@link SelectableChannel}
+     */
+    public void read(ReadableByteChannel channel, Consumer<Measurement> consumer) throws IOException {
+        _start();
+        _read(channel, parser -> consumer.accept(parser.toMeasurement()));
+    }
+    
+    /**
+     * Reads the Measurements from the channel until it reaches the end of its stream.  The channel
+     * must be in blocking mode, and is not closed.
+     * @param channel The channel to read from.
+     * @return the length of each Measurement in millimeters, in order
+     * @throws IOException if the channel can't be read
+     * @throws IllegalArgumentException if the channel is a non-blocking {@link SelectableChannel}
+     */
+    public double[] readMillimeters(ReadableByteChannel channel) throws IOException {
+        _start();
+        _read(channel, this::_addMillimeters);
+        
+        return Arrays.copyOf(_millimeters, _count);
+    }
+    
+    /**
+     * Returns the tokens that couldn't be parsed by the last read, when using {@link ErrorPolicy#COLLECT}.
+     * @return the errors from the last read, in order
+     */
+    public List<MeasurementParseException> getErrors() {
+        return Collections.unmodifiableList(_errors);
+    }
+    
+    private void _start() {
+        _errors.clear();
+        _count = 0;
+    }
+    
+    private void _read(ReadableByteChannel channel, Consumer<MeasurementParser> sink) throws IOException {
+        // a non-blocking channel reads nothing until there's input, which would spin until the end of the stream
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("Must specify a blocking channel.");
+        }
+        
+        ByteBuffer buffer = _buffer;
+        long offset = 0; // the offset in the stream of the start of the buffer
+        
+        buffer.clear();
+        
+        while (channel.read(buffer) != -1) {
+            if (!buffer.hasRemaining()) {
+                buffer.flip();
+                _scan(buffer, offset, false, sink);
+                
+                offset += buffer.position();
+                buffer.compact();
+                
+                if (!buffer.hasRemaining()) {
+                    // a single token filled the buffer
+                    buffer.flip();
+                    _buffer = buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer);
+                }
+            }
+        }
+        
+        buffer.flip();
+        _scan(buffer, offset, true, sink);
+    }
+    
+    /**
+     * Parses each complete token from the buffer's position (at the given offset in the input) to its
+     * limit, leaving the position at the start of an incomplete token if there's more input to come.
+     */
+    private void _scan(ByteBuffer buffer, long offset, boolean endOfInput, Consumer<MeasurementParser> sink) {
+        int base = buffer.position(); // at the given offset
+        int start = base;
+        int limit = buffer.limit();
+        
+        for (int i = start; i < limit; i++) {
+            byte b = buffer.get(i);
+            
+            if (b >= 0 && _delimiters[b]) {
+                _parseToken(buffer, start, i, offset + start - base, sink);
+                start = i + 1;
+            }
+        }
+        
+        if (endOfInput) {
+            _parseToken(buffer, start, limit, offset + start - base, sink);
+            start = limit;
+        }
+        
+        buffer.position(start);
+    }
+    
+    private void _parseToken(ByteBuffer buffer, int start, int end, long offset, Consumer<MeasurementParser> sink) {
+        int trimmedStart = start;
+        
+        while (trimmedStart < end && _isBlank(buffer.get(trimmedStart))) {
+            trimmedStart++;
+        }
+        while (end > trimmedStart && _isBlank(buffer.get(end - 1))) {
+            end--;
+        }
+        
+        if (trimmedStart == end) {
+            return;
+        }
+        
+        _token.reset(buffer, trimmedStart, end - trimmedStart);
+        
+        try {
+            _parser.read(_token, 0, _token.length());
+        }
+        catch (IllegalArgumentException e) {
+            MeasurementParseException error = new MeasurementParseException(e.getMessage(), offset + trimmedStart - start, e);
+            
+            if (_errorPolicy == ErrorPolicy.FAIL) {
+                throw error;
+            }
+            if (_errorPolicy == ErrorPolicy.COLLECT) {
+                _errors.add(error);
+            }
+            return;
+        }
+        
+        sink.accept(_parser);
+    }
+    
+    private void _addMillimeters(MeasurementParser parser) {
+        if (_count == _millimeters.length) {
+            _millimeters = Arrays.copyOf(_millimeters, _count * 2);
+        }
+        _millimeters[_count++] = parser.getMillimeters();
+    }
+    
+    private static boolean _isBlank(byte b) {
+        // the same characters as String.trim(), so e.g. the '\n' after a ',' delimiter is ignored too
+        return (b & 0xFF) <= ' ';
+    }
+    
+    /**
+     * The characters of a token in a ByteBuffer, without copying them.
+     */
+    private static final class ByteSequence implements CharSequence {
+        
+        void reset(ByteBuffer buffer, int start, int length) {
+            _buffer = buffer;
+            _start = start;
+            _length = length;
+        }
+        
+        @Override
+        public int length() {
+            return _length;
+        }
+        
+        @Override
+        public char charAt(int index) {
+            return (char) (_buffer.get(_start + index) & 0xFF);
+        }
+        
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder builder = new StringBuilder(end - start);
+            
+            for (int i = start; i < end; i++) {
+                builder.append(charAt(i));
+            }
+            return builder.toString();
+        }
+        
+        @Override
+        public String toString() {
+            return subSequence(0, _length).toString();
+        }
+        
+        private ByteBuffer _buffer;
+        private int _start;
+        private int _length;
+    }
+    
+    private final boolean[] _delimiters;
+    private final ErrorPolicy _errorPolicy;
+    private final MeasurementParser _parser = new MeasurementParser();
+    private final ByteSequence _token = new ByteSequence();
+    private final List<MeasurementParseException> _errors = new ArrayList<>();
+    
+    private ByteBuffer _buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private double[] _millimeters = new double[1024];
+    private int _count;
+    
+    private static final String DEFAULT_DELIMITERS = "\n\r,";
+    private static final int BUFFER_SIZE = 64 * 1024;
+}
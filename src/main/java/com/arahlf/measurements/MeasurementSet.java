@@ -0,0 +1,115 @@
+package com.arahlf.measurements;
+
+import java.util.function.Consumer;
+
+/**
+ * A set of Measurements by total length (regardless of Unit, as with equals), for deduplicating a large
+ * number of them (e.g. the stock lengths in a cut list).  It is backed by a {@link MeasurementMap}, so
+ * lookups of lengths held as picometers compare primitive keys rather than calling hashCode and equals.
+ * <p>
+ * The set only grows, and keeps the first Measurement added for each length.  Null Measurements aren't
+ * allowed, and the set isn't thread safe.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementSet {
+    
+    public MeasurementSet() {
+        _map = new MeasurementMap<>();
+    }
+    
+    /**
+     * Creates a set that holds the given number of Measurements without growing.
+     * @param expectedSize The number of Measurements that will be added to the set.
+     */
+    public MeasurementSet(int expectedSize) {
+        _map = new MeasurementMap<>(expectedSize);
+    }
+    
+    public int size() {
+        return _map.size();
+    }
+    
+    public boolean isEmpty() {
+        return _map.isEmpty();
+    }
+    
+    public boolean contains(Measurement measurement) {
+        return _map.containsKey(measurement);
+    }
+    
+    /**
+     * Adds the Measurement, unless the set already has one with the same length.
+     * @param measurement The Measurement to add.
+     * @return true if the Measurement was added
+     */
+    public boolean add(Measurement measurement) {
+        return _map.putIfAbsent(measurement, measurement) == null;
+    }
+    
+    /**
+     * Returns the Measurement in the set with the same length as the given one, or null if there is none.
+     * @param measurement The Measurement to look up.
+     * @return the Measurement in the set that is equal to the given one, or null
+     */
+    public Measurement get(Measurement measurement) {
+        return _map.get(measurement);
+    }
+    
+    /**
+     * Adds the Measurement unless the set already has one with the same length, in which case that one is
+     * returned, so that equal Measurements share a single instance.  As with {@link Measurement#intern()},
+     * exact Measurements aren't shared: an exact one is returned without being added, and one that was
+     * added exact isn't returned in place of another.
+     * @param measurement The Measurement to add.
+     * @return the Measurement in the set that is equal to the given one, or the given one if it was added,
+     *         it's exact or the one in the set is
+     */
+    public Measurement intern(Measurement measurement) {
+        if (measurement.isExact()) {
+            return measurement;
+        }
+        
+        Measurement existing = _map.putIfAbsent(measurement, measurement);
+        
+        return existing != null && !existing.isExact() ? existing : measurement;
+    }
+    
+    /**
+     * Calls the action with each Measurement, in no particular order.
+     * @param action The action to call.
+     */
+    public void forEach(Consumer<? super Measurement> action) {
+        _map.forEach((measurement, same) -> action.accept(measurement));
+    }
+    
+    /**
+     * Returns the Measurements in the set, in no particular order.
+     * @return array of the Measurements
+     */
+    public Measurement[] toArray() {
+        Measurement[] measurements = new Measurement[size()];
+        int[] index = new int[1];
+        
+        forEach(measurement -> measurements[index[0]++] = measurement);
+        return measurements;
+    }
+    
+    /**
+     * Returns the String representation of the set (e.g. "[1ft, 3in]"), in no particular order.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        
+        forEach(measurement -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(measurement);
+        });
+        return builder.append(']').toString();
+    }
+    
+    private final MeasurementMap<Measurement> _map;
+}
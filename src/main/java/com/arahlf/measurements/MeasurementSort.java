@@ -0,0 +1,144 @@
+package com.arahlf.measurements;
+
+import java.util.Arrays;
+
+/**
+ * Sorts arrays of Measurements by length, in the same order as {@link Measurement#compareTo(Measurement)}.
+ * Rather than comparing Measurements, the array is radix sorted by each Measurement's primitive
+ * {@link Measurement#getSortKey()}, so sorting a large array does a fixed number of passes over longs and
+ * creates no BigDecimals for the lengths held as picometers.  Only the runs of equal keys that include a
+ * length more precise than a picometer, or beyond the fixed point range, are then compared.
+ * <p>
+ * As with {@link Arrays#sort(Object[])}, the sort is stable, so equal Measurements (e.g. "1ft" and "12in")
+ * keep their order.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementSort {
+    
+    /**
+     * Sorts the Measurements into ascending order of length.
+     * @param measurements The Measurements to sort.
+     * @throws NullPointerException if any of the Measurements are null
+     */
+    public static void sort(Measurement[] measurements) {
+        int length = measurements.length;
+        
+        if (length < RADIX_THRESHOLD) {
+            Arrays.sort(measurements);
+            return;
+        }
+        
+        long[] keys = new long[length];
+        boolean fixedPoint = true;
+        
+        for (int i = 0; i < length; i++) {
+            keys[i] = measurements[i].getSortKey();
+            fixedPoint &= measurements[i].isFixedPoint();
+        }
+        
+        _radixSort(keys, measurements);
+        
+        if (!fixedPoint) {
+            _sortEqualKeys(keys, measurements);
+        }
+    }
+    
+    /**
+     * Sorts the keys, and the Measurements with them, with a stable least significant byte first radix sort.
+     * The passes over the bytes that all the keys share (e.g. the high bytes of short lengths) are skipped.
+     */
+    private static void _radixSort(long[] keys, Measurement[] measurements) {
+        int length = keys.length;
+        int[][] counts = new int[Long.BYTES][RADIX];
+        
+        for (long key : keys) {
+            long flipped = key ^ Long.MIN_VALUE; // so that negative keys sort before positive ones
+            
+            for (int pass = 0; pass < Long.BYTES; pass++) {
+                counts[pass][(int) (flipped >>> (pass * Byte.SIZE)) & RADIX_MASK]++;
+            }
+        }
+        
+        long[] sourceKeys = keys;
+        Measurement[] source = measurements;
+        long[] targetKeys = null;
+        Measurement[] target = null;
+        
+        for (int pass = 0; pass < Long.BYTES; pass++) {
+            int[] offsets = counts[pass];
+            int shift = pass * Byte.SIZE;
+            
+            if (offsets[(int) ((sourceKeys[0] ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK] == length) {
+                continue; // every key has the same byte, so this pass wouldn't move anything
+            }
+            
+            if (targetKeys == null) {
+                targetKeys = new long[length];
+                target = new Measurement[length];
+            }
+            
+            for (int i = 0, offset = 0; i < RADIX; i++) {
+                int count = offsets[i];
+                offsets[i] = offset;
+                offset += count;
+            }
+            
+            for (int i = 0; i < length; i++) {
+                long key = sourceKeys[i];
+                int index = offsets[(int) ((key ^ Long.MIN_VALUE) >>> shift) & RADIX_MASK]++;
+                
+                targetKeys[index] = key;
+                target[index] = source[i];
+            }
+            
+            long[] swapKeys = sourceKeys;
+            sourceKeys = targetKeys;
+            targetKeys = swapKeys;
+            
+            Measurement[] swap = source;
+            source = target;
+            target = swap;
+        }
+        
+        if (source != measurements) {
+            System.arraycopy(sourceKeys, 0, keys, 0, length);
+            System.arraycopy(source, 0, measurements, 0, length);
+        }
+    }
+    
+    /**
+     * Sorts each run of equal keys that includes a Measurement that isn't fixed point, as those aren't
+     * necessarily equal.
+     */
+    private static void _sortEqualKeys(long[] keys, Measurement[] measurements) {
+        int start = 0;
+        
+        while (start < keys.length) {
+            int end = start + 1;
+            boolean fixedPoint = measurements[start].isFixedPoint();
+            
+            while (end < keys.length && keys[end] == keys[start]) {
+                fixedPoint &= measurements[end].isFixedPoint();
+                end++;
+            }
+            
+            if (!fixedPoint && end - start > 1) {
+                Arrays.sort(measurements, start, end);
+            }
+            start = end;
+        }
+    }
+    
+    private MeasurementSort() {
+    }
+    
+    /**
+     * Arrays shorter than this are sorted by comparing the Measurements, which is faster than the passes of
+     * the radix sort for a small number of them.
+     */
+    static final int RADIX_THRESHOLD = 256;
+    
+    private static final int RADIX = 1 << Byte.SIZE;
+    private static final int RADIX_MASK = RADIX - 1;
+}
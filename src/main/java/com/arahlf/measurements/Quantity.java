@@ -0,0 +1,305 @@
+package com.arahlf.measurements;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * An immutable area or volume, consisting of an amount and a {@link QuantityUnit} (e.g. "12 sq ft").
+ * Areas are created by multiplying two Measurements, and volumes by multiplying an area by a Measurement
+ * or with the static create methods.  Like Measurements, all operations return new instances using the
+ * HALF_UP rounding mode when applicable, and Quantities are equal when their total amounts are equal
+ * regardless of unit (e.g. "1 sq ft" and "144 sq in").
+ * <p>
+ * Amounts that are a whole number of 10^-6 square millimeters or 10^-3 cubic millimeters are held as a
+ * primitive fixed point value, the same way as Measurement's picometers, and others as BigDecimals.  The
+ * dimension and size of each unit are resolved when the QuantityUnit is initialized, so checking that two
+ * Quantities can be added is a single comparison.
+ * 
+ * @author arahlf
+ */
+public final class Quantity implements Serializable {
+    
+    public static Quantity create(int amount, QuantityUnit unit) {
+        long fixedPoint = FixedPoint.multiply(amount, unit.getFixedPointPerUnit());
+        
+        if (FixedPoint.inRange(fixedPoint)) {
+            return new Quantity(fixedPoint, unit);
+        }
+        return create(new BigDecimal(amount), unit);
+    }
+    
+    public static Quantity create(String amount, QuantityUnit unit) {
+        return create(new BigDecimal(amount), unit);
+    }
+    
+    public static Quantity create(BigDecimal amount, QuantityUnit unit) {
+        long fixedPoint = FixedPoint.toPicometers(amount, unit.getFixedPointPerUnit());
+        
+        if (fixedPoint != FixedPoint.INEXACT) {
+            return new Quantity(fixedPoint, unit);
+        }
+        return new Quantity(amount.multiply(unit.getMillimetersPerUnit()).stripTrailingZeros(), unit);
+    }
+    
+    /**
+     * Returns the area of a rectangle with the two sides, in the square of the first side's Unit.
+     */
+    static Quantity area(Measurement length, Measurement width) {
+        QuantityUnit unit = QuantityUnit.square(length.getUnit());
+        
+        if (length.isFixedPoint() && width.isFixedPoint()) {
+            // picometers squared are at twice the scale of a fixed point area
+            long fixedPoint = _rescale(length.getLengthInPicometers(), width.getLengthInPicometers(), Dimension.LENGTH, Dimension.LENGTH, Dimension.AREA);
+            
+            if (fixedPoint != FixedPoint.INEXACT) {
+                return new Quantity(fixedPoint, unit);
+            }
+        }
+        
+        return _fromMillimeters(length.getLengthInMillimeters().multiply(width.getLengthInMillimeters()), unit);
+    }
+    
+    private static Quantity _fromMillimeters(BigDecimal millis, QuantityUnit unit) {
+        long fixedPoint = FixedPoint.toPicometers(millis, FixedPoint.POWERS_OF_TEN[unit.getDimension().getScale()]);
+        
+        if (fixedPoint != FixedPoint.INEXACT) {
+            return new Quantity(fixedPoint, unit);
+        }
+        return new Quantity(millis.stripTrailingZeros(), unit);
+    }
+    
+    /**
+     * Multiplies two fixed point amounts of the given dimensions into a fixed point amount of the result's.
+     * @return the product, or {@link FixedPoint#INEXACT} if it isn't exact or is out of range
+     */
+    private static long _rescale(long x, long y, Dimension xDimension, Dimension yDimension, Dimension result) {
+        // the product is at the sum of the scales, toPicometers divides out the excess when it's exact
+        return FixedPoint.toPicometers(x, xDimension.getScale() + yDimension.getScale() - result.getScale(), y);
+    }
+    
+    private Quantity(long fixedPoint, QuantityUnit unit) {
+        _fixedPoint = fixedPoint;
+        _millis = null;
+        _unit = unit;
+    }
+    
+    private Quantity(BigDecimal millis, QuantityUnit unit) {
+        _fixedPoint = 0;
+        _millis = millis;
+        _unit = unit;
+    }
+    
+    /**
+     * Returns the amount of the Quantity in its unit.
+     * @return the amount of the Quantity
+     */
+    public BigDecimal getAmount() {
+        BigDecimal amount = _amount;
+        
+        if (amount == null) {
+            _amount = amount = _computeAmount(_unit);
+        }
+        return amount;
+    }
+    
+    private BigDecimal _computeAmount(QuantityUnit unit) {
+        if (_millis == null) {
+            BigDecimal amount = FixedPoint.divide(_fixedPoint, unit.getFixedPointPerUnit());
+            
+            if (amount != null) {
+                return amount;
+            }
+        }
+        return getAmountInMillimeters().divide(unit.getMillimetersPerUnit(), Measurement.SCALE, Measurement.ROUNDING_MODE).stripTrailingZeros();
+    }
+    
+    /**
+     * Returns the amount of the Quantity in square millimeters for an area, or cubic millimeters for a volume.
+     * @return the amount of the Quantity in square or cubic millimeters
+     */
+    public BigDecimal getAmountInMillimeters() {
+        return _millis != null ? _millis : FixedPoint.stripped(_fixedPoint, _unit.getDimension().getScale());
+    }
+    
+    public QuantityUnit getUnit() {
+        return _unit;
+    }
+    
+    public Dimension getDimension() {
+        return _unit.getDimension();
+    }
+    
+    public boolean isZero() {
+        return _millis == null ? _fixedPoint == 0 : _millis.signum() == 0;
+    }
+    
+    /**
+     * Returns a new Quantity that is the sum of the two, which must be of the same dimension.  The original
+     * Quantity's unit is maintained.
+     * @param quantity The Quantity to add
+     * @return Quantity that is the sum of the two
+     * @throws IllegalArgumentException if the Quantities are of different dimensions
+     */
+    public Quantity add(Quantity quantity) {
+        _checkDimension(quantity, "add");
+        
+        if (_millis == null && quantity._millis == null) {
+            long fixedPoint = _fixedPoint + quantity._fixedPoint; // can't overflow, both are within range
+            
+            if (FixedPoint.inRange(fixedPoint)) {
+                return new Quantity(fixedPoint, _unit);
+            }
+        }
+        
+        return _fromMillimeters(getAmountInMillimeters().add(quantity.getAmountInMillimeters()), _unit);
+    }
+    
+    /**
+     * Returns a new Quantity that is the difference of the two, which must be of the same dimension.  The
+     * original Quantity's unit is maintained.
+     * @param quantity The Quantity to subtract
+     * @return Quantity that is the difference of the two
+     * @throws IllegalArgumentException if the Quantities are of different dimensions
+     */
+    public Quantity subtract(Quantity quantity) {
+        _checkDimension(quantity, "subtract");
+        
+        if (_millis == null && quantity._millis == null) {
+            long fixedPoint = _fixedPoint - quantity._fixedPoint; // can't overflow, both are within range
+            
+            if (FixedPoint.inRange(fixedPoint)) {
+                return new Quantity(fixedPoint, _unit);
+            }
+        }
+        
+        return _fromMillimeters(getAmountInMillimeters().subtract(quantity.getAmountInMillimeters()), _unit);
+    }
+    
+    /**
+     * Returns a new Quantity that is the product of the two.  The original Quantity's unit is maintained.
+     * @param multiplicand The amount to multiply by
+     * @return Quantity that is the product of the two
+     */
+    public Quantity multiply(BigDecimal multiplicand) {
+        return create(getAmount().multiply(multiplicand).stripTrailingZeros(), _unit);
+    }
+    
+    /**
+     * Returns a new Quantity that is the quotient of the two.  The original Quantity's unit is maintained.
+     * @param divisor The amount to divide by
+     * @return Quantity that is the quotient of the two
+     */
+    public Quantity divide(BigDecimal divisor) {
+        return create(getAmount().divide(divisor, Measurement.SCALE, Measurement.ROUNDING_MODE).stripTrailingZeros(), _unit);
+    }
+    
+    /**
+     * Returns the volume of this area extended by the length, in the cube of the area's linear Unit (e.g.
+     * cubic feet for square feet).
+     * @param measurement The length to multiply by
+     * @return Quantity that is the volume
+     * @throws IllegalArgumentException if this Quantity is not an area
+     */
+    public Quantity multiply(Measurement measurement) {
+        if (_unit.getDimension() != Dimension.AREA) {
+            throw new IllegalArgumentException("Only an area can be multiplied by a length: " + this);
+        }
+        
+        QuantityUnit unit = QuantityUnit.cube(_unit.getLinearUnit());
+        
+        if (_millis == null && measurement.isFixedPoint()) {
+            long fixedPoint = _rescale(_fixedPoint, measurement.getLengthInPicometers(), Dimension.AREA, Dimension.LENGTH, Dimension.VOLUME);
+            
+            if (fixedPoint != FixedPoint.INEXACT) {
+                return new Quantity(fixedPoint, unit);
+            }
+        }
+        
+        return _fromMillimeters(getAmountInMillimeters().multiply(measurement.getLengthInMillimeters()), unit);
+    }
+    
+    /**
+     * Returns a new Quantity that is converted to the given unit, which must be of the same dimension.
+     * @param unit The unit to convert the Quantity to
+     * @return Quantity that is converted to the given unit
+     * @throws IllegalArgumentException if the unit is of a different dimension
+     */
+    public Quantity convert(QuantityUnit unit) {
+        if (unit.getDimension() != _unit.getDimension()) {
+            throw new IllegalArgumentException("Cannot convert " + this + " to " + unit.getDisplayName() + ".");
+        }
+        
+        if (_millis == null && _fixedPoint % unit.getFixedPointPerUnit() == 0) {
+            return new Quantity(_fixedPoint, unit); // nothing to round, so the amount is unchanged
+        }
+        return create(_computeAmount(unit), unit);
+    }
+    
+    private void _checkDimension(Quantity quantity, String operation) {
+        if (quantity._unit.getDimension() != _unit.getDimension()) {
+            throw new IllegalArgumentException("Cannot " + operation + " Quantities of different dimensions: " + this + ", " + quantity);
+        }
+    }
+    
+    /**
+     * Returns the String representation of the Quantity (e.g. "12 sq ft").
+     */
+    @Override
+    public String toString() {
+        return getAmount().toPlainString() + " " + _unit.getAbbreviation();
+    }
+    
+    /**
+     * Returns true if the given Quantity is of the same dimension and its total amount (regardless of unit)
+     * is equal to this one.  For example, "1 sq ft" would be equal to "144 sq in".
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Quantity)) {
+            return false;
+        }
+        
+        Quantity quantity = (Quantity) other;
+        
+        if (quantity._unit.getDimension() != _unit.getDimension()) {
+            return false;
+        }
+        
+        // as with Measurement, amounts are only held as BigDecimals when they can't be held as fixed point values
+        if (_millis == null) {
+            return quantity._millis == null && _fixedPoint == quantity._fixedPoint;
+        }
+        
+        return _millis.equals(quantity._millis);
+    }
+    
+    @Override
+    public int hashCode() {
+        int hash = _millis == null ? Long.hashCode(_fixedPoint) : _millis.hashCode();
+        
+        return hash * 31 + _unit.getDimension().getExponent();
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        
+        if (_unit == null || (_millis == null && !FixedPoint.inRange(_fixedPoint))) {
+            throw new InvalidObjectException("Malformed Quantity.");
+        }
+    }
+    
+    private final long _fixedPoint;
+    private final BigDecimal _millis; // null when the amount is held in _fixedPoint
+    private final QuantityUnit _unit;
+    
+    // lazily computed, racy single-check is safe as the instance is immutable and the amount is too
+    private transient BigDecimal _amount;
+    
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,110 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * The units of areas and volumes.  Each is derived from a {@link Unit} (e.g. square feet from feet), with
+ * its size in square or cubic millimeters worked out once, when the enum is initialized.
+ * 
+ * @author arahlf
+ */
+public enum QuantityUnit {
+    
+    SQUARE_MILLIMETER("sq mm", "Square Millimeters", Dimension.AREA, MILLIMETER, "1"),
+    SQUARE_CENTIMETER("sq cm", "Square Centimeters", Dimension.AREA, CENTIMETER, "1"),
+    SQUARE_METER("sq m", "Square Meters", Dimension.AREA, METER, "1"),
+    SQUARE_INCH("sq in", "Square Inches", Dimension.AREA, INCH, "1"),
+    SQUARE_FOOT("sq ft", "Square Feet", Dimension.AREA, FOOT, "1"),
+    SQUARE_YARD("sq yd", "Square Yards", Dimension.AREA, YARD, "1"),
+    CUBIC_MILLIMETER("cu mm", "Cubic Millimeters", Dimension.VOLUME, MILLIMETER, "1"),
+    CUBIC_CENTIMETER("cu cm", "Cubic Centimeters", Dimension.VOLUME, CENTIMETER, "1"),
+    CUBIC_METER("cu m", "Cubic Meters", Dimension.VOLUME, METER, "1"),
+    CUBIC_INCH("cu in", "Cubic Inches", Dimension.VOLUME, INCH, "1"),
+    CUBIC_FOOT("cu ft", "Cubic Feet", Dimension.VOLUME, FOOT, "1"),
+    CUBIC_YARD("cu yd", "Cubic Yards", Dimension.VOLUME, YARD, "1"),
+    BOARD_FOOT("bd ft", "Board Feet", Dimension.VOLUME, INCH, "144"); // 1ft x 1ft x 1in
+    
+    public String getAbbreviation() {
+        return _abbreviation;
+    }
+    
+    public String getDisplayName() {
+        return _displayName;
+    }
+    
+    public Dimension getDimension() {
+        return _dimension;
+    }
+    
+    /**
+     * Returns the Unit the unit is derived from, e.g. FOOT for square feet.  Multiplying an area by a
+     * length gives a volume in the cube of this Unit.
+     */
+    public Unit getLinearUnit() {
+        return _linearUnit;
+    }
+    
+    /**
+     * Returns the size of the unit in square millimeters for an area, or cubic millimeters for a volume.
+     */
+    public BigDecimal getMillimetersPerUnit() {
+        return _millimetersPerUnit;
+    }
+    
+    /**
+     * Returns the size of the unit as a fixed point amount of its dimension.
+     */
+    long getFixedPointPerUnit() {
+        return _fixedPointPerUnit;
+    }
+    
+    /**
+     * Returns the unit of area that is the square of the given Unit (e.g. SQUARE_FOOT for FOOT).
+     */
+    public static QuantityUnit square(Unit unit) {
+        return SQUARES[unit.ordinal()];
+    }
+    
+    /**
+     * Returns the unit of volume that is the cube of the given Unit (e.g. CUBIC_FOOT for FOOT).
+     */
+    public static QuantityUnit cube(Unit unit) {
+        return CUBES[unit.ordinal()];
+    }
+    
+    public static QuantityUnit parse(String name) {
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+        
+        for (QuantityUnit unit : UNITS) {
+            if (unit._abbreviation.equals(lowerCaseName) || unit._displayName.toLowerCase(Locale.ROOT).equals(lowerCaseName)) {
+                return unit;
+            }
+        }
+        throw new IllegalArgumentException("Unrecognized unit specified: " + lowerCaseName);
+    }
+    
+    private QuantityUnit(String abbreviation, String displayName, Dimension dimension, Unit linearUnit, String multiple) {
+        _abbreviation = abbreviation;
+        _displayName = displayName;
+        _dimension = dimension;
+        _linearUnit = linearUnit;
+        _millimetersPerUnit = linearUnit.getMillimetersPerUnit().pow(dimension.getExponent()).multiply(new BigDecimal(multiple)).stripTrailingZeros();
+        _fixedPointPerUnit = _millimetersPerUnit.movePointRight(dimension.getScale()).longValueExact();
+    }
+    
+    private final String _abbreviation;
+    private final String _displayName;
+    private final Dimension _dimension;
+    private final Unit _linearUnit;
+    private final BigDecimal _millimetersPerUnit;
+    private final long _fixedPointPerUnit;
+    
+    private static final QuantityUnit[] UNITS = values();
+    
+    // indexed by Unit ordinal
+    private static final QuantityUnit[] SQUARES = { SQUARE_MILLIMETER, SQUARE_CENTIMETER, SQUARE_METER, SQUARE_INCH, SQUARE_FOOT, SQUARE_YARD };
+    private static final QuantityUnit[] CUBES = { CUBIC_MILLIMETER, CUBIC_CENTIMETER, CUBIC_METER, CUBIC_INCH, CUBIC_FOOT, CUBIC_YARD };
+}
@@ -0,0 +1,249 @@
+package com.arahlf.measurements;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * An exact fraction, held in lowest terms with a positive denominator, for lengths in millimeters that
+ * have no decimal form (e.g. a third of a millimeter).  The numerator and denominator are held as longs,
+ * with the arithmetic done on primitives, until they overflow and are held as BigIntegers instead.
+ * 
+ * @author arahlf
+ */
+final class Rational {
+    
+    static Rational valueOf(BigDecimal decimal) {
+        BigInteger unscaled = decimal.unscaledValue();
+        int scale = decimal.scale();
+        
+        if (scale <= 0) {
+            return valueOf(unscaled.multiply(BigInteger.TEN.pow(-scale)), BigInteger.ONE);
+        }
+        return valueOf(unscaled, BigInteger.TEN.pow(scale));
+    }
+    
+    /**
+     * Returns the fraction in lowest terms.
+     * @throws ArithmeticException if the denominator is zero
+     */
+    static Rational valueOf(BigInteger numerator, BigInteger denominator) {
+        if (denominator.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        
+        if (denominator.signum() < 0) {
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+        
+        BigInteger gcd = numerator.gcd(denominator);
+        
+        if (!gcd.equals(BigInteger.ONE)) {
+            numerator = numerator.divide(gcd);
+            denominator = denominator.divide(gcd);
+        }
+        
+        if (numerator.bitLength() < Long.SIZE - 1 && denominator.bitLength() < Long.SIZE - 1) {
+            return new Rational(numerator.longValue(), denominator.longValue());
+        }
+        return new Rational(numerator, denominator);
+    }
+    
+    /**
+     * Returns the fraction in lowest terms, where both are below 2^62 in magnitude and the denominator is positive.
+     */
+    static Rational valueOf(long numerator, long denominator) {
+        long gcd = _gcd(Math.abs(numerator), denominator);
+        
+        return new Rational(numerator / gcd, denominator / gcd);
+    }
+    
+    private Rational(long numerator, long denominator) {
+        _numerator = numerator;
+        _denominator = denominator;
+        _bigNumerator = null;
+        _bigDenominator = null;
+    }
+    
+    private Rational(BigInteger numerator, BigInteger denominator) {
+        _numerator = 0;
+        _denominator = 0;
+        _bigNumerator = numerator;
+        _bigDenominator = denominator;
+    }
+    
+    BigInteger getNumerator() {
+        return _bigNumerator != null ? _bigNumerator : BigInteger.valueOf(_numerator);
+    }
+    
+    BigInteger getDenominator() {
+        return _bigDenominator != null ? _bigDenominator : BigInteger.valueOf(_denominator);
+    }
+    
+    int signum() {
+        return _bigNumerator != null ? _bigNumerator.signum() : Long.signum(_numerator);
+    }
+    
+    Rational negate() {
+        return _bigNumerator != null ? new Rational(_bigNumerator.negate(), _bigDenominator) : new Rational(-_numerator, _denominator);
+    }
+    
+    Rational add(Rational other) {
+        if (_bigNumerator == null && other._bigNumerator == null) {
+            long gcd = _gcd(_denominator, other._denominator);
+            long left = FixedPoint.multiply(_numerator, other._denominator / gcd);
+            long right = FixedPoint.multiply(other._numerator, _denominator / gcd);
+            long denominator = FixedPoint.multiply(_denominator, other._denominator / gcd);
+            
+            // below 2^62 in magnitude, so the sum can't overflow or be Long.MIN_VALUE
+            if (left != FixedPoint.INEXACT && right != FixedPoint.INEXACT && denominator != FixedPoint.INEXACT
+                    && Math.abs(left) < LONG_LIMIT && Math.abs(right) < LONG_LIMIT) {
+                long numerator = left + right;
+                long reduced = _gcd(Math.abs(numerator), denominator);
+                
+                numerator /= reduced;
+                denominator /= reduced;
+                
+                if (Math.abs(numerator) < LONG_LIMIT && denominator < LONG_LIMIT) {
+                    return new Rational(numerator, denominator);
+                }
+            }
+        }
+        
+        return valueOf(getNumerator().multiply(other.getDenominator()).add(other.getNumerator().multiply(getDenominator())), getDenominator().multiply(other.getDenominator()));
+    }
+    
+    Rational multiply(Rational other) {
+        if (_bigNumerator == null && other._bigNumerator == null) {
+            // reduced across first, so the product is already in lowest terms
+            long gcd1 = _gcd(Math.abs(_numerator), other._denominator);
+            long gcd2 = _gcd(Math.abs(other._numerator), _denominator);
+            long numerator = FixedPoint.multiply(_numerator / gcd1, other._numerator / gcd2);
+            long denominator = FixedPoint.multiply(_denominator / gcd2, other._denominator / gcd1);
+            
+            if (numerator != FixedPoint.INEXACT && denominator != FixedPoint.INEXACT && Math.abs(numerator) < LONG_LIMIT && denominator < LONG_LIMIT) {
+                return new Rational(numerator, denominator);
+            }
+        }
+        
+        return valueOf(getNumerator().multiply(other.getNumerator()), getDenominator().multiply(other.getDenominator()));
+    }
+    
+    /**
+     * @throws ArithmeticException if the divisor is zero
+     */
+    Rational divide(Rational other) {
+        if (other.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        
+        Rational reciprocal = other._bigNumerator != null ? valueOf(other._bigDenominator, other._bigNumerator)
+                : new Rational(other._denominator * Long.signum(other._numerator), Math.abs(other._numerator));
+        
+        return multiply(reciprocal);
+    }
+    
+    int compareTo(Rational other) {
+        if (_bigNumerator == null && other._bigNumerator == null) {
+            // both denominators are positive, so the cross products compare the same way as the fractions
+            long left = FixedPoint.multiply(_numerator, other._denominator);
+            long right = FixedPoint.multiply(other._numerator, _denominator);
+            
+            if (left != FixedPoint.INEXACT && right != FixedPoint.INEXACT) {
+                return Long.compare(left, right);
+            }
+        }
+        
+        return getNumerator().multiply(other.getDenominator()).compareTo(other.getNumerator().multiply(getDenominator()));
+    }
+    
+    /**
+     * Returns the fraction rounded to the given number of decimal places.
+     */
+    BigDecimal toBigDecimal(int scale, RoundingMode roundingMode) {
+        return new BigDecimal(getNumerator()).divide(new BigDecimal(getDenominator()), scale, roundingMode);
+    }
+    
+    /**
+     * Returns the fraction as an exact (stripped) decimal, or null if it has none because its denominator
+     * has a prime factor other than 2 and 5.
+     */
+    BigDecimal toExactBigDecimal() {
+        BigInteger denominator = getDenominator();
+        int twos = denominator.getLowestSetBit();
+        
+        denominator = denominator.shiftRight(twos);
+        int fives = 0;
+        
+        while (true) {
+            BigInteger[] result = denominator.divideAndRemainder(FIVE);
+            
+            if (result[1].signum() != 0) {
+                break;
+            }
+            denominator = result[0];
+            fives++;
+        }
+        
+        if (!denominator.equals(BigInteger.ONE)) {
+            return null;
+        }
+        
+        // n / (2^twos * 5^fives) = n * 2^(scale - twos) * 5^(scale - fives) / 10^scale
+        int scale = Math.max(twos, fives);
+        BigInteger unscaled = getNumerator().shiftLeft(scale - twos).multiply(FIVE.pow(scale - fives));
+        
+        return new BigDecimal(unscaled, scale).stripTrailingZeros();
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Rational)) {
+            return false;
+        }
+        
+        Rational rational = (Rational) other;
+        
+        // both are in lowest terms, and only held as BigIntegers when they don't fit in longs
+        if (_bigNumerator == null) {
+            return rational._bigNumerator == null && _numerator == rational._numerator && _denominator == rational._denominator;
+        }
+        return _bigNumerator.equals(rational._bigNumerator) && _bigDenominator.equals(rational._bigDenominator);
+    }
+    
+    @Override
+    public int hashCode() {
+        if (_bigNumerator == null) {
+            return Long.hashCode(_numerator) * 31 + Long.hashCode(_denominator);
+        }
+        return _bigNumerator.hashCode() * 31 + _bigDenominator.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return getNumerator() + "/" + getDenominator();
+    }
+    
+    private static long _gcd(long x, long y) {
+        while (y != 0) {
+            long remainder = x % y;
+            x = y;
+            y = remainder;
+        }
+        return x == 0 ? 1 : x;
+    }
+    
+    private final long _numerator;
+    private final long _denominator;
+    private final BigInteger _bigNumerator; // null when the fraction is held in longs
+    private final BigInteger _bigDenominator;
+    
+    /**
+     * Fractions are only held in longs below this in magnitude, so that sums of two can't overflow and each
+     * fraction has a single representation.
+     */
+    private static final long LONG_LIMIT = 1L << 62;
+    
+    private static final BigInteger FIVE = BigInteger.valueOf(5);
+}
@@ -0,0 +1,68 @@
+package com.arahlf.measurements;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * The serialized form of a Measurement, which is its {@link MeasurementCodec} encoding (the Unit's
+ * ordinal and a varint of its length) rather than a BigDecimal and an enum.  Measurements replace
+ * themselves with one of these when serialized, and it resolves back to the Measurement when deserialized.
+ * 
+ * @author arahlf
+ */
+final class SerializedMeasurement implements Externalizable {
+    
+    /**
+     * Required by {@link Externalizable}, the Measurement is then read by {@link #readExternal(ObjectInput)}.
+     */
+    public SerializedMeasurement() {
+    }
+    
+    SerializedMeasurement(Measurement measurement) {
+        _measurement = measurement;
+    }
+    
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MeasurementCodec.encodedSize(_measurement));
+        MeasurementCodec.encode(_measurement, buffer);
+        
+        out.writeInt(buffer.position());
+        out.write(buffer.array(), 0, buffer.position());
+    }
+    
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int size = in.readInt();
+        
+        if (size < 2) {
+            throw new InvalidObjectException("Invalid size: " + size);
+        }
+        
+        byte[] bytes = new byte[size];
+        in.readFully(bytes);
+        
+        try {
+            _measurement = MeasurementCodec.decode(ByteBuffer.wrap(bytes));
+        }
+        catch (IllegalArgumentException | BufferUnderflowException e) {
+            InvalidObjectException invalid = new InvalidObjectException("Malformed Measurement.");
+            invalid.initCause(e);
+            
+            throw invalid;
+        }
+    }
+    
+    private Object readResolve() {
+        return _measurement;
+    }
+    
+    private Measurement _measurement;
+    
+    private static final long serialVersionUID = 1L;
+}
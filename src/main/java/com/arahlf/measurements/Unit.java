@@ -1,6 +1,7 @@
 package com.arahlf.measurements;
 
 import java.math.BigDecimal;
+import java.util.Locale;
 
 public enum Unit {
     
@@ -23,27 +24,77 @@ public enum Unit {
         return _millimetersPerUnit;
     }
     
+    public long getPicometersPerUnit() {
+        return _picometersPerUnit;
+    }
+    
     public static Unit parse(String name) {
-        name = name.toLowerCase();
+        Unit unit = find(name, 0, name.length());
+        
+        if (unit == null) {
+            throw new IllegalArgumentException("Unrecognized unit specified: " + name.toLowerCase());
+        }
+        return unit;
+    }
+    
+    /**
+     * Finds the Unit whose abbreviation or display name matches (ignoring case) the given range of characters.
+     * @return the matching Unit, or null if there isn't one
+     */
+    static Unit find(CharSequence name, int start, int end) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (_matches(NAMES[i], name, start, end)) {
+                return NAMED_UNITS[i];
+            }
+        }
+        return null;
+    }
+    
+    private static boolean _matches(String lowerCaseName, CharSequence name, int start, int end) {
+        if (lowerCaseName.length() != end - start) {
+            return false;
+        }
         
-        for (Unit unit : Unit.values()) {
-            String abbreviation = unit.getAbbreviation().toLowerCase();
-            String displayName = unit.getDisplayName().toLowerCase();
+        for (int i = 0; i < lowerCaseName.length(); i++) {
+            char c = name.charAt(start + i);
             
-            if (name.equals(abbreviation) || name.equals(displayName)) {
-                return unit;
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != lowerCaseName.charAt(i)) {
+                return false;
             }
         }
-        throw new IllegalArgumentException("Unrecognized unit specified: " + name);
+        return true;
     }
     
     private Unit(String abbreviation, String displayName, String millimetersPerUnit) {
         _abbreviation = abbreviation;
         _displayName = displayName;
         _millimetersPerUnit = new BigDecimal(millimetersPerUnit);
+        _picometersPerUnit = _millimetersPerUnit.movePointRight(FixedPoint.PICOMETER_SCALE).longValueExact();
     }
     
     private final String _abbreviation;
     private final String _displayName;
     private final BigDecimal _millimetersPerUnit;
+    private final long _picometersPerUnit;
+    
+    // every abbreviation and display name in lower case, along with its Unit
+    private static final String[] NAMES;
+    private static final Unit[] NAMED_UNITS;
+    
+    static {
+        Unit[] units = values();
+        
+        NAMES = new String[units.length * 2];
+        NAMED_UNITS = new Unit[units.length * 2];
+        
+        for (int i = 0; i < units.length; i++) {
+            NAMES[i] = units[i]._abbreviation.toLowerCase(Locale.ROOT);
+            NAMED_UNITS[i] = units[i];
+            NAMES[units.length + i] = units[i]._displayName.toLowerCase(Locale.ROOT);
+            NAMED_UNITS[units.length + i] = units[i];
+        }
+    }
 }
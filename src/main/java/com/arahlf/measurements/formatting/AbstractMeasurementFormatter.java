@@ -2,37 +2,157 @@ package com.arahlf.measurements.formatting;
 
 import static com.arahlf.measurements.Unit.MILLIMETER;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.LinkedList;
 import java.util.List;
 
 import com.arahlf.measurements.Measurement;
+import com.arahlf.measurements.MeasurementMetrics;
 import com.arahlf.measurements.Unit;
 
 public abstract class AbstractMeasurementFormatter implements MeasurementFormatter {
     
     protected AbstractMeasurementFormatter(List<Unit> units) {
-        if (units == null || units.isEmpty()) {
-            throw new IllegalArgumentException("Must specify a list of units.");
+        this(units, MeasurementStyle.DEFAULT);
+    }
+    
+    protected AbstractMeasurementFormatter(List<Unit> units, MeasurementStyle style) {
+        this(units, style, null);
+    }
+    
+    /**
+     * Creates a formatter that records what it formats in its own metrics, as well as the shared ones.
+     * @param metrics The formatter's metrics (see {@link MeasurementMetrics#create()}), or null for none.
+     */
+    protected AbstractMeasurementFormatter(List<Unit> units, MeasurementStyle style, MeasurementMetrics metrics) {
+        _plan = new FormatPlan(units, style);
+        _units = units;
+        _style = style;
+        _metrics = metrics;
+    }
+    
+    /**
+     * Formats through {@link #append(Measurement, StringBuilder)}.  Subclasses override either that
+     * method or this one.
+     */
+    @Override
+    public String format(Measurement measurement) {
+        StringBuilder builder = new StringBuilder();
+        formatTo(measurement, builder);
+        
+        return builder.toString();
+    }
+    
+    @Override
+    public void formatTo(Measurement measurement, StringBuilder builder) {
+        MeasurementMetrics shared = MeasurementMetrics.current();
+        MeasurementMetrics metrics = _metrics;
+        
+        if (shared == null && metrics == null) {
+            append(measurement, builder);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        int outcome = append(measurement, builder);
+        long nanos = System.nanoTime() - start;
+        boolean approximation = (outcome & APPROXIMATION) != 0;
+        boolean roundingCarry = (outcome & ROUNDING_CARRY) != 0;
+        
+        if (metrics != null) {
+            metrics.recordFormat(nanos, approximation, roundingCarry);
+        }
+        if (shared != null) {
+            shared.recordFormat(nanos, approximation, roundingCarry);
         }
+    }
+    
+    @Override
+    public void formatTo(Measurement measurement, Appendable appendable) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            formatTo(measurement, (StringBuilder) appendable);
+            return;
+        }
+        
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        formatTo(measurement, buffer);
         
-        BigDecimal previous = units.get(0).getMillimetersPerUnit();
-        for (int i = 1; i < units.size(); i++) {
-            BigDecimal current = units.get(i).getMillimetersPerUnit();
+        int length = buffer.length();
+        
+        if (appendable instanceof Writer) {
+            // Writers copy a CharSequence into a new String, so the chars are written from a reused array
+            char[] chars = CHARS.get();
             
-            if (current.compareTo(previous) != -1) {
-                throw new IllegalArgumentException("Units not in descending length: " + units);
+            if (chars.length < length) {
+                CHARS.set(chars = new char[Math.max(length, chars.length * 2)]);
             }
             
-            previous = current;
+            buffer.getChars(0, length, chars, 0);
+            ((Writer) appendable).write(chars, 0, length);
+        }
+        else {
+            appendable.append(buffer, 0, length);
         }
+    }
+    
+    /**
+     * Appends the formatted Measurement to the builder.  The outcome is recorded by
+     * {@link #formatTo(Measurement, StringBuilder)} when metrics are enabled.  By default this appends
+     * {@link #format(Measurement)} with no outcome, for subclasses that override that instead.
+     * @param measurement The Measurement to format.
+     * @param builder The StringBuilder to append to.
+     * @return {@link #APPROXIMATION} and/or {@link #ROUNDING_CARRY} if they apply to the output, otherwise 0
+     */
+    protected int append(Measurement measurement, StringBuilder builder) {
+        builder.append(format(measurement));
         
-        _units = units;
+        return 0;
+    }
+    
+    /**
+     * Returns the formatter's own metrics, which record every Measurement it formats.  They aren't
+     * serialized, so a deserialized formatter doesn't have any.
+     * @return the metrics, or null if the formatter doesn't have its own
+     */
+    public MeasurementMetrics getMetrics() {
+        return _metrics;
+    }
+    
+    public MeasurementStyle getStyle() {
+        // null when deserialized from a form written before formatters had styles
+        return _style != null ? _style : MeasurementStyle.DEFAULT;
+    }
+    
+    protected List<Unit> getUnits() {
+        return _units;
     }
     
-    protected abstract boolean shouldRoundUp(Measurement piece);
+    FormatPlan getPlan() {
+        return _plan;
+    }
+    
+    /**
+     * Returns true if the last of the pieces from {@link #getPieces(Measurement)} should be rounded up to
+     * the next whole number of its unit.  Only used by {@link #adjustPiecesForRounding(LinkedList)}.
+     * @deprecated The formatters here work on a primitive decomposition instead, this is kept so that
+     *             existing subclasses still compile.
+     */
+    @Deprecated
+    protected boolean shouldRoundUp(Measurement piece) {
+        return false;
+    }
     
+    /**
+     * Splits the Measurement into one piece per unit, with any remainder added to the last piece.
+     * @deprecated See {@link #shouldRoundUp(Measurement)}.
+     */
+    @Deprecated
     protected LinkedList<Measurement> getPieces(Measurement measurement) {
         LinkedList<Measurement> pieces = new LinkedList<Measurement>();
         BigDecimal remainingMillis = measurement.getLengthInMillimeters();
@@ -59,6 +179,10 @@ public abstract class AbstractMeasurementFormatter implements MeasurementFormatt
         return pieces;
     }
     
+    /**
+     * @deprecated See {@link #shouldRoundUp(Measurement)}.
+     */
+    @Deprecated
     protected boolean adjustPiecesForRounding(LinkedList<Measurement> pieces) {
         Measurement last = pieces.getLast();
         
@@ -83,6 +207,10 @@ public abstract class AbstractMeasurementFormatter implements MeasurementFormatt
         return true;
     }
     
+    /**
+     * @deprecated See {@link #shouldRoundUp(Measurement)}.
+     */
+    @Deprecated
     protected void adjustPiecesForNegatives(LinkedList<Measurement> pieces) {
         boolean containsNegativePiece = false;
         
@@ -100,7 +228,71 @@ public abstract class AbstractMeasurementFormatter implements MeasurementFormatt
         }
     }
     
+    Pieces decompose(Measurement measurement) {
+        return Pieces.decompose(measurement, _plan);
+    }
+    
+    /**
+     * Rounds the last piece up to the next whole number of its unit.
+     * @return {@link #APPROXIMATION} and, if it carried into a larger piece, {@link #ROUNDING_CARRY}
+     */
+    int adjustPiecesForRounding(Pieces pieces) {
+        return pieces.roundUp() ? APPROXIMATION | ROUNDING_CARRY : APPROXIMATION;
+    }
+    
+    void adjustPiecesForNegatives(Pieces pieces) {
+        boolean containsNegativePiece = false;
+        
+        for (int i = 0; i < pieces.size(); i++) {
+            if (pieces.isNegative(i)) {
+                if (containsNegativePiece) {
+                    pieces.abs(i);
+                }
+                else {
+                    containsNegativePiece = true;
+                }
+            }
+        }
+    }
+    
+    void appendPiece(StringBuilder builder, Pieces pieces, int index) {
+        pieces.appendLength(builder, index, _plan.getDecimalSeparator());
+        builder.append(_plan.getSuffix(index));
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        // subclasses are serialized in the default form, which only holds the units and style
+        in.defaultReadObject();
+        
+        try {
+            _plan = new FormatPlan(_units, getStyle());
+        }
+        catch (IllegalArgumentException e) {
+            InvalidObjectException invalid = new InvalidObjectException(e.getMessage());
+            invalid.initCause(e);
+            
+            throw invalid;
+        }
+    }
+    
     private final List<Unit> _units;
+    private final MeasurementStyle _style;
+    private final transient MeasurementMetrics _metrics; // null for none, and when deserialized
+    private transient FormatPlan _plan; // compiled from the units and style, only reassigned when deserialized
+    
+    /**
+     * The outcome of {@link #append(Measurement, StringBuilder)} when the output is an approximation.
+     */
+    protected static final int APPROXIMATION = 1;
+    
+    /**
+     * The outcome of {@link #append(Measurement, StringBuilder)} when the last unit was rounded up into a
+     * larger one (e.g. 11.999in carrying into 1ft).
+     */
+    protected static final int ROUNDING_CARRY = 2;
+    
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+    private static final ThreadLocal<char[]> CHARS = ThreadLocal.withInitial(() -> new char[64]);
     
     private static final long serialVersionUID = 5350610055133000534L;
 }
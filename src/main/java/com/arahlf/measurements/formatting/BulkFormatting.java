@@ -0,0 +1,160 @@
+package com.arahlf.measurements.formatting;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.arahlf.measurements.Measurement;
+
+/**
+ * Formats many Measurements with one formatter by splitting them into chunks that are formatted in
+ * parallel on the common ForkJoinPool.  The formatter is shared between the threads, so it must be
+ * thread safe (as the library's formatters are, being immutable).  Results are always in the order of
+ * the Measurements.
+ * 
+ * @author arahlf
+ */
+final class BulkFormatting {
+    
+    static String[] formatAll(MeasurementFormatter formatter, List<Measurement> measurements) {
+        measurements = _randomAccess(measurements);
+        
+        String[] formatted = new String[measurements.size()];
+        
+        new FormatTask(formatter, measurements, formatted, 0, formatted.length).invoke();
+        
+        return formatted;
+    }
+    
+    static void formatAll(MeasurementFormatter formatter, List<Measurement> measurements, Appendable appendable, CharSequence separator) throws IOException {
+        measurements = _randomAccess(measurements);
+        
+        // formatted a window at a time, so the output is never held in memory all at once
+        int windowSize = CHUNK_SIZE * ForkJoinPool.getCommonPoolParallelism() * 4;
+        StringBuilder[] chunks = new StringBuilder[windowSize / CHUNK_SIZE];
+        
+        for (int start = 0; start < measurements.size(); start += windowSize) {
+            int end = Math.min(start + windowSize, measurements.size());
+            
+            new AppendTask(formatter, measurements, separator, chunks, start, start, end).invoke();
+            
+            for (int i = 0; i < (end - start + CHUNK_SIZE - 1) / CHUNK_SIZE; i++) {
+                if (start + i * CHUNK_SIZE > 0) {
+                    appendable.append(separator);
+                }
+                appendable.append(chunks[i]);
+            }
+        }
+    }
+    
+    private static List<Measurement> _randomAccess(List<Measurement> measurements) {
+        return measurements instanceof RandomAccess ? measurements : new ArrayList<>(measurements);
+    }
+    
+    /**
+     * Formats a range of the Measurements into an array of Strings, splitting it in half until it's
+     * no larger than a chunk.
+     */
+    private static final class FormatTask extends RecursiveAction {
+        
+        FormatTask(MeasurementFormatter formatter, List<Measurement> measurements, String[] formatted, int start, int end) {
+            _formatter = formatter;
+            _measurements = measurements;
+            _formatted = formatted;
+            _start = start;
+            _end = end;
+        }
+        
+        @Override
+        protected void compute() {
+            if (_end - _start > CHUNK_SIZE) {
+                int middle = (_start + _end) >>> 1;
+                
+                invokeAll(new FormatTask(_formatter, _measurements, _formatted, _start, middle), new FormatTask(_formatter, _measurements, _formatted, middle, _end));
+                return;
+            }
+            
+            StringBuilder builder = new StringBuilder();
+            
+            for (int i = _start; i < _end; i++) {
+                builder.setLength(0);
+                _formatter.formatTo(_measurements.get(i), builder);
+                _formatted[i] = builder.toString();
+            }
+        }
+        
+        private final MeasurementFormatter _formatter;
+        private final List<Measurement> _measurements;
+        private final String[] _formatted;
+        private final int _start;
+        private final int _end;
+        
+        private static final long serialVersionUID = 1L;
+    }
+    
+    /**
+     * Formats a range of the Measurements (within a window starting at the given index) into a StringBuilder
+     * per chunk, separating the Measurements within each chunk.
+     */
+    private static final class AppendTask extends RecursiveAction {
+        
+        AppendTask(MeasurementFormatter formatter, List<Measurement> measurements, CharSequence separator, StringBuilder[] chunks, int window, int start, int end) {
+            _formatter = formatter;
+            _measurements = measurements;
+            _separator = separator;
+            _chunks = chunks;
+            _window = window;
+            _start = start;
+            _end = end;
+        }
+        
+        @Override
+        protected void compute() {
+            if (_end - _start > CHUNK_SIZE) {
+                // split on a chunk boundary so that each leaf fills exactly one chunk
+                int chunks = (_end - _start + CHUNK_SIZE - 1) / CHUNK_SIZE;
+                int middle = _start + chunks / 2 * CHUNK_SIZE;
+                
+                invokeAll(new AppendTask(_formatter, _measurements, _separator, _chunks, _window, _start, middle), new AppendTask(_formatter, _measurements, _separator, _chunks, _window, middle, _end));
+                return;
+            }
+            
+            int chunk = (_start - _window) / CHUNK_SIZE;
+            StringBuilder builder = _chunks[chunk];
+            
+            if (builder == null) {
+                _chunks[chunk] = builder = new StringBuilder();
+            }
+            
+            builder.setLength(0);
+            
+            for (int i = _start; i < _end; i++) {
+                if (i > _start) {
+                    builder.append(_separator);
+                }
+                _formatter.formatTo(_measurements.get(i), builder);
+            }
+        }
+        
+        private final MeasurementFormatter _formatter;
+        private final List<Measurement> _measurements;
+        private final CharSequence _separator;
+        private final StringBuilder[] _chunks;
+        private final int _window;
+        private final int _start;
+        private final int _end;
+        
+        private static final long serialVersionUID = 1L;
+    }
+    
+    private BulkFormatting() {
+    }
+    
+    /**
+     * The number of Measurements formatted by each task, enough to outweigh the cost of forking.
+     */
+    static final int CHUNK_SIZE = 1024;
+}
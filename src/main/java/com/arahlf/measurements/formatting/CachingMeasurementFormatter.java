@@ -0,0 +1,177 @@
+package com.arahlf.measurements.formatting;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.arahlf.measurements.Measurement;
+
+/**
+ * Wraps another formatter, caching what it formats so that repeated lengths (e.g. stock sizes) are
+ * only formatted once.  Formatted Strings are keyed by the Measurement's length in millimeters, as
+ * given by {@link Measurement#equals(Object)}, since that is all the library's formatters depend on
+ * (e.g. "1ft" and "12in" share an entry).
+ * <p>
+ * The cache holds at most the given number of entries, evicting the least recently used ones.  It is
+ * split into independently locked segments so that threads formatting different lengths rarely contend,
+ * which makes eviction approximately (rather than strictly) least recently used across the whole cache.
+ * 
+ * @author arahlf
+ */
+public class CachingMeasurementFormatter implements MeasurementFormatter {
+    
+    /**
+     * Creates a formatter that caches up to the given number of formatted Measurements.
+     * @param formatter The formatter to cache, which must be thread safe if this one is shared.
+     * @param maximumSize The maximum number of formatted Measurements to keep.
+     */
+    public CachingMeasurementFormatter(MeasurementFormatter formatter, int maximumSize) {
+        if (formatter == null) {
+            throw new IllegalArgumentException("Must specify a formatter.");
+        }
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+        }
+        
+        _formatter = formatter;
+        _maximumSize = maximumSize;
+        _segments = new Segment[Math.min(MAX_SEGMENTS, Integer.highestOneBit(maximumSize))];
+        
+        for (int i = 0; i < _segments.length; i++) {
+            int capacity = maximumSize / _segments.length + (i < maximumSize % _segments.length ? 1 : 0);
+            _segments[i] = new Segment(capacity);
+        }
+    }
+    
+    @Override
+    public String format(Measurement measurement) {
+        Segment segment = _segment(measurement);
+        String formatted = segment.get(measurement);
+        
+        if (formatted != null) {
+            _hits.increment();
+            return formatted;
+        }
+        
+        _misses.increment();
+        
+        // formatted outside of the segment's lock, two threads may both format a missing length but they'll agree
+        formatted = _formatter.format(measurement);
+        segment.put(measurement, formatted);
+        
+        return formatted;
+    }
+    
+    @Override
+    public void formatTo(Measurement measurement, StringBuilder builder) {
+        builder.append(format(measurement));
+    }
+    
+    @Override
+    public void formatTo(Measurement measurement, Appendable appendable) throws IOException {
+        appendable.append(format(measurement));
+    }
+    
+    /**
+     * Returns the number of times a formatted Measurement was found in the cache.
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return _hits.sum();
+    }
+    
+    /**
+     * Returns the number of times a Measurement had to be formatted by the wrapped formatter.
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return _misses.sum();
+    }
+    
+    /**
+     * Returns the number of formatted Measurements in the cache.
+     * @return the number of formatted Measurements in the cache
+     */
+    public int getSize() {
+        int size = 0;
+        
+        for (Segment segment : _segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+    
+    public int getMaximumSize() {
+        return _maximumSize;
+    }
+    
+    public MeasurementFormatter getFormatter() {
+        return _formatter;
+    }
+    
+    /**
+     * Removes every formatted Measurement from the cache.  The hit and miss counts are kept.
+     */
+    public void clear() {
+        for (Segment segment : _segments) {
+            segment.clear();
+        }
+    }
+    
+    private Segment _segment(Measurement measurement) {
+        int hash = measurement.hashCode();
+        
+        return _segments[(hash ^ (hash >>> 16)) & (_segments.length - 1)];
+    }
+    
+    private Object readResolve() {
+        // the cache and counts aren't serialized, so start with empty ones
+        return new CachingMeasurementFormatter(_formatter, _maximumSize);
+    }
+    
+    /**
+     * A least recently used map guarded by its own lock.
+     */
+    private static final class Segment {
+        
+        Segment(int capacity) {
+            _entries = new LinkedHashMap<Measurement, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Measurement, String> eldest) {
+                    return size() > capacity;
+                }
+                
+                private static final long serialVersionUID = 1L;
+            };
+        }
+        
+        synchronized String get(Measurement measurement) {
+            return _entries.get(measurement);
+        }
+        
+        synchronized void put(Measurement measurement, String formatted) {
+            _entries.put(measurement, formatted);
+        }
+        
+        synchronized int size() {
+            return _entries.size();
+        }
+        
+        synchronized void clear() {
+            _entries.clear();
+        }
+        
+        private final LinkedHashMap<Measurement, String> _entries;
+    }
+    
+    private final MeasurementFormatter _formatter;
+    private final int _maximumSize;
+    private final transient Segment[] _segments;
+    private final transient LongAdder _hits = new LongAdder();
+    private final transient LongAdder _misses = new LongAdder();
+    
+    private static final int MAX_SEGMENTS = 16;
+    
+    private static final long serialVersionUID = 3126574012309741458L;
+}
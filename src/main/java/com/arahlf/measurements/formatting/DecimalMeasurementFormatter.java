@@ -1,69 +1,80 @@
 package com.arahlf.measurements.formatting;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Arrays;
-import java.util.LinkedList;
 
 import com.arahlf.measurements.Measurement;
+import com.arahlf.measurements.MeasurementMetrics;
 import com.arahlf.measurements.Unit;
 
 public class DecimalMeasurementFormatter extends AbstractMeasurementFormatter {
     
     public DecimalMeasurementFormatter(int scale, Unit... units) {
-        super(Arrays.asList(units));
+        this(scale, MeasurementStyle.DEFAULT, units);
+    }
+    
+    public DecimalMeasurementFormatter(int scale, MeasurementStyle style, Unit... units) {
+        this(scale, style, null, units);
+    }
+    
+    /**
+     * Creates a formatter that records what it formats in its own metrics.
+     * @param scale The number of decimal places of the last unit.
+     * @param style The style of the output.
+     * @param metrics The formatter's metrics (see {@link MeasurementMetrics#create()}), or null for none.
+     * @param units The units in descending length.
+     */
+    public DecimalMeasurementFormatter(int scale, MeasurementStyle style, MeasurementMetrics metrics, Unit... units) {
+        super(Arrays.asList(units), style, metrics);
         
         _scale = scale;
     }
     
     @Override
-    public String format(Measurement measurement) {
-        LinkedList<Measurement> pieces = getPieces(measurement);
+    protected int append(Measurement measurement, StringBuilder builder) {
+        Pieces pieces = decompose(measurement);
+        int last = pieces.getLastIndex();
         
         if (measurement.isZeroLength()) {
-            return pieces.getLast().toString();
+            appendPiece(builder, pieces, last);
+            return 0;
         }
         
-        boolean piecesRoundedUp = adjustPiecesForRounding(pieces);
-        Measurement last = pieces.getLast();
-        Measurement rounded = last.scale(_scale);
-        
-        pieces.set(pieces.size() - 1, rounded);
-        
-        StringBuilder builder = new StringBuilder();
+        FormatPlan plan = getPlan();
+        int outcome = pieces.roundsUp(_scale) ? adjustPiecesForRounding(pieces) : 0;
+        if (pieces.round(_scale)) {
+            outcome |= APPROXIMATION;
+        }
         
-        boolean approximation = piecesRoundedUp || !last.equals(rounded);
-        if (approximation) {
-            builder.append("~");
+        if (outcome != 0) {
+            builder.append(plan.getApproximationMarker());
         }
         
         adjustPiecesForNegatives(pieces);
         
-        int zeroLengthPieces = 0;
+        boolean empty = true;
         
-        for (Measurement piece : pieces) {
-            if (piece.isZeroLength()) {
-                zeroLengthPieces++;
+        for (int i = 0; i <= last; i++) {
+            if (pieces.isZero(i)) {
                 continue;
             }
             
-            builder.append(piece.toString() + " ");
+            if (!empty) {
+                builder.append(plan.getSeparator());
+            }
+            appendPiece(builder, pieces, i);
+            empty = false;
         }
         
-        if (zeroLengthPieces == pieces.size()) {
-            builder.append(pieces.getLast().toString());
+        if (empty) {
+            appendPiece(builder, pieces, last);
         }
         
-        return builder.toString().trim();
+        return outcome;
     }
     
-    @Override
-    protected boolean shouldRoundUp(Measurement piece) {
-        BigDecimal length = piece.getLength();
-        BigDecimal rounded = length.setScale(_scale, RoundingMode.HALF_UP);
-        BigDecimal roundedUp = length.setScale(0, RoundingMode.UP);
-        
-        return length.compareTo(rounded) != 0 && rounded.compareTo(roundedUp) == 0;
+    private Object writeReplace() {
+        // private, so subclasses (which may have state of their own) keep the default form
+        return new SerializedFormatter(SerializedFormatter.DECIMAL, _scale, getUnits(), getStyle());
     }
     
     private final int _scale;
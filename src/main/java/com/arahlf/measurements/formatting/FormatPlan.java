@@ -0,0 +1,111 @@
+package com.arahlf.measurements.formatting;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.arahlf.measurements.Unit;
+
+/**
+ * A formatter's chain of units and style compiled into primitives when the formatter is created, so that
+ * formatting doesn't look anything up from the Units or style, or work out how adjacent units relate, on
+ * every call.
+ * 
+ * @author arahlf
+ */
+final class FormatPlan {
+    
+    /**
+     * Compiles the chain of units, which must be in descending length, and the style.
+     * @throws IllegalArgumentException if there are no units, they are not in descending length or there's no style
+     */
+    FormatPlan(List<Unit> units, MeasurementStyle style) {
+        if (units == null || units.isEmpty()) {
+            throw new IllegalArgumentException("Must specify a list of units.");
+        }
+        
+        if (style == null) {
+            throw new IllegalArgumentException("Must specify a style.");
+        }
+        
+        int size = units.size();
+        
+        _units = units.toArray(new Unit[size]);
+        _picometersPerUnit = new long[size];
+        _millimetersPerUnit = new BigDecimal[size];
+        _carryRatios = new long[size];
+        _suffixes = new String[size];
+        _separator = style.getSeparator();
+        _approximationMarker = style.getApproximationMarker();
+        _decimalSeparator = style.getDecimalSeparator();
+        _fractionSeparator = style.getFractionSeparator();
+        
+        for (int i = 0; i < size; i++) {
+            _picometersPerUnit[i] = _units[i].getPicometersPerUnit();
+            _millimetersPerUnit[i] = _units[i].getMillimetersPerUnit();
+            _suffixes[i] = style.getSuffix(_units[i]);
+            
+            if (i > 0) {
+                if (_millimetersPerUnit[i].compareTo(_millimetersPerUnit[i - 1]) != -1) {
+                    throw new IllegalArgumentException("Units not in descending length: " + units);
+                }
+                
+                long larger = _picometersPerUnit[i - 1];
+                _carryRatios[i] = larger % _picometersPerUnit[i] == 0 ? larger / _picometersPerUnit[i] : 0;
+            }
+        }
+    }
+    
+    int size() {
+        return _units.length;
+    }
+    
+    Unit getUnit(int index) {
+        return _units[index];
+    }
+    
+    long getPicometersPerUnit(int index) {
+        return _picometersPerUnit[index];
+    }
+    
+    BigDecimal getMillimetersPerUnit(int index) {
+        return _millimetersPerUnit[index];
+    }
+    
+    /**
+     * Returns the number of the unit that make up one of the next larger unit (e.g. 12 for inches after
+     * feet), or 0 if that isn't a whole number and so a piece can never carry into the larger one.
+     */
+    long getCarryRatio(int index) {
+        return _carryRatios[index];
+    }
+    
+    String getSuffix(int index) {
+        return _suffixes[index];
+    }
+    
+    String getSeparator() {
+        return _separator;
+    }
+    
+    String getApproximationMarker() {
+        return _approximationMarker;
+    }
+    
+    char getDecimalSeparator() {
+        return _decimalSeparator;
+    }
+    
+    String getFractionSeparator() {
+        return _fractionSeparator;
+    }
+    
+    private final Unit[] _units;
+    private final long[] _picometersPerUnit;
+    private final BigDecimal[] _millimetersPerUnit;
+    private final long[] _carryRatios; // 0 for the first unit
+    private final String[] _suffixes;
+    private final String _separator;
+    private final String _approximationMarker;
+    private final char _decimalSeparator;
+    private final String _fractionSeparator;
+}
@@ -1,87 +1,146 @@
 package com.arahlf.measurements.formatting;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import com.arahlf.measurements.Measurement;
+import com.arahlf.measurements.MeasurementMetrics;
 import com.arahlf.measurements.Unit;
 
 public class FractionMeasurementFormatter extends AbstractMeasurementFormatter {
     
     public FractionMeasurementFormatter(int denominator, Unit... units) {
-        super(Arrays.asList(units));
+        this(denominator, MeasurementStyle.DEFAULT, units);
+    }
+    
+    public FractionMeasurementFormatter(int denominator, MeasurementStyle style, Unit... units) {
+        this(denominator, style, null, units);
+    }
+    
+    /**
+     * Creates a formatter that records what it formats in its own metrics.
+     * @param denominator The largest denominator of the last unit's fraction, a positive multiple of 2.
+     * @param style The style of the output.
+     * @param metrics The formatter's metrics (see {@link MeasurementMetrics#create()}), or null for none.
+     * @param units The units in descending length.
+     */
+    public FractionMeasurementFormatter(int denominator, MeasurementStyle style, MeasurementMetrics metrics, Unit... units) {
+        super(Arrays.asList(units), style, metrics);
         
         _denominator = denominator;
     }
     
     @Override
-    public String format(Measurement measurement) {
-        LinkedList<Measurement> pieces = getPieces(measurement);
+    protected int append(Measurement measurement, StringBuilder builder) {
+        Pieces pieces = decompose(measurement);
+        int last = pieces.getLastIndex();
         
         if (measurement.isZeroLength()) {
-            return pieces.getLast().toString();
+            appendPiece(builder, pieces, last);
+            return 0;
         }
         
         adjustPiecesForNegatives(pieces);
         
-        boolean estimatedFraction = false;
-        boolean piecesRoundedUp = adjustPiecesForRounding(pieces);
-        String fractionString = Fractions.getFractionString(pieces.getLast().getLength().doubleValue(), _denominator);
-        StringBuilder builder = new StringBuilder();
+        // the fraction decides whether to round up, and is only worked out again if that changed the pieces
+        String fractionString = Fractions.getFractionString(pieces.getLastAsDouble(), _denominator);
+        boolean piecesRoundedUp = _roundsUp(pieces, fractionString);
+        boolean carried = false;
+        
+        if (piecesRoundedUp) {
+            carried = pieces.roundUp();
+            fractionString = Fractions.getFractionString(pieces.getLastAsDouble(), _denominator);
+        }
         
         int zeroLengthPieces = 0;
         
-        for (int i = 0; i < pieces.size() - 1; i++) {
-            Measurement piece = pieces.get(i);
-            
-            if (piece.isZeroLength()) {
+        for (int i = 0; i < last; i++) {
+            if (pieces.isZero(i)) {
                 zeroLengthPieces++;
-                continue;
             }
-            
-            builder.append(piece.toString() + " ");
         }
         
-        if (fractionString.startsWith("~")) {
-            fractionString = fractionString.substring(1);
-            estimatedFraction = true;
+        FormatPlan plan = getPlan();
+        boolean estimatedFraction = fractionString.charAt(0) == '~';
+        int fractionStart = estimatedFraction ? 1 : 0;
+        
+        boolean approximation = estimatedFraction || piecesRoundedUp;
+        if (approximation) {
+            builder.append(plan.getApproximationMarker());
         }
         
-        if (!fractionString.equals("0") || (fractionString.equals("0") && (pieces.size() == 1) || zeroLengthPieces == pieces.size() - 1)) {
-            builder.append(fractionString + pieces.getLast().getUnit().getAbbreviation());
+        boolean empty = true;
+        
+        for (int i = 0; i < last; i++) {
+            if (pieces.isZero(i)) {
+                continue;
+            }
+            
+            if (!empty) {
+                builder.append(plan.getSeparator());
+            }
+            appendPiece(builder, pieces, i);
+            empty = false;
         }
         
-        boolean approximation = estimatedFraction || piecesRoundedUp;
-        if (approximation) {
-            builder.insert(0, "~");
+        boolean zeroFraction = fractionString.length() == fractionStart + 1 && fractionString.charAt(fractionStart) == '0';
+        
+        if (!zeroFraction || (zeroFraction && (pieces.size() == 1) || zeroLengthPieces == last)) {
+            if (!empty) {
+                builder.append(plan.getSeparator());
+            }
+            _appendFraction(builder, fractionString, fractionStart, plan.getFractionSeparator());
+            builder.append(plan.getSuffix(last));
         }
         
-        return builder.toString().trim();
+        return (approximation ? APPROXIMATION : 0) | (carried ? ROUNDING_CARRY : 0);
     }
     
-    @Override
-    protected boolean shouldRoundUp(Measurement piece) {
-        String fraction = Fractions.getFractionString(piece.getLength().doubleValue(), _denominator);
-        Matcher matcher = NUMBER_REGEX.matcher(fraction);
-        
-        if (!matcher.find()) {
+    /**
+     * Returns true if the last piece's fraction is estimated as a whole number (e.g. "~3") that is rounded up to.
+     */
+    private static boolean _roundsUp(Pieces pieces, String fraction) {
+        if (fraction.length() < 2 || fraction.charAt(0) != '~') {
             return false;
         }
         
-        BigDecimal length = piece.getLength();
-        BigDecimal rounded = new BigDecimal(Integer.parseInt(matcher.group(1)));
-        BigDecimal roundedUp = length.setScale(0, RoundingMode.UP);
+        long rounded = 0;
+        
+        for (int i = 1; i < fraction.length(); i++) {
+            char c = fraction.charAt(i);
+            
+            if (c < '0' || c > '9') {
+                return false; // a fraction (e.g. "~1-1/2") or a negative number, neither of which are rounded up to
+            }
+            rounded = rounded * 10 + (c - '0');
+        }
+        
+        return pieces.roundsUpTo(rounded);
+    }
+    
+    /**
+     * Appends the fraction string from the start index, with the given separator in place of the '-'
+     * between the whole number and the fraction (e.g. "3-1/2").
+     */
+    private static void _appendFraction(StringBuilder builder, String fraction, int start, String fractionSeparator) {
+        int end = fraction.length();
         
-        return length.compareTo(rounded) != 0 && rounded.compareTo(roundedUp) == 0;
+        // the separator follows the whole number's digits, whereas a leading '-' is the sign
+        int separator = fraction.indexOf('-', start + 1);
+        
+        if (separator == -1 || fractionSeparator.equals("-")) {
+            builder.append(fraction, start, end);
+        }
+        else {
+            builder.append(fraction, start, separator).append(fractionSeparator).append(fraction, separator + 1, end);
+        }
     }
     
-    private final int _denominator;
+    private Object writeReplace() {
+        // private, so subclasses (which may have state of their own) keep the default form
+        return new SerializedFormatter(SerializedFormatter.FRACTION, _denominator, getUnits(), getStyle());
+    }
     
-    private static final Pattern NUMBER_REGEX = Pattern.compile("~^?(\\d+)$");
+    private final int _denominator;
     
     private static final long serialVersionUID = -5394598666718193859L;
 }
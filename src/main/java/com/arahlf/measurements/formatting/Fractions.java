@@ -4,7 +4,7 @@ public class Fractions {
     /**
      * Builds a fractional string representation of a number.
      * @param number The number to turn into a fraction string.
-     * @param precision The precision of the fractional denominator to use, must be a multiple of 2.
+     * @param precision The precision of the fractional denominator to use, must be a positive multiple of 2.
      * @return Fractional string representation of the number.
      */
     public static String getFractionString(final double number, final int precision) {
@@ -12,58 +12,73 @@ public class Fractions {
             throw new IllegalArgumentException("Precision must be divisible by 2.");
         }
         
-        int numerator = 1, denominator = precision, whole = (int) number;
+        if (precision <= 0) {
+            throw new IllegalArgumentException("Precision must be positive.");
+        }
+        
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+            throw new IllegalArgumentException("Number must be finite: " + number);
+        }
+        
+        int whole = (int) number;
         double decimal = Math.abs(number) - Math.floor(Math.abs(number));
-        double previous = 1;
-        String prefix = "";
         
         if (decimal == 0) {
             return Integer.toString(whole);
         }
         
-        for (int i = 0; i <= precision; i++) {
-            double testDecimal = (double) i / precision;
-            
-            // first check for an exact match
-            if (decimal == testDecimal) {
-                numerator = i;
-                denominator = precision;
-                break;
-            }
-            
-            double difference = Math.abs(decimal - testDecimal);
-            
-            // check if trending closer to the number
-            if (difference < previous) {
-                previous = difference; // nope, but we're getting closer
-                
-                if (i == precision) {
-                    return "~" + (whole >= 0 ? ++whole : --whole);
-                }
-            }
-            else if (i == 1) {
-                return "~" + whole;
-            } else {
-                // no longer trending closer, so the previous decimal was the closest
-                numerator = i - 1;
-                prefix = "~";
-                break;
-            }
+        // the first numerator at or past the decimal, checked against its neighbor for the closest one
+        int numerator = _ceilingNumerator(decimal, precision);
+        double testDecimal = (double) numerator / precision;
+        boolean exact = decimal == testDecimal;
+        
+        if (!exact && Math.abs(decimal - testDecimal) >= Math.abs(decimal - (double) (numerator - 1) / precision)) {
+            numerator--; // ties go to the smaller numerator
         }
         
-        // simplify applicable fractions (2/4 -> 1/2)
-        while (numerator % 2 == 0 && denominator % 2 == 0) {
-            numerator /= 2;
-            denominator /= 2;
+        if (numerator == 0) {
+            return "~" + whole;
         }
         
-        String fraction = numerator + "/" + denominator;
+        if (numerator == precision) {
+            return "~" + (whole >= 0 ? whole + 1 : whole - 1);
+        }
+        
+        // simplify applicable fractions (2/4 -> 1/2)
+        int shift = Math.min(Integer.numberOfTrailingZeros(numerator), Integer.numberOfTrailingZeros(precision));
+        
+        StringBuilder builder = new StringBuilder(16);
+        
+        if (!exact) {
+            builder.append('~');
+        }
         
         // preserve the whole number
         if (whole != 0) {
-            return prefix + whole + "-" + fraction;
+            builder.append(whole).append('-');
+        }
+        else if (number < 0) {
+            builder.append('-');
+        }
+        
+        return builder.append(numerator >> shift).append('/').append(precision >> shift).toString();
+    }
+    
+    /**
+     * Returns the smallest numerator whose fraction (as a double) is not less than the decimal.
+     */
+    private static int _ceilingNumerator(double decimal, int precision) {
+        int numerator = Math.max(1, Math.min(precision, (int) Math.ceil(decimal * precision)));
+        
+        // the multiply can round to either side of the boundary, so settle it with the same division used for comparing
+        while (numerator > 1 && (double) (numerator - 1) / precision >= decimal) {
+            numerator--;
+        }
+        
+        while ((double) numerator / precision < decimal) {
+            numerator++;
         }
         
-        return prefix + (number < 0 ? "-" : "") + fraction;
+        return numerator;
     }
 }
@@ -1,10 +1,66 @@
 package com.arahlf.measurements.formatting;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
 
 import com.arahlf.measurements.Measurement;
 
 public interface MeasurementFormatter extends Serializable {
     
     String format(Measurement measurement);
+    
+    /**
+     * Appends the formatted Measurement to the given StringBuilder, which avoids creating an
+     * intermediate String.
+     * @param measurement The Measurement to format
+     * @param builder The StringBuilder to append to
+     */
+    default void formatTo(Measurement measurement, StringBuilder builder) {
+        builder.append(format(measurement));
+    }
+    
+    /**
+     * Appends the formatted Measurement to the given Appendable (e.g. a Writer).
+     * @param measurement The Measurement to format
+     * @param appendable The Appendable to append to
+     * @throws IOException if the Appendable throws one
+     */
+    default void formatTo(Measurement measurement, Appendable appendable) throws IOException {
+        appendable.append(format(measurement));
+    }
+    
+    /**
+     * Formats all of the Measurements, splitting the work across the common ForkJoinPool for large
+     * arrays.  The formatter must be thread safe, as the library's formatters are.
+     * @param measurements The Measurements to format
+     * @return the formatted Measurements, in the same order
+     */
+    default String[] formatAll(Measurement[] measurements) {
+        return BulkFormatting.formatAll(this, Arrays.asList(measurements));
+    }
+    
+    /**
+     * Formats all of the Measurements, splitting the work across the common ForkJoinPool for large
+     * lists.  The formatter must be thread safe, as the library's formatters are.
+     * @param measurements The Measurements to format
+     * @return the formatted Measurements, in the same order
+     */
+    default String[] formatAll(List<Measurement> measurements) {
+        return BulkFormatting.formatAll(this, measurements);
+    }
+    
+    /**
+     * Formats all of the Measurements in parallel and appends them to the given Appendable in order,
+     * with the separator between each.  They are formatted a window at a time, so the output isn't held
+     * in memory all at once.
+     * @param measurements The Measurements to format
+     * @param appendable The Appendable to append to
+     * @param separator The characters to append between the Measurements (e.g. a line break)
+     * @throws IOException if the Appendable throws one
+     */
+    default void formatAll(List<Measurement> measurements, Appendable appendable, CharSequence separator) throws IOException {
+        BulkFormatting.formatAll(this, measurements, appendable, separator);
+    }
 }
@@ -0,0 +1,215 @@
+package com.arahlf.measurements.formatting;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.arahlf.measurements.Unit;
+
+/**
+ * Shared instances of the library's formatters.  Formatters are immutable and thread safe, so rather than
+ * creating one per use, equal formatters (of the same type, with the same scale or denominator, chain of
+ * units and style) are created once and shared.  Up to 1024 formatters are cached, beyond which those that
+ * aren't already cached are created for each call rather than shared.
+ * <p>
+ * Formatters can also be described by a spec, for configuring them from properties files and the like.  A
+ * spec is the type of formatter, its scale or denominator, its units (by abbreviation or display name) and
+ * optionally the name of a predefined style (<code>default</code>, <code>symbols</code> or <code>long</code>)
+ * separated by colons, e.g. <code>"fraction:16:ft,in"</code>, <code>"decimal:2:meters"</code> or
+ * <code>"fraction:16:ft,in:symbols"</code>.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementFormatters {
+    
+    /**
+     * Returns the shared DecimalMeasurementFormatter with the given scale and units.
+     * @param scale The number of decimal places of the last unit.
+     * @param units The units in descending length.
+     * @return the shared formatter
+     */
+    public static DecimalMeasurementFormatter decimal(int scale, Unit... units) {
+        return decimal(scale, MeasurementStyle.DEFAULT, units);
+    }
+    
+    /**
+     * Returns the shared DecimalMeasurementFormatter with the given scale, style and units.
+     * @param scale The number of decimal places of the last unit.
+     * @param style The style of the output.
+     * @param units The units in descending length.
+     * @return the shared formatter
+     */
+    public static DecimalMeasurementFormatter decimal(int scale, MeasurementStyle style, Unit... units) {
+        return (DecimalMeasurementFormatter) _get(SerializedFormatter.DECIMAL, scale, style, units);
+    }
+    
+    /**
+     * Returns the shared FractionMeasurementFormatter with the given denominator and units.
+     * @param denominator The largest denominator of the last unit's fraction, a positive multiple of 2.
+     * @param units The units in descending length.
+     * @return the shared formatter
+     */
+    public static FractionMeasurementFormatter fraction(int denominator, Unit... units) {
+        return fraction(denominator, MeasurementStyle.DEFAULT, units);
+    }
+    
+    /**
+     * Returns the shared FractionMeasurementFormatter with the given denominator, style and units.
+     * @param denominator The largest denominator of the last unit's fraction, a positive multiple of 2.
+     * @param style The style of the output.
+     * @param units The units in descending length.
+     * @return the shared formatter
+     */
+    public static FractionMeasurementFormatter fraction(int denominator, MeasurementStyle style, Unit... units) {
+        if (denominator <= 0 || denominator % 2 != 0) {
+            throw new IllegalArgumentException("Denominator must be a positive multiple of 2: " + denominator);
+        }
+        return (FractionMeasurementFormatter) _get(SerializedFormatter.FRACTION, denominator, style, units);
+    }
+    
+    /**
+     * Returns the shared formatter described by the spec (e.g. <code>"fraction:16:ft,in"</code>).  The type,
+     * units and style are matched ignoring case, and whitespace around each part is ignored.
+     * @param spec The spec of the formatter.
+     * @return the shared formatter
+     * @throws IllegalArgumentException if the spec is malformed or describes an invalid formatter
+     */
+    public static MeasurementFormatter parse(String spec) {
+        MeasurementFormatter formatter = SPECS.get(spec);
+        
+        if (formatter == null) {
+            formatter = _parse(spec);
+            
+            // specs normally come from configuration, the bound only guards against caching arbitrary input
+            if (SPECS.size() < MAX_SPECS) {
+                SPECS.putIfAbsent(spec, formatter);
+            }
+        }
+        return formatter;
+    }
+    
+    private static MeasurementFormatter _parse(String spec) {
+        String[] parts = spec.split(":", -1);
+        
+        if (parts.length != 3 && parts.length != 4) {
+            throw new IllegalArgumentException("Invalid formatter spec, expected type:number:units: \"" + spec + "\"");
+        }
+        
+        String type = parts[0].trim().toLowerCase(Locale.ROOT);
+        int number;
+        
+        try {
+            number = Integer.parseInt(parts[1].trim());
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid formatter spec, expected a number: \"" + spec + "\"", e);
+        }
+        
+        String[] names = parts[2].split(",", -1);
+        Unit[] units = new Unit[names.length];
+        
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i].trim();
+            
+            try {
+                units[i] = Unit.parse(name);
+            }
+            catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid formatter spec, unknown unit " + name + ": \"" + spec + "\"", e);
+            }
+        }
+        
+        MeasurementStyle style = parts.length == 4 ? _parseStyle(parts[3].trim(), spec) : MeasurementStyle.DEFAULT;
+        
+        switch (type) {
+            case "decimal":
+                return decimal(number, style, units);
+            case "fraction":
+                return fraction(number, style, units);
+            default:
+                throw new IllegalArgumentException("Invalid formatter spec, unknown type " + parts[0].trim() + ": \"" + spec + "\"");
+        }
+    }
+    
+    private static MeasurementStyle _parseStyle(String name, String spec) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "default":
+                return MeasurementStyle.DEFAULT;
+            case "symbols":
+                return MeasurementStyle.SYMBOLS;
+            case "long":
+                return MeasurementStyle.LONG_NAMES;
+            default:
+                throw new IllegalArgumentException("Invalid formatter spec, unknown style " + name + ": \"" + spec + "\"");
+        }
+    }
+    
+    private static AbstractMeasurementFormatter _get(byte kind, int parameter, MeasurementStyle style, Unit[] units) {
+        if (style == null) {
+            throw new IllegalArgumentException("Must specify a style.");
+        }
+        
+        Key key = new Key(kind, parameter, style, units);
+        AbstractMeasurementFormatter formatter = FORMATTERS.get(key);
+        
+        if (formatter != null) {
+            return formatter;
+        }
+        
+        // copied, so that the cached key and formatter don't share an array the caller could change
+        Unit[] copy = units.clone();
+        formatter = kind == SerializedFormatter.DECIMAL ? new DecimalMeasurementFormatter(parameter, style, copy) : new FractionMeasurementFormatter(parameter, style, copy);
+        
+        // as with specs, the bound only guards against caching formatters created from arbitrary input
+        if (FORMATTERS.size() >= MAX_FORMATTERS) {
+            return formatter;
+        }
+        
+        AbstractMeasurementFormatter existing = FORMATTERS.putIfAbsent(new Key(kind, parameter, style, copy), formatter);
+        
+        return existing != null ? existing : formatter;
+    }
+    
+    /**
+     * Identifies a formatter by its type, scale or denominator, style and units.
+     */
+    private static final class Key {
+        
+        Key(byte kind, int parameter, MeasurementStyle style, Unit[] units) {
+            _kind = kind;
+            _parameter = parameter;
+            _style = style;
+            _units = units;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            
+            Key key = (Key) other;
+            
+            return _kind == key._kind && _parameter == key._parameter && _style.equals(key._style) && Arrays.equals(_units, key._units);
+        }
+        
+        @Override
+        public int hashCode() {
+            return ((_kind * 31 + _parameter) * 31 + _style.hashCode()) * 31 + Arrays.hashCode(_units);
+        }
+        
+        private final byte _kind;
+        private final int _parameter;
+        private final MeasurementStyle _style;
+        private final Unit[] _units;
+    }
+    
+    private MeasurementFormatters() {
+    }
+    
+    private static final ConcurrentHashMap<Key, AbstractMeasurementFormatter> FORMATTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, MeasurementFormatter> SPECS = new ConcurrentHashMap<>();
+    
+    private static final int MAX_FORMATTERS = 1024;
+    private static final int MAX_SPECS = 1024;
+}
@@ -0,0 +1,205 @@
+package com.arahlf.measurements.formatting;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+import com.arahlf.measurements.Unit;
+
+/**
+ * How a formatter writes its output: the suffix after each unit's length, the separator between pieces,
+ * the marker for approximations, the decimal separator and the separator between a whole number and its
+ * fraction.  Styles are immutable, the <code>with</code> methods return a modified copy, e.g.
+ * <code>MeasurementStyle.SYMBOLS.withLocale(Locale.GERMANY).withApproximationMarker("")</code>.
+ * <p>
+ * A formatter compiles its style when it's created, so formatting in any style costs the same as the
+ * default one and output never needs to be post-processed.
+ * 
+ * @author arahlf
+ */
+public final class MeasurementStyle implements Serializable {
+    
+    /**
+     * Abbreviations, e.g. <code>"~1ft 3-1/2in"</code> or <code>"37cm 5.7mm"</code>.
+     */
+    public static final MeasurementStyle DEFAULT = _createDefault();
+    
+    /**
+     * The prime and double prime symbols for feet and inches, e.g. <code>"1&#8242; 3-1/2&#8243;"</code>.  Other units
+     * keep their abbreviations.
+     */
+    public static final MeasurementStyle SYMBOLS = DEFAULT.withSuffix(Unit.FOOT, "\u2032").withSuffix(Unit.INCH, "\u2033");
+    
+    /**
+     * Each unit's display name, e.g. <code>"2 Feet 3-1/2 Inches"</code>.  The display names are plural and
+     * are used for every length, including <code>"1 Feet"</code>, which {@link #withSuffix(Unit, String)} can't
+     * change as a suffix doesn't depend on the length.
+     */
+    public static final MeasurementStyle LONG_NAMES = _createLongNames();
+    
+    private MeasurementStyle(String[] suffixes, String separator, String approximationMarker, char decimalSeparator, String fractionSeparator) {
+        _suffixes = suffixes;
+        _separator = separator;
+        _approximationMarker = approximationMarker;
+        _decimalSeparator = decimalSeparator;
+        _fractionSeparator = fractionSeparator;
+    }
+    
+    public String getSuffix(Unit unit) {
+        return _suffixes[unit.ordinal()];
+    }
+    
+    public String getSeparator() {
+        return _separator;
+    }
+    
+    public String getApproximationMarker() {
+        return _approximationMarker;
+    }
+    
+    public char getDecimalSeparator() {
+        return _decimalSeparator;
+    }
+    
+    public String getFractionSeparator() {
+        return _fractionSeparator;
+    }
+    
+    /**
+     * Returns a copy of this style with the given text after lengths of the unit.
+     */
+    public MeasurementStyle withSuffix(Unit unit, String suffix) {
+        _checkNotNull(unit, "a unit");
+        _checkNotNull(suffix, "a suffix");
+        
+        String[] suffixes = _suffixes.clone();
+        suffixes[unit.ordinal()] = suffix;
+        
+        return new MeasurementStyle(suffixes, _separator, _approximationMarker, _decimalSeparator, _fractionSeparator);
+    }
+    
+    /**
+     * Returns a copy of this style with the given text between pieces (a space by default).
+     */
+    public MeasurementStyle withSeparator(String separator) {
+        _checkNotNull(separator, "a separator");
+        
+        return new MeasurementStyle(_suffixes, separator, _approximationMarker, _decimalSeparator, _fractionSeparator);
+    }
+    
+    /**
+     * Returns a copy of this style with the given text before approximations ("~" by default), which may
+     * be empty to not mark them at all.
+     */
+    public MeasurementStyle withApproximationMarker(String approximationMarker) {
+        _checkNotNull(approximationMarker, "an approximation marker");
+        
+        return new MeasurementStyle(_suffixes, _separator, approximationMarker, _decimalSeparator, _fractionSeparator);
+    }
+    
+    /**
+     * Returns a copy of this style with the given decimal separator ('.' by default).
+     */
+    public MeasurementStyle withDecimalSeparator(char decimalSeparator) {
+        return new MeasurementStyle(_suffixes, _separator, _approximationMarker, decimalSeparator, _fractionSeparator);
+    }
+    
+    /**
+     * Returns a copy of this style with the decimal separator of the locale (e.g. ',' for
+     * <code>Locale.GERMANY</code>).
+     */
+    public MeasurementStyle withLocale(Locale locale) {
+        _checkNotNull(locale, "a locale");
+        
+        return withDecimalSeparator(DecimalFormatSymbols.getInstance(locale).getDecimalSeparator());
+    }
+    
+    /**
+     * Returns a copy of this style with the given text between a whole number and its fraction ("-" by
+     * default, as in <code>"3-1/2in"</code>).
+     */
+    public MeasurementStyle withFractionSeparator(String fractionSeparator) {
+        _checkNotNull(fractionSeparator, "a fraction separator");
+        
+        return new MeasurementStyle(_suffixes, _separator, _approximationMarker, _decimalSeparator, fractionSeparator);
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        
+        if (!(other instanceof MeasurementStyle)) {
+            return false;
+        }
+        
+        MeasurementStyle style = (MeasurementStyle) other;
+        
+        return Arrays.equals(_suffixes, style._suffixes) && _separator.equals(style._separator) && _approximationMarker.equals(style._approximationMarker)
+                && _decimalSeparator == style._decimalSeparator && _fractionSeparator.equals(style._fractionSeparator);
+    }
+    
+    @Override
+    public int hashCode() {
+        int hash = Arrays.hashCode(_suffixes);
+        hash = hash * 31 + _separator.hashCode();
+        hash = hash * 31 + _approximationMarker.hashCode();
+        hash = hash * 31 + _decimalSeparator;
+        
+        return hash * 31 + _fractionSeparator.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return "MeasurementStyle[suffixes=" + Arrays.toString(_suffixes) + ", separator=\"" + _separator + "\", approximationMarker=\"" + _approximationMarker
+                + "\", decimalSeparator='" + _decimalSeparator + "', fractionSeparator=\"" + _fractionSeparator + "\"]";
+    }
+    
+    private static MeasurementStyle _createDefault() {
+        Unit[] units = Unit.values();
+        String[] suffixes = new String[units.length];
+        
+        for (Unit unit : units) {
+            suffixes[unit.ordinal()] = unit.getAbbreviation();
+        }
+        return new MeasurementStyle(suffixes, " ", "~", '.', "-");
+    }
+    
+    private static MeasurementStyle _createLongNames() {
+        Unit[] units = Unit.values();
+        String[] suffixes = new String[units.length];
+        
+        for (Unit unit : units) {
+            suffixes[unit.ordinal()] = " " + unit.getDisplayName();
+        }
+        return new MeasurementStyle(suffixes, " ", "~", '.', "-");
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        
+        if (_suffixes == null || _suffixes.length != Unit.values().length || Arrays.asList(_suffixes).contains(null) || _separator == null
+                || _approximationMarker == null || _fractionSeparator == null) {
+            throw new InvalidObjectException("Malformed MeasurementStyle.");
+        }
+    }
+    
+    private static void _checkNotNull(Object value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("Must specify " + name + ".");
+        }
+    }
+    
+    private final String[] _suffixes; // by Unit ordinal
+    private final String _separator;
+    private final String _approximationMarker;
+    private final char _decimalSeparator;
+    private final String _fractionSeparator;
+    
+    private static final long serialVersionUID = 1L;
+}
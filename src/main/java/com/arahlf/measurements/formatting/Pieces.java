@@ -0,0 +1,456 @@
+package com.arahlf.measurements.formatting;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import com.arahlf.measurements.Measurement;
+import com.arahlf.measurements.Unit;
+
+/**
+ * The pieces of a Measurement when it is split across a formatter's units (e.g. "3ft 2.5in").  Every
+ * piece but the last is a whole number of its unit.  The last piece also holds the remainder as a
+ * fraction of its unit, rounded to {@link #SCALE} decimal places just like {@link Measurement#getLength()}.
+ * <p>
+ * The pieces are computed once from the Measurement and held as primitives, which the formatters adjust
+ * in place while rounding and fixing up signs.  Measurements too long for a long number of the largest
+ * unit fall back to BigDecimal pieces, with the same results.
+ * 
+ * @author arahlf
+ */
+final class Pieces {
+    
+    static Pieces decompose(Measurement measurement, FormatPlan plan) {
+        Pieces pieces = new Pieces(plan);
+        
+        if (measurement.isFixedPoint()) {
+            pieces._decompose(measurement.getLengthInPicometers());
+        }
+        else {
+            pieces._decompose(measurement.getLengthInMillimeters());
+        }
+        
+        return pieces;
+    }
+    
+    private Pieces(FormatPlan plan) {
+        _plan = plan;
+        _wholes = new long[plan.size()];
+        _last = plan.size() - 1;
+    }
+    
+    private void _decompose(long picometers) {
+        for (int i = 0; i < _last; i++) {
+            long picometersPerUnit = _plan.getPicometersPerUnit(i);
+            
+            _wholes[i] = picometers / picometersPerUnit;
+            picometers %= picometersPerUnit;
+        }
+        
+        long picometersPerUnit = _plan.getPicometersPerUnit(_last);
+        long remainder = picometers % picometersPerUnit;
+        
+        _wholes[_last] = picometers / picometersPerUnit;
+        _signum = Long.signum(picometers);
+        _exact = true;
+        
+        if (remainder != 0) {
+            // long division to SCALE decimal places, the remainder is less than a yard so it can't overflow
+            long fraction = 0;
+            
+            remainder = Math.abs(remainder);
+            
+            for (int i = 0; i < SCALE; i++) {
+                remainder *= 10;
+                fraction = fraction * 10 + remainder / picometersPerUnit;
+                remainder %= picometersPerUnit;
+            }
+            
+            if (remainder * 2 >= picometersPerUnit) {
+                fraction++;
+            }
+            
+            _exact = remainder == 0;
+            _setFraction(_signum < 0 ? -fraction : fraction);
+        }
+    }
+    
+    private void _decompose(BigDecimal millis) {
+        BigDecimal[] lengths = new BigDecimal[_wholes.length];
+        boolean fitsInLongs = true;
+        
+        for (int i = 0; i < _last; i++) {
+            BigDecimal[] result = millis.divideAndRemainder(_plan.getMillimetersPerUnit(i));
+            
+            lengths[i] = result[0].stripTrailingZeros();
+            fitsInLongs &= _fitsInLong(result[0]);
+            millis = result[1];
+        }
+        
+        BigDecimal millimetersPerUnit = _plan.getMillimetersPerUnit(_last);
+        BigDecimal[] result = millis.divideAndRemainder(millimetersPerUnit);
+        BigDecimal remainder = result[1];
+        BigDecimal fraction = remainder.divide(millimetersPerUnit, SCALE, RoundingMode.HALF_UP);
+        
+        _signum = millis.signum();
+        _exact = remainder.movePointRight(SCALE).remainder(millimetersPerUnit).signum() == 0;
+        
+        if (fitsInLongs && _fitsInLong(result[0])) {
+            for (int i = 0; i < _last; i++) {
+                _wholes[i] = lengths[i].longValue();
+            }
+            
+            _wholes[_last] = result[0].longValue();
+            _setFraction(fraction.movePointRight(SCALE).longValue());
+        }
+        else {
+            lengths[_last] = result[0].add(fraction).stripTrailingZeros();
+            _lengths = lengths;
+        }
+    }
+    
+    private static boolean _fitsInLong(BigDecimal whole) {
+        // leaves room to round and carry without overflowing
+        return whole.toBigInteger().bitLength() < 62;
+    }
+    
+    private void _setFraction(long fraction) {
+        if (Math.abs(fraction) == ONE) {
+            // the remainder rounded up to a whole unit
+            _wholes[_last] += Long.signum(fraction);
+            fraction = 0;
+        }
+        _fraction = fraction;
+    }
+    
+    int size() {
+        return _wholes.length;
+    }
+    
+    int getLastIndex() {
+        return _last;
+    }
+    
+    Unit getUnit(int index) {
+        return _plan.getUnit(index);
+    }
+    
+    /**
+     * Returns true if the piece has a length of 0.  The last piece is only zero if its remainder is,
+     * even if it rounds to 0.
+     */
+    boolean isZero(int index) {
+        return _signum(index) == 0;
+    }
+    
+    /**
+     * Returns true if the piece has a length less than 0.  The last piece is negative if its remainder
+     * is, even if it rounds to 0.
+     */
+    boolean isNegative(int index) {
+        return _signum(index) < 0;
+    }
+    
+    private int _signum(int index) {
+        if (index == _last) {
+            return _signum;
+        }
+        
+        return _lengths == null ? Long.signum(_wholes[index]) : _lengths[index].signum();
+    }
+    
+    /**
+     * Replaces the piece with its absolute value.  As with the other adjustments, the last piece becomes its
+     * rounded length.
+     */
+    void abs(int index) {
+        if (_lengths != null) {
+            _lengths[index] = _lengths[index].abs();
+            
+            if (index == _last) {
+                _setLast(_lengths[_last]);
+            }
+        }
+        else if (index == _last) {
+            _setLast(Math.abs(_wholes[_last]), Math.abs(_fraction));
+        }
+        else {
+            _wholes[index] = Math.abs(_wholes[index]);
+        }
+    }
+    
+    /**
+     * Returns true if rounding the last piece to the given whole number rounds it away from zero.
+     */
+    boolean roundsUpTo(long rounded) {
+        if (_lengths != null) {
+            return _roundsUpTo(BigDecimal.valueOf(rounded));
+        }
+        
+        long whole = _wholes[_last];
+        boolean unchanged = whole == rounded && _fraction == 0;
+        
+        return !unchanged && rounded == whole + Long.signum(_fraction);
+    }
+    
+    /**
+     * Returns true if rounding the last piece to the given number of decimal places rounds it away from
+     * zero to a whole number.
+     */
+    boolean roundsUp(int scale) {
+        if (_lengths != null) {
+            return _roundsUpTo(_lengths[_last].setScale(scale, RoundingMode.HALF_UP));
+        }
+        
+        long whole = Math.abs(_wholes[_last]);
+        long fraction = Math.abs(_fraction);
+        long roundedWhole = _roundWhole(whole, fraction, scale);
+        long roundedFraction = _roundFraction(fraction, scale);
+        
+        boolean unchanged = whole == roundedWhole && fraction == roundedFraction;
+        
+        return !unchanged && roundedFraction == 0 && roundedWhole == whole + (fraction > 0 ? 1 : 0);
+    }
+    
+    private boolean _roundsUpTo(BigDecimal rounded) {
+        BigDecimal length = _lengths[_last];
+        
+        return length.compareTo(rounded) != 0 && rounded.compareTo(length.setScale(0, RoundingMode.UP)) == 0;
+    }
+    
+    /**
+     * Rounds the last piece away from zero to a whole number of its unit, then carries it into the larger
+     * pieces wherever a piece adds up to exactly one of the next larger unit.
+     * @return true if the rounding carried into a larger piece
+     */
+    boolean roundUp() {
+        if (_lengths != null) {
+            _setLast(_lengths[_last].setScale(0, RoundingMode.UP).stripTrailingZeros());
+        }
+        else {
+            _setLast(_wholes[_last] + Long.signum(_fraction), 0);
+        }
+        
+        boolean carried = false;
+        
+        for (int i = _last; i > 0; i--) {
+            long ratio = _plan.getCarryRatio(i);
+            
+            if (ratio != 0 && _carry(i, ratio)) {
+                carried = true;
+            }
+        }
+        
+        return carried;
+    }
+    
+    private boolean _carry(int index, long ratio) {
+        int increment = isNegative(index - 1) ? -1 : 1;
+        
+        if (_lengths != null) {
+            if (_lengths[index].abs().compareTo(BigDecimal.valueOf(ratio)) != 0) {
+                return false;
+            }
+            
+            _lengths[index] = BigDecimal.ZERO;
+            _lengths[index - 1] = _lengths[index - 1].add(BigDecimal.valueOf(increment));
+            
+            if (index == _last) {
+                _setLast(BigDecimal.ZERO);
+            }
+            return true;
+        }
+        
+        if (Math.abs(_wholes[index]) != ratio) {
+            return false;
+        }
+        
+        if (index == _last) {
+            _setLast(0, 0);
+        }
+        else {
+            _wholes[index] = 0;
+        }
+        
+        _wholes[index - 1] += increment;
+        
+        return true;
+    }
+    
+    /**
+     * Rounds the last piece to the given number of decimal places (HALF_UP), returning true if that
+     * changed its exact length.
+     */
+    boolean round(int scale) {
+        boolean exact = _exact;
+        
+        if (_lengths != null) {
+            BigDecimal length = _lengths[_last];
+            BigDecimal rounded = length.setScale(scale, RoundingMode.HALF_UP).stripTrailingZeros();
+            
+            _setLast(rounded);
+            
+            return !exact || length.compareTo(rounded) != 0;
+        }
+        
+        boolean negative = _wholes[_last] < 0 || _fraction < 0;
+        long whole = Math.abs(_wholes[_last]);
+        long fraction = Math.abs(_fraction);
+        long roundedWhole = _roundWhole(whole, fraction, scale);
+        long roundedFraction = _roundFraction(fraction, scale);
+        
+        _setLast(negative ? -roundedWhole : roundedWhole, negative ? -roundedFraction : roundedFraction);
+        
+        return !exact || whole != roundedWhole || fraction != roundedFraction;
+    }
+    
+    private void _setLast(long whole, long fraction) {
+        _wholes[_last] = whole;
+        _fraction = fraction;
+        _exact = true;
+        _signum = whole != 0 ? Long.signum(whole) : Long.signum(fraction);
+    }
+    
+    private void _setLast(BigDecimal length) {
+        _lengths[_last] = length;
+        _exact = true;
+        _signum = length.signum();
+    }
+    
+    /**
+     * Returns the length of the last piece (as a double), as given by <code>getLength().doubleValue()</code>.
+     */
+    double getLastAsDouble() {
+        if (_lengths != null) {
+            return _lengths[_last].doubleValue();
+        }
+        
+        long whole = _wholes[_last];
+        
+        if (Math.abs(whole) < MAX_EXACT_DOUBLE_WHOLE) {
+            // both operands are exact, so the single division rounds just like BigDecimal.doubleValue()
+            return (double) (whole * ONE + _fraction) / ONE;
+        }
+        
+        return BigDecimal.valueOf(whole).add(BigDecimal.valueOf(_fraction, SCALE)).doubleValue();
+    }
+    
+    /**
+     * Appends the length of the piece, formatted like <code>getLength().toPlainString()</code> but with
+     * the given decimal separator.
+     */
+    void appendLength(StringBuilder builder, int index, char decimalSeparator) {
+        if (_lengths != null) {
+            int start = builder.length();
+            builder.append(_lengths[index].toPlainString());
+            
+            int point = decimalSeparator != '.' ? builder.indexOf(".", start) : -1;
+            if (point != -1) {
+                builder.setCharAt(point, decimalSeparator);
+            }
+            return;
+        }
+        
+        if (index != _last) {
+            builder.append(_wholes[index]);
+            return;
+        }
+        
+        long whole = _wholes[_last];
+        long fraction = _fraction;
+        
+        if (whole < 0 || fraction < 0) {
+            builder.append('-');
+        }
+        
+        builder.append(Math.abs(whole));
+        
+        if (fraction != 0) {
+            fraction = Math.abs(fraction);
+            
+            int digits = SCALE;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            
+            builder.append(decimalSeparator);
+            for (long power = POWERS_OF_TEN[digits - 1]; power > fraction; power /= 10) {
+                builder.append('0');
+            }
+            builder.append(fraction);
+        }
+    }
+    
+    /**
+     * Returns the whole part of the magnitude (whole + fraction / 10^SCALE) rounded to the given scale.
+     */
+    private static long _roundWhole(long whole, long fraction, int scale) {
+        if (scale >= SCALE) {
+            return whole;
+        }
+        
+        if (scale >= 0) {
+            long increment = POWERS_OF_TEN[SCALE - scale];
+            
+            return (fraction + increment / 2) / increment * increment == ONE ? whole + 1 : whole;
+        }
+        
+        if (-scale >= POWERS_OF_TEN.length) {
+            return 0;
+        }
+        
+        // a negative scale rounds to tens, hundreds, etc. and the fraction is less than one, so it can't tip the rounding
+        long increment = POWERS_OF_TEN[-scale];
+        long roundedDown = whole / increment * increment;
+        
+        return whole - roundedDown >= increment / 2 ? roundedDown + increment : roundedDown;
+    }
+    
+    /**
+     * Returns the fractional part of the magnitude (whole + fraction / 10^SCALE) rounded to the given scale.
+     */
+    private static long _roundFraction(long fraction, int scale) {
+        if (scale >= SCALE) {
+            return fraction;
+        }
+        
+        if (scale < 0) {
+            return 0;
+        }
+        
+        long increment = POWERS_OF_TEN[SCALE - scale];
+        long rounded = (fraction + increment / 2) / increment * increment;
+        
+        return rounded == ONE ? 0 : rounded;
+    }
+    
+    private final FormatPlan _plan;
+    private final long[] _wholes;
+    private final int _last;
+    
+    private long _fraction;
+    private boolean _exact;
+    private int _signum;
+    private BigDecimal[] _lengths; // the pieces as BigDecimals when the Measurement is too long for longs, otherwise null
+    
+    /**
+     * The number of decimal places kept in the fraction of the last piece, matching Measurement.
+     */
+    private static final int SCALE = 10;
+    
+    /**
+     * A whole unit in the scale of the fraction of the last piece.
+     */
+    private static final long ONE = 10_000_000_000L;
+    
+    private static final long[] POWERS_OF_TEN = new long[19];
+    
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    
+    private static final long MAX_EXACT_DOUBLE_WHOLE = (1L << 53) / ONE;
+}
@@ -0,0 +1,120 @@
+package com.arahlf.measurements.formatting;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.util.List;
+
+import com.arahlf.measurements.Unit;
+
+/**
+ * The serialized form of the library's formatters: the kind of formatter and the version of the form, its
+ * scale or denominator, the ordinals of its Units and its style (only written when it isn't the default),
+ * rather than the default form's class descriptors for the formatter, its List of Units and the Unit enum.
+ * Formatters replace themselves with one of these when serialized, and it resolves back to an equivalent
+ * formatter when deserialized.
+ * <p>
+ * The version is held in the high bits of the kind's byte, so the first form (version 0, without a style)
+ * is still read, as the default style.
+ * 
+ * @author arahlf
+ */
+final class SerializedFormatter implements Externalizable {
+    
+    /**
+     * Required by {@link Externalizable}, the fields are then read by {@link #readExternal(ObjectInput)}.
+     */
+    public SerializedFormatter() {
+    }
+    
+    SerializedFormatter(byte kind, int parameter, List<Unit> units, MeasurementStyle style) {
+        _kind = kind;
+        _parameter = parameter;
+        _units = units.toArray(new Unit[units.size()]);
+        _style = style;
+    }
+    
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(VERSION << VERSION_SHIFT | _kind);
+        out.writeInt(_parameter);
+        out.writeByte(_units.length);
+        
+        for (Unit unit : _units) {
+            out.writeByte(unit.ordinal());
+        }
+        
+        out.writeObject(_style.equals(MeasurementStyle.DEFAULT) ? null : _style);
+    }
+    
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int header = in.readUnsignedByte();
+        int version = header >>> VERSION_SHIFT;
+        
+        if (version > VERSION) {
+            throw new InvalidObjectException("Unknown version: " + version);
+        }
+        
+        _kind = (byte) (header & KIND_MASK);
+        _parameter = in.readInt();
+        _units = new Unit[in.readUnsignedByte()];
+        
+        for (int i = 0; i < _units.length; i++) {
+            int ordinal = in.readUnsignedByte();
+            
+            if (ordinal >= UNITS.length) {
+                throw new InvalidObjectException("Unknown unit: " + ordinal);
+            }
+            _units[i] = UNITS[ordinal];
+        }
+        
+        Object style = version > 0 ? in.readObject() : null;
+        
+        if (style != null && !(style instanceof MeasurementStyle)) {
+            throw new InvalidObjectException("Unknown style: " + style.getClass().getName());
+        }
+        _style = style != null ? (MeasurementStyle) style : MeasurementStyle.DEFAULT;
+    }
+    
+    private Object readResolve() throws ObjectStreamException {
+        try {
+            switch (_kind) {
+                case DECIMAL:
+                    return new DecimalMeasurementFormatter(_parameter, _style, _units);
+                case FRACTION:
+                    return new FractionMeasurementFormatter(_parameter, _style, _units);
+                default:
+                    throw new InvalidObjectException("Unknown formatter: " + _kind);
+            }
+        }
+        catch (IllegalArgumentException e) {
+            InvalidObjectException invalid = new InvalidObjectException(e.getMessage());
+            invalid.initCause(e);
+            
+            throw invalid;
+        }
+    }
+    
+    private byte _kind;
+    private int _parameter;
+    private Unit[] _units;
+    private MeasurementStyle _style;
+    
+    static final byte DECIMAL = 1;
+    static final byte FRACTION = 2;
+    
+    /**
+     * The version of the form that's written, version 0 didn't have the style.
+     */
+    private static final int VERSION = 1;
+    private static final int VERSION_SHIFT = 4;
+    private static final int KIND_MASK = (1 << VERSION_SHIFT) - 1;
+    
+    private static final Unit[] UNITS = Unit.values();
+    
+    private static final long serialVersionUID = 1L;
+}
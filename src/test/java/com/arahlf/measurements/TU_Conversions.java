@@ -0,0 +1,68 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_Conversions {
+    @Test
+    public void testFactors() {
+        _assertFactor(FOOT, INCH, 12, 1);
+        _assertFactor(INCH, FOOT, 1, 12);
+        _assertFactor(YARD, FOOT, 3, 1);
+        _assertFactor(METER, MILLIMETER, 1000, 1);
+        _assertFactor(MILLIMETER, INCH, 5, 127);
+        _assertFactor(METER, YARD, 1250, 1143);
+        _assertFactor(CENTIMETER, CENTIMETER, 1, 1);
+    }
+    
+    @Test
+    public void testIsExact() {
+        assertTrue(Conversions.isExact(YARD, INCH));
+        assertFalse(Conversions.isExact(INCH, MILLIMETER));
+        assertTrue(Conversions.isExact(METER, CENTIMETER));
+        assertFalse(Conversions.isExact(INCH, YARD));
+    }
+    
+    @Test
+    public void testConvert() {
+        assertEquals("12.00000000012", Conversions.convert(new BigDecimal("1.00000000001"), FOOT, INCH).toPlainString());
+        assertEquals("3.3333333333", Conversions.convert(new BigDecimal("40"), INCH, FOOT).toPlainString());
+        assertEquals("2.54", Conversions.convert(new BigDecimal("1"), INCH, CENTIMETER).toPlainString());
+        assertEquals("-1", Conversions.convert(new BigDecimal("-914.4"), MILLIMETER, YARD).toPlainString());
+    }
+    
+    @Test
+    public void testConvertMatchesMeasurement() {
+        for (Unit from : Unit.values()) {
+            for (Unit to : Unit.values()) {
+                BigDecimal length = new BigDecimal("17.625");
+                
+                assertEquals(Measurement.create(length, from).convert(to).getLength(), Conversions.convert(length, from, to));
+            }
+        }
+    }
+    
+    @Test
+    public void testConvertAll() {
+        BigDecimal[] converted = Conversions.convertAll(new BigDecimal[] { new BigDecimal("1"), new BigDecimal("2.5"), new BigDecimal("-3") }, FOOT, INCH);
+        
+        assertArrayEquals(new BigDecimal[] { new BigDecimal("12"), new BigDecimal("3E+1"), new BigDecimal("-36") }, converted);
+        
+        double[] doubles = Conversions.convertAll(new double[] { 1, 2.5, -3 }, FOOT, INCH);
+        
+        assertArrayEquals(new double[] { 12, 30, -36 }, doubles);
+        
+        doubles = Conversions.convertAll(new double[] { 254, 127 }, MILLIMETER, INCH);
+        
+        assertArrayEquals(new double[] { 10, 5 }, doubles);
+    }
+    
+    private void _assertFactor(Unit from, Unit to, long numerator, long denominator) {
+        assertEquals(numerator, Conversions.getNumerator(from, to));
+        assertEquals(denominator, Conversions.getDenominator(from, to));
+    }
+}
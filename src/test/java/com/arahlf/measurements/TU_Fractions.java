@@ -1,6 +1,7 @@
 package com.arahlf.measurements;
 
 import com.arahlf.measurements.formatting.Fractions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -8,6 +9,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class TU_Fractions {
 
@@ -17,6 +19,15 @@ public class TU_Fractions {
         assertEquals(expected, Fractions.getFractionString(number, precision));
     }
 
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> Fractions.getFractionString(1.5, 3));
+        assertThrows(IllegalArgumentException.class, () -> Fractions.getFractionString(1.5, 0));
+        assertThrows(IllegalArgumentException.class, () -> Fractions.getFractionString(1.5, -4));
+        assertThrows(IllegalArgumentException.class, () -> Fractions.getFractionString(Double.NaN, 4));
+        assertThrows(IllegalArgumentException.class, () -> Fractions.getFractionString(Double.POSITIVE_INFINITY, 4));
+    }
+
     private static Stream<Arguments> testCaseInputProvider() {
         return Stream.of(
                 Arguments.of("0", 0, 4),
@@ -65,7 +76,26 @@ public class TU_Fractions {
                 Arguments.of("~-187", -186.9, 4),
                 Arguments.of("-139-7/64", -139.109375, 64),
                 Arguments.of("~-139-9/64", -139.140629, 64),
-                Arguments.of("~-139-9/64", -139.140621, 64)
+                Arguments.of("~-139-9/64", -139.140621, 64),
+
+                // halfway between two fractions rounds to the smaller numerator
+                Arguments.of("~0", .0625, 8),
+                Arguments.of("~1/8", .1875, 8),
+                Arguments.of("~7/8", .9375, 8),
+                Arguments.of("~-1/8", -.1875, 8),
+
+                // high denominators
+                Arguments.of("3/128", .0234375, 128),
+                Arguments.of("~3/128", .0235, 128),
+                Arguments.of("5-255/256", 5.99609375, 256),
+                Arguments.of("~6", 5.999, 256),
+                Arguments.of("~1/256", .002, 256),
+                Arguments.of("~0", .001, 256),
+                Arguments.of("1/2", .5, 256),
+
+                // denominators that aren't powers of 2 are only reduced by 2
+                Arguments.of("3/6", .5, 6),
+                Arguments.of("~1/3", .3, 6)
         );
     }
 }
@@ -5,7 +5,12 @@ import org.junit.jupiter.api.Test;
 import static com.arahlf.measurements.Unit.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -103,6 +108,57 @@ public class TU_Measurement {
         _assertMeasurement(measurement, "0.82cm", "8.2");
     }
     
+    @Test
+    public void testLengthsBeyondFixedPointRange() {
+        Measurement measurement;
+        
+        measurement = Measurement.create(Integer.MAX_VALUE, YARD);
+        _assertMeasurement(measurement, "2147483647yd", "1963659046816.8");
+        
+        measurement = Measurement.create("1E+15", METER).add(Measurement.create("1", MILLIMETER));
+        _assertMeasurement(measurement, "1000000000000000.001m", "1000000000000000001");
+        
+        measurement = measurement.subtract(Measurement.create("1E+15", METER));
+        _assertMeasurement(measurement, "0.001m", "1");
+    }
+    
+    @Test
+    public void testLengthsBeyondFixedPointPrecision() {
+        Measurement measurement;
+        
+        measurement = Measurement.create("0.0000000001", MILLIMETER);
+        _assertMeasurement(measurement, "0.0000000001mm", "0.0000000001");
+        
+        measurement = measurement.add(Measurement.create("0.0000000009", MILLIMETER));
+        _assertMeasurement(measurement, "0.000000001mm", "0.000000001");
+        
+        measurement = Measurement.create("1.000000000000000000000000", MILLIMETER);
+        _assertMeasurement(measurement, "1mm", "1");
+    }
+    
+    @Test
+    public void testLengthIsStripped() {
+        assertEquals(new BigDecimal("1E+3"), Measurement.create(1000, MILLIMETER).getLength());
+        assertEquals(new BigDecimal("1E+3"), Measurement.create("1000.00", MILLIMETER).getLength());
+        assertEquals(new BigDecimal("0.5"), Measurement.create("-1", FOOT).add(Measurement.create(18, INCH)).convert(FOOT).getLength());
+        assertEquals(BigDecimal.ZERO, Measurement.create("0.000", YARD).getLength());
+    }
+    
+    @Test
+    public void testDerivedValuesAreComputedOnce() {
+        Measurement measurement = Measurement.create("40", INCH).convert(FOOT);
+        
+        assertSame(measurement.getLength(), measurement.getLength());
+        assertSame(measurement.getLengthInMillimeters(), measurement.getLengthInMillimeters());
+        assertSame(measurement.toString(), measurement.toString());
+        
+        measurement = Measurement.create("17.375", INCH);
+        
+        assertSame(measurement.getLength(), measurement.getLength());
+        assertSame(measurement.getLengthInMillimeters(), measurement.getLengthInMillimeters());
+        assertSame(measurement.toString(), measurement.toString());
+    }
+    
     @Test
     public void testPositiveNegativeZero() {
         Measurement m;
@@ -155,6 +211,45 @@ public class TU_Measurement {
         assertThrows(IllegalArgumentException.class, () -> Measurement.parse("9.875inn"));
     }
     
+    @Test
+    public void testParseIgnoresCase() {
+        _assertMeasurement(Measurement.parse("12.5IN"), "12.5in", "317.5");
+        _assertMeasurement(Measurement.parse("3 Feet"), "3ft", "914.4");
+    }
+    
+    @Test
+    public void testParseExponent() {
+        _assertMeasurement(Measurement.parse("1.5e3mm"), "1500mm", "1500");
+        _assertMeasurement(Measurement.parse("25E-2in"), "0.25in", "6.35");
+    }
+    
+    @Test
+    public void testParseRange() {
+        String text = "12.5in,-3ft,0.000001m";
+        
+        _assertMeasurement(Measurement.parse(text, 0, 6), "12.5in", "317.5");
+        _assertMeasurement(Measurement.parse(text, 7, 4), "-3ft", "-914.4");
+        _assertMeasurement(Measurement.parse(new StringBuilder(text), 12, 9), "0.000001m", "0.001");
+        
+        assertThrows(IndexOutOfBoundsException.class, () -> Measurement.parse(text, 20, 10));
+    }
+    
+    @Test
+    public void testParseErrorPositions() {
+        _assertParseError(NumberFormatException.class, "6..5ft", "Unexpected '.' at index 2");
+        _assertParseError(NumberFormatException.class, "ft", "Expected a number at index 0");
+        _assertParseError(IllegalArgumentException.class, "9.875inn", "Unrecognized unit specified: inn at index 5");
+        _assertParseError(IllegalArgumentException.class, "12.5", "Missing unit at index 4");
+        _assertParseError(IllegalArgumentException.class, "12.5in;", "Unexpected ';' at index 6");
+    }
+    
+    private static void _assertParseError(Class<? extends IllegalArgumentException> type, String text, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Measurement.parse(text));
+        
+        assertEquals(type, e.getClass());
+        assertEquals(message + " in \"" + text + "\"", e.getMessage());
+    }
+    
     @Test
     public void testEquals() {
         Measurement x = Measurement.create(3, FOOT);
@@ -188,12 +283,219 @@ public class TU_Measurement {
         assertTrue(x.equals(differentButSame));
     }
     
+    @Test
+    public void testEqualsAcrossPrecisions() {
+        Measurement precise = Measurement.create("0.00000000005", MILLIMETER);
+        Measurement sum = Measurement.create(1, MILLIMETER).add(precise).add(precise);
+        
+        assertFalse(sum.equals(Measurement.create(1, MILLIMETER)));
+        assertTrue(sum.subtract(precise).subtract(precise).equals(Measurement.create(1, MILLIMETER)));
+        assertEquals(sum.subtract(precise).subtract(precise).hashCode(), Measurement.create(1, MILLIMETER).hashCode());
+        
+        Measurement trailingZeros = Measurement.create("-21.998900927500000", YARD);
+        assertEquals(Measurement.create("-21.9989009275", YARD), trailingZeros);
+        assertEquals(Measurement.create("-21.9989009275", YARD).hashCode(), trailingZeros.hashCode());
+    }
+    
     @Test
     public void testHashCode() {
         Measurement x = Measurement.create("1005", MILLIMETER);
         Measurement y = Measurement.create("1005", MILLIMETER);
         
         assertEquals(x.hashCode(), y.hashCode());
+        
+        // cached for lengths held as BigDecimals, which then rule out unequal ones in equals
+        Measurement huge = Measurement.create("1E+15", METER).add(Measurement.create(1, MILLIMETER));
+        Measurement other = Measurement.create("1E+15", METER).add(Measurement.create(2, MILLIMETER));
+        
+        assertEquals(huge.hashCode(), huge.hashCode());
+        assertEquals(huge.getLengthInMillimeters().hashCode(), huge.hashCode());
+        assertEquals(huge.hashCode(), Measurement.create("1000000000000000.001", METER).hashCode());
+        assertNotEquals(huge.hashCode(), other.hashCode());
+        assertNotEquals(huge, other);
+        assertEquals(huge, Measurement.create("1000000000000000.001", METER));
+    }
+    
+    @Test
+    public void testCachedInstances() {
+        assertSame(Measurement.create(0, INCH), Measurement.create(0, INCH));
+        assertSame(Measurement.create(1000, MILLIMETER), Measurement.create(1000, MILLIMETER));
+        assertSame(Measurement.create(-128, FOOT), Measurement.create(-128, FOOT));
+        assertSame(Measurement.zero(YARD), Measurement.create(0, YARD));
+        assertNotSame(Measurement.create(5000, INCH), Measurement.create(5000, INCH));
+        
+        _assertMeasurement(Measurement.create(12, INCH), "12in", "304.8");
+        _assertMeasurement(Measurement.zero(METER), "0m", "0");
+    }
+    
+    @Test
+    public void testIntern() {
+        Measurement x = Measurement.create("2.5", INCH);
+        Measurement y = Measurement.create("2.5", INCH);
+        
+        assertNotSame(x, y);
+        assertSame(x.intern(), y.intern());
+        assertSame(Measurement.create("12.000", INCH).intern(), Measurement.create(12, INCH));
+        assertSame(Measurement.create(5000, INCH).intern(), Measurement.create(5000, INCH).intern());
+        
+        // equal lengths in other Units aren't shared
+        assertEquals(INCH, Measurement.create(12, INCH).intern().getUnit());
+        assertNotSame(Measurement.create(1, FOOT).intern(), Measurement.create(12, INCH).intern());
+        assertEquals(FOOT, Measurement.create("1.5", FOOT).intern().getUnit());
+        assertEquals(INCH, Measurement.create("18", INCH).convert(INCH).intern().getUnit());
+    }
+    
+    @Test
+    public void testSerialization() throws Exception {
+        Measurement[] measurements = {
+            Measurement.create(12, INCH),
+            Measurement.create("40", INCH).convert(FOOT),
+            Measurement.create("1E+15", METER).add(Measurement.create("1", MILLIMETER))
+        };
+        
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(measurements[0]);
+            out.flush();
+            
+            // a BigDecimal and a Unit alone take several hundred bytes
+            assertTrue(bytes.size() < 100, "serialized size " + bytes.size());
+            
+            out.writeObject(measurements[1]);
+            out.writeObject(measurements[2]);
+        }
+        
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (Measurement measurement : measurements) {
+                Measurement deserialized = (Measurement) in.readObject();
+                
+                assertEquals(measurement, deserialized);
+                assertEquals(measurement.toString(), deserialized.toString());
+            }
+        }
+    }
+    
+    @Test
+    public void testExactSerialization() throws Exception {
+        Measurement foot = Measurement.create(1, FOOT).exact();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(foot);
+            out.writeObject(Measurement.create(1, FOOT));
+        }
+        
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Measurement deserialized = (Measurement) in.readObject();
+            
+            assertTrue(deserialized.isExact());
+            assertEquals("1ft", deserialized.divide(new BigDecimal(3)).multiply(new BigDecimal(3)).toString());
+            assertFalse(((Measurement) in.readObject()).isExact());
+        }
+    }
+    
+    @Test
+    public void testCompareTo() {
+        assertEquals(0, Measurement.create(1, FOOT).compareTo(Measurement.create(12, INCH)));
+        assertTrue(Measurement.create(1, FOOT).compareTo(Measurement.create(13, INCH)) < 0);
+        assertTrue(Measurement.create(-1, YARD).compareTo(Measurement.create(-35, INCH)) < 0);
+        
+        // more precise than a picometer, beyond the fixed point range, and with no decimal form
+        Measurement precise = Measurement.create("0.0000000015", MILLIMETER);
+        Measurement huge = Measurement.create("1E+15", METER);
+        Measurement third = Measurement.create(1, MILLIMETER).exact().divide(new BigDecimal(3));
+        
+        assertTrue(precise.compareTo(Measurement.create("0.000000001", MILLIMETER)) > 0);
+        assertTrue(precise.compareTo(Measurement.create("0.000000002", MILLIMETER)) < 0);
+        assertTrue(huge.compareTo(Measurement.create(1, METER)) > 0);
+        assertTrue(third.compareTo(Measurement.create("0.3333333333", MILLIMETER)) > 0);
+        assertTrue(third.compareTo(Measurement.create("0.3333333334", MILLIMETER)) < 0);
+        assertEquals(0, third.compareTo(Measurement.create(2, MILLIMETER).exact().divide(new BigDecimal(6))));
+    }
+    
+    @Test
+    public void testSortKey() {
+        assertEquals(304_800_000_000L, Measurement.create(1, FOOT).getSortKey());
+        assertEquals(-25_400_000_000L, Measurement.create(-1, INCH).getSortKey());
+        
+        // rounded down to a whole picometer, and limited to the range of a long
+        assertEquals(1, Measurement.create("0.0000000015", MILLIMETER).getSortKey());
+        assertEquals(-2, Measurement.create("-0.0000000015", MILLIMETER).getSortKey());
+        assertEquals(333_333_333, Measurement.create(1, MILLIMETER).exact().divide(new BigDecimal(3)).getSortKey());
+        assertEquals(-333_333_334, Measurement.create(-1, MILLIMETER).exact().divide(new BigDecimal(3)).getSortKey());
+        assertEquals(Long.MAX_VALUE, Measurement.create("1E+15", METER).getSortKey());
+        assertEquals(Long.MIN_VALUE, Measurement.create("-1E+15", METER).getSortKey());
+    }
+    
+    @Test
+    public void testExact() {
+        Measurement inch = Measurement.create(1, INCH).exact();
+        Measurement third = inch.divide(new BigDecimal(3));
+        
+        assertTrue(third.isExact());
+        assertFalse(third.isFixedPoint());
+        assertEquals("0.3333333333in", third.toString());
+        assertEquals("0.33in", third.scale(2).toString());
+        assertEquals(inch, third.add(third).add(third));
+        assertEquals(inch, third.multiply(new BigDecimal(3)));
+        assertEquals(Measurement.create("0.0000000001", INCH), third.subtract(Measurement.create("0.3333333333", INCH)).scale(10, RoundingMode.UP));
+        assertEquals(third, Measurement.create(2, INCH).exact().divide(new BigDecimal(6)));
+        assertEquals(third.hashCode(), Measurement.create(2, INCH).exact().divide(new BigDecimal(6)).hashCode());
+        assertNotEquals(third, Measurement.create(1, INCH).divide(new BigDecimal(3)));
+        
+        // the inexact result is rounded to 10 decimal places, so three of them don't add back up
+        Measurement roundedThird = Measurement.create(1, INCH).divide(new BigDecimal(3));
+        assertNotEquals(Measurement.create(1, INCH), roundedThird.add(roundedThird).add(roundedThird));
+        
+        // exact and inexact Measurements with the same length are equal
+        assertEquals(Measurement.create(12, INCH), inch.multiply(new BigDecimal(12)));
+        assertSame(inch, inch.exact());
+        assertFalse(Measurement.create(1, INCH).isExact());
+        assertTrue(Measurement.create(1, FOOT).add(third).isExact());
+    }
+    
+    @Test
+    public void testExactConversions() {
+        Measurement millimeter = Measurement.create(1, MILLIMETER).exact();
+        Measurement converted = millimeter.convert(INCH).convert(YARD).convert(CENTIMETER).convert(MILLIMETER);
+        
+        assertEquals("0.0393700787in", millimeter.convert(INCH).toString());
+        assertEquals(millimeter, converted);
+        assertEquals("1mm", converted.toString());
+        
+        // the inexact conversions round the length in each Unit
+        assertEquals("1.0000000015mm", Measurement.create(1, MILLIMETER).convert(INCH).convert(YARD).convert(MILLIMETER).toString());
+        
+        Measurement board = Measurement.create(8, FOOT).exact();
+        Measurement sum = Measurement.zero(FOOT);
+        
+        for (int i = 0; i < 7; i++) {
+            sum = sum.add(board.divide(new BigDecimal(7)).convert(INCH));
+        }
+        assertEquals(board, sum);
+    }
+    
+    @Test
+    public void testExactBeyondLongs() {
+        Measurement inch = Measurement.create(1, INCH).exact();
+        Measurement length = inch;
+        
+        // the denominator outgrows a long and is then held as a BigInteger
+        for (int i = 0; i < 40; i++) {
+            length = length.divide(new BigDecimal(7));
+        }
+        for (int i = 0; i < 40; i++) {
+            length = length.multiply(new BigDecimal(7));
+        }
+        
+        assertEquals(inch, length);
+        assertTrue(length.isFixedPoint());
+        
+        Measurement tiny = inch.divide(new BigDecimal(3).pow(50));
+        assertEquals(inch, tiny.multiply(new BigDecimal(3).pow(50)));
+        assertTrue(tiny.isPositiveLength());
+        assertTrue(Measurement.zero(INCH).subtract(tiny).isNegativeLength());
     }
     
     private void _assertMeasurement(Measurement measurement, String value, String lengthInMillis) {
@@ -0,0 +1,195 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementAccumulator {
+    @Test
+    public void testSummary() {
+        MeasurementAccumulator accumulator = new MeasurementAccumulator();
+        
+        accumulator.accept(Measurement.create(1, FOOT));
+        accumulator.accept(Measurement.create("2.5", INCH));
+        accumulator.accept(Measurement.create(-3, CENTIMETER));
+        
+        assertEquals(3, accumulator.count());
+        assertEquals("13.3188976378in", accumulator.sum(INCH).toString());
+        assertEquals("338.3mm", accumulator.sum(MILLIMETER).toString());
+        assertEquals("112.766666667mm", accumulator.mean(MILLIMETER).toString());
+        assertEquals("-3cm", accumulator.min(CENTIMETER).toString());
+        assertEquals("1ft", accumulator.max(FOOT).toString());
+        assertEquals("12in", accumulator.max(INCH).toString());
+    }
+    
+    @Test
+    public void testSumIsExact() {
+        MeasurementAccumulator accumulator = new MeasurementAccumulator();
+        Measurement total = Measurement.create(0, FOOT);
+        
+        for (int i = 0; i < 1000; i++) {
+            Measurement measurement = Measurement.create(i + ".1", INCH).convert(FOOT);
+            
+            accumulator.accept(measurement);
+            total = total.add(measurement);
+        }
+        
+        assertEquals(total, accumulator.sum(FOOT));
+        assertEquals(total.toString(), accumulator.sum(FOOT).toString());
+    }
+    
+    @Test
+    public void testExactFractions() {
+        Measurement third = Measurement.create(1, MILLIMETER).exact().divide(new BigDecimal(3));
+        MeasurementAccumulator accumulator = new MeasurementAccumulator();
+        MeasurementAccumulator other = new MeasurementAccumulator();
+        
+        accumulator.accept(third);
+        accumulator.accept(third);
+        other.accept(third);
+        other.accept(Measurement.create(2, MILLIMETER));
+        
+        assertEquals("0.6666666667mm", accumulator.sum(MILLIMETER).toString());
+        assertTrue(accumulator.sum(MILLIMETER).isExact());
+        
+        accumulator.combine(other);
+        
+        assertEquals("3mm", accumulator.sum(MILLIMETER).toString());
+        assertEquals(Measurement.create(3, MILLIMETER), accumulator.sum(MILLIMETER));
+        assertEquals("0.75mm", accumulator.mean(MILLIMETER).toString());
+        assertEquals("3mm", Stream.of(third, third, third, Measurement.create(2, MILLIMETER)).collect(MeasurementAccumulator.summing(MILLIMETER)).toString());
+    }
+    
+    @Test
+    public void testLengthsBeyondFixedPointRange() {
+        MeasurementAccumulator accumulator = new MeasurementAccumulator();
+        
+        // the running total of picometers overflows the fixed point range, as do the other two lengths
+        for (int i = 0; i < 3; i++) {
+            accumulator.accept(Measurement.create("999999000", MILLIMETER));
+        }
+        accumulator.accept(Measurement.create("1E+12", MILLIMETER));
+        accumulator.accept(Measurement.create("0.0000000001", MILLIMETER));
+        
+        assertEquals("1002999997000.0000000001mm", accumulator.sum(MILLIMETER).toString());
+        assertEquals("200599999400mm", accumulator.mean(MILLIMETER).toString());
+        assertEquals("0.0000000001mm", accumulator.min(MILLIMETER).toString());
+    }
+    
+    @Test
+    public void testMeanIsRounded() {
+        MeasurementAccumulator accumulator = new MeasurementAccumulator();
+        
+        accumulator.accept(Measurement.create("0.000000001", MILLIMETER));
+        accumulator.accept(Measurement.create(0, MILLIMETER));
+        assertEquals("0.000000001mm", accumulator.mean(MILLIMETER).toString());
+        
+        accumulator.accept(Measurement.create(0, MILLIMETER));
+        assertEquals("0mm", accumulator.mean(MILLIMETER).toString());
+    }
+    
+    @Test
+    public void testPercentiles() {
+        MeasurementAccumulator accumulator = new MeasurementAccumulator();
+        List<Double> millimeters = new ArrayList<>();
+        Random random = new Random(7);
+        
+        for (int i = 0; i < 10_000; i++) {
+            Measurement measurement = Measurement.create(random.nextInt(2_000_000) - 500_000, MILLIMETER).divide(new BigDecimal(1000));
+            
+            accumulator.accept(measurement);
+            millimeters.add(measurement.getLengthInMillimeters().doubleValue());
+        }
+        
+        millimeters.sort(null);
+        
+        for (double percentile : new double[] { 1, 10, 25, 50, 75, 90, 99, 99.9 }) {
+            double expected = millimeters.get((int) Math.ceil(percentile / 100 * millimeters.size()) - 1);
+            double actual = accumulator.percentile(percentile, MILLIMETER).getLengthInMillimeters().doubleValue();
+            
+            assertEquals(expected, actual, Math.abs(expected) * 0.01, "percentile " + percentile);
+        }
+        
+        assertEquals(accumulator.min(INCH), accumulator.percentile(0, INCH));
+        assertEquals(accumulator.max(INCH), accumulator.percentile(100, INCH));
+    }
+    
+    @Test
+    public void testCombine() {
+        MeasurementAccumulator x = new MeasurementAccumulator();
+        MeasurementAccumulator y = new MeasurementAccumulator();
+        MeasurementAccumulator all = new MeasurementAccumulator();
+        
+        for (int i = 0; i < 100; i++) {
+            Measurement measurement = Measurement.create(i * 7 % 100, INCH);
+            
+            (i % 2 == 0 ? x : y).accept(measurement);
+            all.accept(measurement);
+        }
+        
+        assertSame(x, x.combine(y).combine(new MeasurementAccumulator()));
+        assertEquals(all.count(), x.count());
+        assertEquals(all.sum(INCH), x.sum(INCH));
+        assertEquals(all.min(INCH), x.min(INCH));
+        assertEquals(all.max(INCH), x.max(INCH));
+        assertEquals(all.percentile(50, INCH), x.percentile(50, INCH));
+        
+        assertThrows(IllegalArgumentException.class, () -> x.combine(_accumulator(0.05, Measurement.create(1, INCH))));
+    }
+    
+    @Test
+    public void testCollector() {
+        MeasurementAccumulator accumulator = IntStream.rangeClosed(1, 100_000).parallel().mapToObj(i -> Measurement.create(i, MILLIMETER)).collect(MeasurementAccumulator.collector());
+        
+        assertEquals(100_000, accumulator.count());
+        assertEquals("5000050000mm", accumulator.sum(MILLIMETER).toString());
+        assertEquals("50000.5mm", accumulator.mean(MILLIMETER).toString());
+        assertEquals("1mm", accumulator.min(MILLIMETER).toString());
+        assertEquals("100000mm", accumulator.max(MILLIMETER).toString());
+        
+        Measurement sum = IntStream.rangeClosed(1, 12).mapToObj(i -> Measurement.create(1, INCH)).collect(MeasurementAccumulator.summing(FOOT));
+        
+        assertEquals("1ft", sum.toString());
+    }
+    
+    @Test
+    public void testEmpty() {
+        MeasurementAccumulator accumulator = new MeasurementAccumulator();
+        
+        assertEquals(0, accumulator.count());
+        assertEquals("0in", accumulator.sum(INCH).toString());
+        assertThrows(NoSuchElementException.class, () -> accumulator.mean(INCH));
+        assertThrows(NoSuchElementException.class, () -> accumulator.min(INCH));
+        assertThrows(NoSuchElementException.class, () -> accumulator.max(INCH));
+        assertThrows(NoSuchElementException.class, () -> accumulator.percentile(50, INCH));
+    }
+    
+    @Test
+    public void testInvalidArguments() {
+        MeasurementAccumulator accumulator = _accumulator(0.01, Measurement.create(1, INCH));
+        
+        assertThrows(IllegalArgumentException.class, () -> accumulator.percentile(-1, INCH));
+        assertThrows(IllegalArgumentException.class, () -> accumulator.percentile(100.5, INCH));
+        assertThrows(IllegalArgumentException.class, () -> accumulator.percentile(Double.NaN, INCH));
+        assertThrows(IllegalArgumentException.class, () -> new MeasurementAccumulator(0));
+        assertThrows(IllegalArgumentException.class, () -> new MeasurementAccumulator(1));
+    }
+    
+    private static MeasurementAccumulator _accumulator(double relativeAccuracy, Measurement... measurements) {
+        MeasurementAccumulator accumulator = new MeasurementAccumulator(relativeAccuracy);
+        
+        for (Measurement measurement : measurements) {
+            accumulator.accept(measurement);
+        }
+        return accumulator;
+    }
+}
@@ -0,0 +1,121 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementArray {
+    @Test
+    public void testCreateAndGet() {
+        MeasurementArray array = _inches("1", "2.5", "-3");
+        
+        assertEquals(3, array.size());
+        assertEquals(INCH, array.getUnit());
+        assertEquals("2.5in", array.get(1).toString());
+        assertEquals("[1in, 2.5in, -3in]", array.toString());
+        
+        array = MeasurementArray.create(Arrays.asList(Measurement.create(1, FOOT), Measurement.create(6, INCH)), FOOT);
+        
+        assertEquals("[1ft, 0.5ft]", array.toString());
+    }
+    
+    @Test
+    public void testLengthsAreRoundedToPicometers() {
+        MeasurementArray array = MeasurementArray.create(new Measurement[] { Measurement.create("0.0000000015", MILLIMETER) }, MILLIMETER);
+        
+        assertEquals("0.000000002mm", array.get(0).toString());
+    }
+    
+    @Test
+    public void testAdd() {
+        MeasurementArray sums = _inches("1", "2.5", "-3").add(_inches("11", ".5", "3"));
+        
+        assertEquals("[12in, 3in, 0in]", sums.toString());
+        
+        sums = _inches("1", "2.5").add(Measurement.create(1, FOOT));
+        
+        assertEquals("[13in, 14.5in]", sums.toString());
+        
+        assertThrows(IllegalArgumentException.class, () -> _inches("1").add(_inches("1", "2")));
+    }
+    
+    @Test
+    public void testSubtract() {
+        MeasurementArray differences = _inches("1", "2.5").subtract(_inches("2", ".5"));
+        
+        assertEquals("[-1in, 2in]", differences.toString());
+        
+        differences = _inches("12", "24").subtract(Measurement.create(1, FOOT));
+        
+        assertEquals("[0in, 12in]", differences.toString());
+    }
+    
+    @Test
+    public void testMultiply() {
+        assertEquals("[3in, 7.5in]", _inches("1", "2.5").multiply(new BigDecimal("3")).toString());
+        assertEquals("[0.5in, 1.25in]", _inches("1", "2.5").multiply(new BigDecimal("0.5")).toString());
+        assertEquals("[342.8125mm]", MeasurementArray.create(new BigDecimal[] { new BigDecimal("109.7") }, MILLIMETER).multiply(new BigDecimal("3.125")).toString());
+        assertEquals("[30in]", _inches("1").multiply(new BigDecimal("3E+1")).toString());
+        
+        assertThrows(ArithmeticException.class, () -> _inches("1").multiply(new BigDecimal("1E+20")));
+    }
+    
+    @Test
+    public void testConvert() {
+        MeasurementArray converted = _inches("12", "18").convert(FOOT);
+        
+        assertEquals("[1ft, 1.5ft]", converted.toString());
+        assertEquals(_inches("12", "18"), converted);
+    }
+    
+    @Test
+    public void testSum() {
+        assertEquals("0.5in", _inches("1", "2.5", "-3").sum().toString());
+        assertEquals("0in", _inches().sum().toString());
+        
+        MeasurementArray large = MeasurementArray.create(new Measurement[] { Measurement.create(900000, METER), Measurement.create(900000, METER) }, METER);
+        
+        assertEquals("1800000m", large.sum().toString());
+    }
+    
+    @Test
+    public void testMinMax() {
+        MeasurementArray array = _inches("1", "2.5", "-3");
+        
+        assertEquals("-3in", array.min().toString());
+        assertEquals("2.5in", array.max().toString());
+        
+        assertThrows(NoSuchElementException.class, () -> _inches().min());
+        assertThrows(NoSuchElementException.class, () -> _inches().max());
+    }
+    
+    @Test
+    public void testSort() {
+        MeasurementArray array = _inches("1", "2.5", "-3");
+        
+        assertEquals("[-3in, 1in, 2.5in]", array.sort().toString());
+        assertEquals("[1in, 2.5in, -3in]", array.toString());
+    }
+    
+    @Test
+    public void testEquals() {
+        assertEquals(_inches("12"), MeasurementArray.create(new Measurement[] { Measurement.create(1, FOOT) }, FOOT));
+        assertEquals(_inches("12").hashCode(), MeasurementArray.create(new Measurement[] { Measurement.create(1, FOOT) }, FOOT).hashCode());
+        assertNotEquals(_inches("12"), _inches("12", "12"));
+    }
+    
+    private MeasurementArray _inches(String... lengths) {
+        BigDecimal[] values = new BigDecimal[lengths.length];
+        
+        for (int i = 0; i < lengths.length; i++) {
+            values[i] = new BigDecimal(lengths[i]);
+        }
+        
+        return MeasurementArray.create(values, INCH);
+    }
+}
@@ -0,0 +1,166 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementCodec {
+    @Test
+    public void testRoundTrip() {
+        Measurement[] measurements = {
+            Measurement.create(0, INCH),
+            Measurement.create(12, INCH),
+            Measurement.create("-17.375", INCH),
+            Measurement.create("40", INCH).convert(FOOT),
+            Measurement.create("0.000000001", MILLIMETER),
+            Measurement.create("999999999.999999999", MILLIMETER),
+            Measurement.create("-999999999.999999999", MILLIMETER),
+            Measurement.create("1E+15", METER).add(Measurement.create("1", MILLIMETER)),
+            Measurement.create("-0.00000000015", CENTIMETER),
+            Measurement.create(Integer.MAX_VALUE, YARD)
+        };
+        
+        for (Measurement measurement : measurements) {
+            ByteBuffer buffer = ByteBuffer.allocate(MeasurementCodec.encodedSize(measurement));
+            
+            MeasurementCodec.encode(measurement, buffer);
+            assertFalse(buffer.hasRemaining(), measurement.toString());
+            
+            buffer.flip();
+            Measurement decoded = MeasurementCodec.decode(buffer);
+            
+            assertEquals(measurement, decoded);
+            assertEquals(measurement.getUnit(), decoded.getUnit());
+            assertEquals(measurement.toString(), decoded.toString());
+        }
+    }
+    
+    @Test
+    public void testEncodedSizes() {
+        assertEquals(2, MeasurementCodec.encodedSize(Measurement.create(0, FOOT)));
+        assertEquals(2, MeasurementCodec.encodedSize(Measurement.create(1, METER)));
+        assertEquals(3, MeasurementCodec.encodedSize(Measurement.create(12, INCH)));
+        assertEquals(4, MeasurementCodec.encodedSize(Measurement.create("17.375", INCH)));
+        assertEquals(9, MeasurementCodec.encodedSize(Measurement.create("40", INCH).convert(FOOT)));
+    }
+    
+    @Test
+    public void testBulkRoundTrip() {
+        Random random = new Random(3);
+        Measurement[] measurements = new Measurement[10_000];
+        
+        for (int i = 0; i < measurements.length; i++) {
+            Unit unit = Unit.values()[random.nextInt(Unit.values().length)];
+            
+            measurements[i] = Measurement.create(random.nextInt(1_000_000) - 500_000 + "." + random.nextInt(1000), unit);
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MeasurementCodec.encodedSize(measurements));
+        
+        MeasurementCodec.encodeAll(measurements, buffer);
+        assertFalse(buffer.hasRemaining());
+        
+        buffer.flip();
+        Measurement[] decoded = MeasurementCodec.decodeAll(buffer.asReadOnlyBuffer());
+        
+        assertArrayEquals(measurements, decoded);
+        for (int i = 0; i < measurements.length; i++) {
+            assertEquals(measurements[i].getUnit(), decoded[i].getUnit());
+        }
+        
+        MeasurementArray array = MeasurementCodec.decodeArray(buffer, INCH);
+        
+        assertEquals(MeasurementArray.create(measurements, INCH), array);
+        assertEquals(INCH, array.getUnit());
+        assertFalse(buffer.hasRemaining());
+    }
+    
+    @Test
+    public void testDecodeArrayRoundsToPicometers() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        
+        MeasurementCodec.encodeAll(new Measurement[] { Measurement.create("0.0000000015", MILLIMETER), Measurement.create(1, FOOT) }, buffer);
+        buffer.flip();
+        
+        assertEquals("[0.000000002mm, 304.8mm]", MeasurementCodec.decodeArray(buffer, MILLIMETER).toString());
+    }
+    
+    @Test
+    public void testExactRoundTrip() {
+        Measurement third = Measurement.create(1, INCH).exact().divide(new BigDecimal(3));
+        Measurement big = third.divide(new BigDecimal(7).pow(30));
+        ByteBuffer buffer = ByteBuffer.allocate(MeasurementCodec.encodedSize(new Measurement[] { third, big }));
+        
+        MeasurementCodec.encodeAll(new Measurement[] { third, big }, buffer);
+        assertFalse(buffer.hasRemaining());
+        
+        buffer.flip();
+        Measurement[] decoded = MeasurementCodec.decodeAll(buffer.duplicate());
+        
+        assertEquals(third, decoded[0]);
+        assertEquals(big, decoded[1]);
+        assertTrue(decoded[0].isExact());
+        assertEquals(Measurement.create(1, INCH), decoded[0].multiply(new BigDecimal(3)));
+        
+        assertEquals("[8.466666667mm, 0mm]", MeasurementCodec.decodeArray(buffer, MILLIMETER).toString());
+        
+        // a denominator of zero
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decode(ByteBuffer.wrap(new byte[] { (byte) (30 << 3), 1, 1, 1, 0 })));
+    }
+    
+    @Test
+    public void testExactDecimalRoundTrip() {
+        Measurement foot = Measurement.create(1, FOOT).exact();
+        Measurement huge = Measurement.create("1E+16", METER).exact();
+        Measurement[] measurements = { foot, huge, Measurement.create(1, FOOT) };
+        ByteBuffer buffer = ByteBuffer.allocate(MeasurementCodec.encodedSize(measurements));
+        
+        MeasurementCodec.encodeAll(measurements, buffer);
+        assertFalse(buffer.hasRemaining());
+        
+        buffer.flip();
+        Measurement[] decoded = MeasurementCodec.decodeAll(buffer.duplicate());
+        
+        assertEquals(foot, decoded[0]);
+        assertTrue(decoded[0].isExact());
+        assertEquals(FOOT, decoded[0].getUnit());
+        assertEquals(foot, decoded[0].divide(new BigDecimal(3)).multiply(new BigDecimal(3)));
+        assertEquals(huge, decoded[1]);
+        assertTrue(decoded[1].isExact());
+        assertFalse(decoded[2].isExact());
+        
+        ByteBuffer feet = ByteBuffer.allocate(MeasurementCodec.encodedSize(new Measurement[] { foot, foot }));
+        MeasurementCodec.encodeAll(new Measurement[] { foot, foot }, feet);
+        feet.flip();
+        
+        assertEquals("[304.8mm, 304.8mm]", MeasurementCodec.decodeArray(feet, MILLIMETER).toString());
+        
+        // the marker has no unit, and is only followed by a length with a decimal form
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decode(ByteBuffer.wrap(new byte[] { (byte) (29 << 3 | 4), 4, 2 })));
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decode(ByteBuffer.wrap(new byte[] { (byte) (29 << 3), (byte) (29 << 3), 4, 2 })));
+    }
+    
+    @Test
+    public void testMalformed() {
+        // unit 7 doesn't exist
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decode(ByteBuffer.wrap(new byte[] { 7, 0 })));
+        // power of ten 19 would overflow
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decode(ByteBuffer.wrap(new byte[] { (byte) (19 << 3), 2 })));
+        // 10^18 picometers is out of range
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decode(ByteBuffer.wrap(new byte[] { (byte) (18 << 3), 2 })));
+        // unterminated varint
+        assertThrows(BufferUnderflowException.class, () -> MeasurementCodec.decode(ByteBuffer.wrap(new byte[] { 0, (byte) 0x80 })));
+        // a billion Measurements in 2 bytes
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decodeAll(ByteBuffer.wrap(new byte[] { (byte) 0x80, (byte) 0x94, (byte) 0xEB, (byte) 0xDC, 0x03, 0, 0 })));
+        // a count of -1
+        byte[] negative = { -1, -1, -1, -1, -1, -1, -1, -1, -1, 0x01, 0, 0 };
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decodeAll(ByteBuffer.wrap(negative)));
+        assertThrows(IllegalArgumentException.class, () -> MeasurementCodec.decodeArray(ByteBuffer.wrap(negative), INCH));
+    }
+}
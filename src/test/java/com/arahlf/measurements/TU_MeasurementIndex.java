@@ -0,0 +1,123 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementIndex {
+    @Test
+    public void testCeilingAndFloor() {
+        MeasurementIndex index = MeasurementIndex.create(new Measurement[] {
+            Measurement.create(8, FOOT), Measurement.create(10, FOOT), Measurement.create(96, INCH), Measurement.create(12, FOOT)
+        });
+        
+        // the first of equal lengths is kept
+        assertEquals("[8ft, 10ft, 12ft]", index.toString());
+        assertEquals(3, index.size());
+        
+        assertEquals("10ft", index.ceiling(Measurement.create(97, INCH)).toString());
+        assertEquals("8ft", index.ceiling(Measurement.create(2, METER)).toString());
+        assertEquals("8ft", index.ceiling(Measurement.create(8, FOOT)).toString());
+        assertNull(index.ceiling(Measurement.create("12.01", FOOT)));
+        
+        assertEquals("10ft", index.floor(Measurement.create(11, FOOT)).toString());
+        assertEquals("12ft", index.floor(Measurement.create(4, METER)).toString());
+        assertNull(index.floor(Measurement.create(7, FOOT)));
+        
+        assertEquals(1, index.ceilingIndex(Measurement.create(9, FOOT)));
+        assertEquals(-1, index.ceilingIndex(Measurement.create(13, FOOT)));
+        assertEquals(0, index.floorIndex(Measurement.create(9, FOOT)));
+        assertEquals(-1, index.floorIndex(Measurement.create(-9, FOOT)));
+        
+        assertThrows(IndexOutOfBoundsException.class, () -> index.get(3));
+    }
+    
+    @Test
+    public void testRange() {
+        Measurement[] measurements = new Measurement[20];
+        
+        for (int i = 0; i < measurements.length; i++) {
+            measurements[i] = Measurement.create(i + 1, FOOT);
+        }
+        
+        MeasurementIndex index = MeasurementIndex.create(measurements);
+        MeasurementIndex range = index.range(Measurement.create(30, INCH), Measurement.create(72, INCH));
+        
+        assertEquals("[3ft, 4ft, 5ft, 6ft]", range.toString());
+        assertEquals("3ft", range.get(0).toString());
+        assertEquals("3ft", range.ceiling(Measurement.create(5, INCH)).toString());
+        assertEquals("6ft", range.floor(Measurement.create(7, FOOT)).toString());
+        assertNull(range.ceiling(Measurement.create(7, FOOT)));
+        assertEquals(-1, range.floorIndex(Measurement.create(2, FOOT)));
+        assertEquals("[4ft, 5ft]", range.range(Measurement.create(4, FOOT), Measurement.create(5, FOOT)).toString());
+        
+        assertTrue(index.range(Measurement.create(6, FOOT), Measurement.create(3, FOOT)).isEmpty());
+        assertTrue(index.range(Measurement.create(21, FOOT), Measurement.create(30, FOOT)).isEmpty());
+        assertTrue(MeasurementIndex.create(new Measurement[0]).range(Measurement.create(1, FOOT), Measurement.create(2, FOOT)).isEmpty());
+    }
+    
+    @Test
+    public void testBatches() {
+        Random random = new Random(9);
+        Measurement[] stock = new Measurement[500];
+        
+        for (int i = 0; i < stock.length; i++) {
+            stock[i] = _random(random);
+        }
+        
+        MeasurementIndex index = MeasurementIndex.create(stock);
+        TreeSet<Measurement> expected = new TreeSet<>(Arrays.asList(stock));
+        
+        assertEquals(expected.size(), index.size());
+        
+        Measurement[] cuts = new Measurement[5000];
+        
+        for (int i = 0; i < cuts.length; i++) {
+            cuts[i] = _random(random);
+        }
+        
+        // unsorted, then sorted for the merge-style pass
+        for (int pass = 0; pass < 2; pass++) {
+            Measurement[] ceilings = new Measurement[cuts.length];
+            Measurement[] floors = new Measurement[cuts.length];
+            int[] ceilingIndexes = new int[cuts.length];
+            
+            index.ceilingAll(cuts, ceilings);
+            index.floorAll(cuts, floors);
+            index.ceilingIndexAll(cuts, ceilingIndexes);
+            
+            for (int i = 0; i < cuts.length; i++) {
+                assertSame(expected.ceiling(cuts[i]), ceilings[i]);
+                assertSame(expected.floor(cuts[i]), floors[i]);
+                assertSame(expected.ceiling(cuts[i]), index.ceiling(cuts[i]));
+                assertSame(expected.floor(cuts[i]), index.floor(cuts[i]));
+                assertSame(ceilings[i], ceilingIndexes[i] < 0 ? null : index.get(ceilingIndexes[i]));
+            }
+            
+            Arrays.sort(cuts);
+        }
+        
+        assertThrows(IllegalArgumentException.class, () -> index.ceilingAll(cuts, new Measurement[1]));
+    }
+    
+    private static Measurement _random(Random random) {
+        switch (random.nextInt(8)) {
+            case 0:
+                // more precise than a picometer, sharing keys with the fixed point lengths
+                return Measurement.create(random.nextInt(50) + ".00000000" + random.nextInt(20), MILLIMETER);
+            case 1:
+                // beyond the fixed point range, all with the largest key
+                return Measurement.create(new BigDecimal(random.nextInt(50)).add(new BigDecimal("1E+16")), METER);
+            case 2:
+                return Measurement.create(random.nextInt(50), MILLIMETER).exact().divide(new BigDecimal(3));
+            default:
+                return Measurement.create(random.nextInt(100) - 10 + "." + random.nextInt(4) * 25, random.nextBoolean() ? MILLIMETER : INCH);
+        }
+    }
+}
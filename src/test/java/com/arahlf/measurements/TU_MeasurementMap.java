@@ -0,0 +1,90 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementMap {
+    @Test
+    public void testPutAndGet() {
+        MeasurementMap<String> map = new MeasurementMap<>();
+        Measurement foot = Measurement.create(1, FOOT);
+        
+        assertTrue(map.isEmpty());
+        assertNull(map.put(foot, "a"));
+        assertEquals("a", map.get(Measurement.create(12, INCH)));
+        assertEquals("a", map.put(Measurement.create(12, INCH), "b"));
+        assertEquals("b", map.putIfAbsent(Measurement.create("304.8", MILLIMETER), "c"));
+        assertEquals("b", map.get(foot));
+        assertNull(map.get(Measurement.create(11, INCH)));
+        assertFalse(map.containsKey(Measurement.create(-1, FOOT)));
+        assertEquals(1, map.size());
+        
+        // the first key is kept when the value is replaced
+        map.forEach((key, value) -> assertSame(foot, key));
+        
+        assertThrows(IllegalArgumentException.class, () -> map.put(foot, null));
+        assertThrows(NullPointerException.class, () -> map.get(null));
+    }
+    
+    @Test
+    public void testBeyondFixedPoint() {
+        MeasurementMap<String> map = new MeasurementMap<>();
+        Measurement precise = Measurement.create("0.0000000015", MILLIMETER);
+        Measurement huge = Measurement.create("1E+15", METER);
+        Measurement third = Measurement.create(1, INCH).exact().divide(new BigDecimal(3));
+        
+        map.put(precise, "a");
+        map.put(huge, "b");
+        map.put(third, "c");
+        map.put(Measurement.create("0.000000001", MILLIMETER), "d");
+        
+        assertEquals(4, map.size());
+        assertEquals("a", map.get(Measurement.create("0.0000000000015", METER)));
+        assertEquals("b", map.get(Measurement.create("1E+18", MILLIMETER)));
+        assertEquals("c", map.get(Measurement.create(2, INCH).exact().divide(new BigDecimal(6))));
+        assertEquals("d", map.get(Measurement.create("0.000000001", MILLIMETER)));
+        assertNull(map.get(Measurement.create(1, INCH).divide(new BigDecimal(3))));
+    }
+    
+    @Test
+    public void testGrowsLikeHashMap() {
+        Random random = new Random(5);
+        MeasurementMap<Integer> map = new MeasurementMap<>();
+        Map<Measurement, Integer> expected = new HashMap<>();
+        
+        for (int i = 0; i < 100_000; i++) {
+            // whole millimeters, whose picometers all end in nine zeros
+            Measurement measurement = Measurement.create(random.nextInt(50_000) - 25_000, random.nextBoolean() ? MILLIMETER : CENTIMETER);
+            
+            assertEquals(expected.put(measurement, i), map.put(measurement, i));
+        }
+        
+        assertEquals(expected.size(), map.size());
+        
+        int[] count = new int[1];
+        
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            count[0]++;
+        });
+        assertEquals(expected.size(), count[0]);
+    }
+    
+    @Test
+    public void testExpectedSize() {
+        MeasurementMap<String> map = new MeasurementMap<>(1000);
+        
+        for (int i = 0; i < 1000; i++) {
+            map.put(Measurement.create(i, INCH), "x");
+        }
+        assertEquals(1000, map.size());
+        assertThrows(IllegalArgumentException.class, () -> new MeasurementMap<String>(-1));
+    }
+}
@@ -0,0 +1,228 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.arahlf.measurements.formatting.AbstractMeasurementFormatter;
+import com.arahlf.measurements.formatting.DecimalMeasurementFormatter;
+import com.arahlf.measurements.formatting.FractionMeasurementFormatter;
+import com.arahlf.measurements.formatting.MeasurementFormatter;
+import com.arahlf.measurements.formatting.MeasurementStyle;
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementMetrics {
+    @Test
+    public void testDisabledByDefault() {
+        assertNull(MeasurementMetrics.current());
+        
+        MeasurementMetrics metrics = MeasurementMetrics.enable();
+        
+        try {
+            metrics.reset();
+            MeasurementMetrics.disable();
+            
+            assertNull(MeasurementMetrics.current());
+            assertFalse(metrics.isEnabled());
+            
+            Measurement.parse("12in");
+            new DecimalMeasurementFormatter(2, INCH).format(Measurement.create("1.005", INCH));
+            
+            assertEquals(0, metrics.getParseCount());
+            assertEquals(0, metrics.getFormatCount());
+        }
+        finally {
+            MeasurementMetrics.disable();
+        }
+    }
+    
+    @Test
+    public void testFormatting() {
+        MeasurementMetrics metrics = MeasurementMetrics.enable();
+        
+        try {
+            metrics.reset();
+            
+            MeasurementFormatter decimal = new DecimalMeasurementFormatter(2, FOOT, INCH);
+            MeasurementFormatter fraction = new FractionMeasurementFormatter(16, FOOT, INCH);
+            
+            assertEquals("1ft 2in", decimal.format(Measurement.create("14", INCH)));
+            assertEquals("~1ft 2.01in", decimal.format(Measurement.create("14.005", INCH)));
+            assertEquals("~2ft", decimal.format(Measurement.create("23.999", INCH)));
+            assertEquals("~2ft", fraction.format(Measurement.create("23.999", INCH)));
+            assertEquals("~11in", fraction.format(Measurement.create("10.999", INCH)));
+            
+            StringBuilder builder = new StringBuilder();
+            fraction.formatTo(Measurement.create("1.5", INCH), builder);
+            
+            assertEquals(6, metrics.getFormatCount());
+            assertEquals(4, metrics.getApproximationCount());
+            assertEquals(2, metrics.getRoundingCarryCount());
+            
+            assertTrue(metrics.getFormatLatency99thPercentile() >= metrics.getFormatLatencyMedian());
+            assertEquals(6, _sum(metrics.getFormatLatencyHistogram()));
+        }
+        finally {
+            MeasurementMetrics.disable();
+        }
+    }
+    
+    @Test
+    public void testPerFormatter() {
+        MeasurementMetrics decimalMetrics = MeasurementMetrics.create();
+        MeasurementMetrics fractionMetrics = MeasurementMetrics.create();
+        MeasurementFormatter decimal = new DecimalMeasurementFormatter(2, MeasurementStyle.DEFAULT, decimalMetrics, FOOT, INCH);
+        MeasurementFormatter fraction = new FractionMeasurementFormatter(16, MeasurementStyle.DEFAULT, fractionMetrics, FOOT, INCH);
+        
+        assertTrue(decimalMetrics.isEnabled());
+        assertNotSame(decimalMetrics, MeasurementMetrics.enable());
+        
+        try {
+            MeasurementMetrics shared = MeasurementMetrics.current();
+            shared.reset();
+            
+            assertEquals("~1ft 2.01in", decimal.format(Measurement.create("14.005", INCH)));
+            assertEquals("~2ft", fraction.format(Measurement.create("23.999", INCH)));
+            assertEquals("1-1/2in", fraction.format(Measurement.create("1.5", INCH)));
+            
+            MeasurementMetrics.disable();
+            assertEquals("1-1/2in", fraction.format(Measurement.create("1.5", INCH)));
+            
+            assertEquals(1, decimalMetrics.getFormatCount());
+            assertEquals(1, decimalMetrics.getApproximationCount());
+            assertEquals(0, decimalMetrics.getRoundingCarryCount());
+            
+            assertEquals(3, fractionMetrics.getFormatCount());
+            assertEquals(1, fractionMetrics.getApproximationCount());
+            assertEquals(1, fractionMetrics.getRoundingCarryCount());
+            
+            assertEquals(3, shared.getFormatCount());
+            assertEquals(2, shared.getApproximationCount());
+        }
+        finally {
+            MeasurementMetrics.disable();
+        }
+    }
+    
+    @Test
+    public void testSubclassOutcome() {
+        MeasurementMetrics metrics = MeasurementMetrics.enable();
+        
+        try {
+            metrics.reset();
+            
+            assertEquals("about 14in", new ApproximateFormatter().format(Measurement.create("14.2", INCH)));
+            
+            assertEquals(1, metrics.getFormatCount());
+            assertEquals(1, metrics.getApproximationCount());
+            assertEquals(0, metrics.getRoundingCarryCount());
+        }
+        finally {
+            MeasurementMetrics.disable();
+        }
+    }
+    
+    @Test
+    public void testParsing() {
+        MeasurementMetrics metrics = MeasurementMetrics.enable();
+        
+        try {
+            metrics.reset();
+            
+            Measurement.parse("12in");
+            Measurement.parse("12in, 3ft", 6, 3);
+            assertThrows(NumberFormatException.class, () -> Measurement.parse("1.2.3in"));
+            assertThrows(IllegalArgumentException.class, () -> Measurement.parse("12 furlongs"));
+            
+            assertEquals(4, metrics.getParseCount());
+            assertEquals(2, metrics.getParseFailureCount());
+            assertEquals(4, _sum(metrics.getParseLatencyHistogram()));
+            
+            metrics.reset();
+            
+            assertEquals(0, metrics.getParseCount());
+            assertEquals(0, metrics.getParseLatencyMedian());
+        }
+        finally {
+            MeasurementMetrics.disable();
+        }
+    }
+    
+    @Test
+    public void testLatencyPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        
+        for (int i = 0; i < 98; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+        histogram.record(-1);
+        
+        assertEquals(127, histogram.getPercentile(50));
+        assertEquals(127, histogram.getPercentile(98));
+        assertEquals(8191, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0.5));
+        
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    }
+    
+    @Test
+    public void testMBean() throws Exception {
+        MeasurementMetrics metrics = MeasurementMetrics.enable();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        
+        try {
+            metrics.reset();
+            
+            ObjectName name = MeasurementMetrics.registerMBean();
+            assertEquals(name, MeasurementMetrics.registerMBean());
+            
+            Measurement.parse("3ft");
+            
+            assertEquals(1L, server.getAttribute(name, "ParseCount"));
+            assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+            
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertEquals(0L, server.getAttribute(name, "ParseCount"));
+            
+            server.unregisterMBean(name);
+        }
+        finally {
+            MeasurementMetrics.disable();
+        }
+    }
+    
+    /**
+     * A formatter from outside of the formatting package, which can only use the protected hook.
+     */
+    private static final class ApproximateFormatter extends AbstractMeasurementFormatter {
+        
+        ApproximateFormatter() {
+            super(Collections.singletonList(INCH));
+        }
+        
+        @Override
+        protected int append(Measurement measurement, StringBuilder builder) {
+            builder.append("about ").append(measurement.convert(INCH).scale(0).getLength()).append("in");
+            
+            return APPROXIMATION;
+        }
+        
+        private static final long serialVersionUID = 1L;
+    }
+    
+    private static long _sum(long[] counts) {
+        long sum = 0;
+        
+        for (long count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+}
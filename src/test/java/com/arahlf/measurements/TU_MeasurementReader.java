@@ -0,0 +1,140 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.arahlf.measurements.MeasurementReader.ErrorPolicy;
+
+public class TU_MeasurementReader {
+    @Test
+    public void testReadBuffer() {
+        List<Measurement> measurements = new ArrayList<>();
+        
+        new MeasurementReader().read(_buffer("12.5in\n3 feet\r\n\n-1005mm,0.5yd"), measurements::add);
+        
+        assertEquals("[12.5in, 3ft, -1005mm, 0.5yd]", measurements.toString());
+        assertEquals(Measurement.create("0.5", YARD), measurements.get(3));
+    }
+    
+    @Test
+    public void testReadMillimeters() {
+        ByteBuffer buffer = _buffer("1in; 2ft ;;-3m; 0.000000000001mm ");
+        double[] millimeters = new MeasurementReader(";", ErrorPolicy.FAIL).readMillimeters(buffer);
+        
+        assertArrayEquals(new double[] { 25.4, 609.6, -3000, 1e-12 }, millimeters);
+        assertFalse(buffer.hasRemaining());
+    }
+    
+    @Test
+    public void testWhitespaceAroundDelimiters() {
+        double[] millimeters = new MeasurementReader(",", ErrorPolicy.FAIL).readMillimeters(_buffer("12in,\n3ft,\f1mm\u000B,\r\n\t2mm\n"));
+        
+        assertArrayEquals(new double[] { 304.8, 914.4, 1, 2 }, millimeters);
+    }
+    
+    @Test
+    public void testReadChannel() throws IOException {
+        // many times the size of the reader's buffer, so tokens are split across reads
+        StringBuilder text = new StringBuilder();
+        int count = 100_000;
+        
+        for (int i = 0; i < count; i++) {
+            text.append(i).append(".25in\n");
+        }
+        
+        double[] millimeters = new MeasurementReader().readMillimeters(_channel(text.toString()));
+        
+        assertEquals(count, millimeters.length);
+        for (int i = 0; i < count; i++) {
+            assertEquals(Measurement.create(i + ".25", INCH).getLengthInMillimeters().doubleValue(), millimeters[i]);
+        }
+    }
+    
+    @Test
+    public void testReadLongToken() throws IOException {
+        StringBuilder digits = new StringBuilder("1.");
+        
+        while (digits.length() < 200_000) {
+            digits.append('0');
+        }
+        
+        List<Measurement> measurements = new ArrayList<>();
+        
+        new MeasurementReader().read(_channel("2in\n" + digits + "1mm\n3in"), measurements::add);
+        
+        assertEquals(3, measurements.size());
+        assertEquals(Measurement.create(digits + "1", MILLIMETER), measurements.get(1));
+    }
+    
+    @Test
+    public void testNonBlockingChannel() throws IOException {
+        Pipe pipe = Pipe.open();
+        
+        try {
+            pipe.source().configureBlocking(false);
+            
+            assertThrows(IllegalArgumentException.class, () -> new MeasurementReader().readMillimeters(pipe.source()));
+        }
+        finally {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+    
+    @Test
+    public void testFailOnError() {
+        MeasurementParseException e = assertThrows(MeasurementParseException.class, () -> new MeasurementReader().readMillimeters(_buffer("1in\n6..5ft\n")));
+        
+        assertEquals(4, e.getOffset());
+        assertEquals("Unexpected '.' at index 2 in \"6..5ft\" (token at offset 4)", e.getMessage());
+        assertTrue(e.getCause() instanceof NumberFormatException);
+    }
+    
+    @Test
+    public void testSkipErrors() {
+        MeasurementReader reader = new MeasurementReader(",", ErrorPolicy.SKIP);
+        
+        assertArrayEquals(new double[] { 25.4, 10 }, reader.readMillimeters(_buffer("1in,9.875inn,1cm")));
+        assertTrue(reader.getErrors().isEmpty());
+    }
+    
+    @Test
+    public void testCollectErrors() throws IOException {
+        MeasurementReader reader = new MeasurementReader("\n", ErrorPolicy.COLLECT);
+        
+        assertArrayEquals(new double[] { 25.4, 10 }, reader.readMillimeters(_channel("1in\n 9.875inn\n1cm\n12.5")));
+        assertEquals(2, reader.getErrors().size());
+        assertEquals(5, reader.getErrors().get(0).getOffset());
+        assertEquals(18, reader.getErrors().get(1).getOffset());
+        
+        reader.readMillimeters(_buffer("1in"));
+        assertTrue(reader.getErrors().isEmpty());
+    }
+    
+    @Test
+    public void testInvalidDelimiters() {
+        assertThrows(IllegalArgumentException.class, () -> new MeasurementReader("", ErrorPolicy.FAIL));
+        assertThrows(IllegalArgumentException.class, () -> new MeasurementReader(".", ErrorPolicy.FAIL));
+        assertThrows(IllegalArgumentException.class, () -> new MeasurementReader("x", ErrorPolicy.FAIL));
+    }
+    
+    private static ByteBuffer _buffer(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    private static ReadableByteChannel _channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementSet {
+    @Test
+    public void testDeduplicates() {
+        MeasurementSet set = new MeasurementSet();
+        Measurement foot = Measurement.create(1, FOOT);
+        
+        assertTrue(set.add(foot));
+        assertFalse(set.add(Measurement.create(12, INCH)));
+        assertTrue(set.add(Measurement.create(3, INCH)));
+        assertTrue(set.add(Measurement.create("1E+15", METER)));
+        assertFalse(set.add(Measurement.create("1E+18", MILLIMETER)));
+        
+        assertEquals(3, set.size());
+        assertTrue(set.contains(Measurement.create("304.8", MILLIMETER)));
+        assertFalse(set.contains(Measurement.create(2, FOOT)));
+        assertSame(foot, set.get(Measurement.create(12, INCH)));
+        assertNull(set.get(Measurement.create(2, FOOT)));
+    }
+    
+    @Test
+    public void testIntern() {
+        MeasurementSet set = new MeasurementSet(10);
+        Measurement inches = Measurement.create(36, INCH);
+        
+        assertSame(inches, set.intern(inches));
+        assertSame(inches, set.intern(Measurement.create(1, YARD)));
+        assertEquals(1, set.size());
+    }
+    
+    @Test
+    public void testInternExact() {
+        MeasurementSet set = new MeasurementSet();
+        Measurement inches = set.intern(Measurement.create(12, INCH));
+        Measurement exactFoot = Measurement.create(1, FOOT).exact();
+        
+        assertSame(exactFoot, set.intern(exactFoot));
+        assertSame(inches, set.intern(Measurement.create(1, FOOT)));
+        
+        Measurement exactYard = Measurement.create(1, YARD).exact();
+        Measurement yard = Measurement.create(1, YARD);
+        
+        assertSame(exactYard, set.intern(exactYard));
+        assertFalse(set.contains(exactYard));
+        
+        set.add(exactYard);
+        assertSame(yard, set.intern(yard));
+        assertSame(exactYard, set.get(yard));
+        assertEquals(2, set.size());
+    }
+    
+    @Test
+    public void testToArray() {
+        MeasurementSet set = new MeasurementSet();
+        
+        assertEquals("[]", set.toString());
+        
+        set.add(Measurement.create(3, INCH));
+        set.add(Measurement.create(1, FOOT));
+        set.add(Measurement.create("0.0000000015", MILLIMETER));
+        
+        Measurement[] measurements = set.toArray();
+        Arrays.sort(measurements);
+        
+        assertEquals("[0.0000000015mm, 3in, 1ft]", Arrays.toString(measurements));
+        assertEquals(3, set.toString().split(", ").length);
+    }
+}
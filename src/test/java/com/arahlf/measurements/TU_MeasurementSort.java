@@ -0,0 +1,91 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementSort {
+    @Test
+    public void testSmallArray() {
+        Measurement[] measurements = { Measurement.create(1, FOOT), Measurement.create(-3, INCH), Measurement.create(11, INCH), Measurement.create(12, INCH) };
+        
+        MeasurementSort.sort(measurements);
+        
+        assertEquals("[-3in, 11in, 1ft, 12in]", Arrays.toString(measurements));
+    }
+    
+    @Test
+    public void testFixedPoint() {
+        Random random = new Random(7);
+        Measurement[] measurements = new Measurement[50_000];
+        
+        for (int i = 0; i < measurements.length; i++) {
+            Unit unit = Unit.values()[random.nextInt(Unit.values().length)];
+            
+            measurements[i] = Measurement.create(random.nextInt(2_000_000) - 1_000_000 + "." + random.nextInt(1000), unit);
+        }
+        
+        _assertSorted(measurements);
+    }
+    
+    @Test
+    public void testMixedRepresentations() {
+        Random random = new Random(11);
+        Measurement[] measurements = new Measurement[20_000];
+        
+        for (int i = 0; i < measurements.length; i++) {
+            switch (random.nextInt(5)) {
+                case 0:
+                    // more precise than a picometer, often sharing a key with a fixed point length
+                    measurements[i] = Measurement.create(random.nextInt(100) + "." + "00000000" + random.nextInt(100), MILLIMETER);
+                    break;
+                case 1:
+                    // beyond the fixed point range, all with the largest key
+                    measurements[i] = Measurement.create(new BigDecimal(random.nextInt(1000)).add(new BigDecimal("1E+16")), METER);
+                    break;
+                case 2:
+                    // no decimal form, a third of an inch
+                    measurements[i] = Measurement.create(random.nextInt(100), INCH).exact().divide(new BigDecimal(3));
+                    break;
+                default:
+                    measurements[i] = Measurement.create(random.nextInt(200) - 100, MILLIMETER);
+            }
+        }
+        
+        _assertSorted(measurements);
+    }
+    
+    @Test
+    public void testStable() {
+        Measurement[] measurements = new Measurement[1000];
+        
+        for (int i = 0; i < measurements.length; i++) {
+            measurements[i] = i % 2 == 0 ? Measurement.create(1, FOOT) : Measurement.create(12, INCH);
+        }
+        
+        Measurement[] sorted = measurements.clone();
+        MeasurementSort.sort(sorted);
+        
+        for (int i = 0; i < measurements.length; i++) {
+            assertSame(measurements[i], sorted[i]);
+        }
+    }
+    
+    private static void _assertSorted(Measurement[] measurements) {
+        Measurement[] expected = measurements.clone();
+        Measurement[] sorted = measurements.clone();
+        
+        Arrays.sort(expected);
+        MeasurementSort.sort(sorted);
+        
+        // both are stable, so even the equal Measurements are in the same order
+        for (int i = 0; i < expected.length; i++) {
+            assertSame(expected[i], sorted[i], "index " + i);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.arahlf.measurements;
+
+import static com.arahlf.measurements.QuantityUnit.*;
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_Quantity {
+    @Test
+    public void testArea() {
+        Quantity area = Measurement.create(2, FOOT).multiply(Measurement.create(18, INCH));
+        
+        assertEquals(SQUARE_FOOT, area.getUnit());
+        assertEquals(Dimension.AREA, area.getDimension());
+        assertEquals("3 sq ft", area.toString());
+        assertEquals(new BigDecimal("278709.12"), area.getAmountInMillimeters());
+        
+        assertEquals("1 sq m", Measurement.create(1, METER).multiply(Measurement.create(100, CENTIMETER)).toString());
+        assertEquals("-0.25 sq in", Measurement.create("-0.5", INCH).multiply(Measurement.create("0.5", INCH)).toString());
+    }
+    
+    @Test
+    public void testVolume() {
+        Quantity volume = Quantity.create(3, SQUARE_FOOT).multiply(Measurement.create(4, INCH));
+        
+        assertEquals(CUBIC_FOOT, volume.getUnit());
+        assertEquals("1 cu ft", volume.toString());
+        assertEquals("12 bd ft", volume.convert(BOARD_FOOT).toString());
+        assertEquals("1 cu yd", volume.multiply(new BigDecimal(27)).convert(CUBIC_YARD).toString());
+        
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> volume.multiply(Measurement.create(1, FOOT)));
+        assertEquals("Only an area can be multiplied by a length: 1 cu ft", e.getMessage());
+    }
+    
+    @Test
+    public void testDimensionsAreChecked() {
+        Quantity area = Quantity.create(1, SQUARE_FOOT);
+        Quantity volume = Quantity.create(1, CUBIC_FOOT);
+        
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> area.add(volume));
+        assertEquals("Cannot add Quantities of different dimensions: 1 sq ft, 1 cu ft", e.getMessage());
+        
+        assertThrows(IllegalArgumentException.class, () -> volume.subtract(area));
+        assertThrows(IllegalArgumentException.class, () -> area.convert(CUBIC_INCH));
+        
+        assertNotEquals(Quantity.create(0, SQUARE_FOOT), Quantity.create(0, CUBIC_FOOT));
+    }
+    
+    @Test
+    public void testArithmetic() {
+        Quantity area = Quantity.create(1, SQUARE_FOOT).add(Quantity.create(72, SQUARE_INCH));
+        
+        assertEquals("1.5 sq ft", area.toString());
+        assertEquals("0.5 sq ft", area.subtract(Quantity.create(1, SQUARE_FOOT)).toString());
+        assertEquals("4.5 sq ft", area.multiply(new BigDecimal(3)).toString());
+        assertEquals("0.5 sq ft", area.divide(new BigDecimal(3)).toString());
+        assertTrue(area.subtract(area).isZero());
+        
+        assertEquals("10.7639104167 sq ft", Quantity.create(1, SQUARE_METER).convert(SQUARE_FOOT).toString());
+        assertEquals("216 sq in", area.convert(SQUARE_INCH).toString());
+    }
+    
+    @Test
+    public void testEquality() {
+        assertEquals(Quantity.create(1, SQUARE_FOOT), Quantity.create(144, SQUARE_INCH));
+        assertEquals(Quantity.create(1, SQUARE_FOOT).hashCode(), Quantity.create(144, SQUARE_INCH).hashCode());
+        assertEquals(Quantity.create(1, BOARD_FOOT), Quantity.create("144", CUBIC_INCH));
+        assertNotEquals(Quantity.create(1, SQUARE_FOOT), Quantity.create(143, SQUARE_INCH));
+    }
+    
+    @Test
+    public void testBeyondFixedPoint() {
+        // too precise and too large for a fixed point area, with the same results as BigDecimal arithmetic
+        Quantity tiny = Measurement.create("0.0000000001", MILLIMETER).multiply(Measurement.create(1, MILLIMETER));
+        Quantity huge = Measurement.create(1000, METER).multiply(Measurement.create(1000000, METER));
+        
+        assertEquals(new BigDecimal("1E-10"), tiny.getAmountInMillimeters());
+        assertEquals("1000000000 sq m", huge.toString());
+        assertEquals(huge, Quantity.create(new BigDecimal("1E+9"), SQUARE_METER));
+        
+        Quantity sum = huge.add(Quantity.create(1, SQUARE_METER)).subtract(huge);
+        
+        assertEquals(Quantity.create(1, SQUARE_METER), sum);
+        assertEquals(Quantity.create(1, SQUARE_METER).hashCode(), sum.hashCode());
+        
+        Quantity volume = Measurement.create("0.0625", INCH).multiply(Measurement.create("0.0625", INCH)).multiply(Measurement.create("0.0625", INCH));
+        assertEquals(new BigDecimal("4.000748046875"), volume.getAmountInMillimeters());
+        assertEquals("0.0002441406 cu in", volume.toString()); // rounded to 10 decimal places, as with Measurement
+    }
+    
+    @Test
+    public void testUnits() {
+        assertEquals(SQUARE_YARD, QuantityUnit.square(YARD));
+        assertEquals(CUBIC_CENTIMETER, QuantityUnit.cube(CENTIMETER));
+        assertEquals(new BigDecimal("2359737.216"), BOARD_FOOT.getMillimetersPerUnit());
+        
+        assertEquals(SQUARE_FOOT, QuantityUnit.parse("sq ft"));
+        assertEquals(BOARD_FOOT, QuantityUnit.parse("Board Feet"));
+        assertThrows(IllegalArgumentException.class, () -> QuantityUnit.parse("acres"));
+        
+        for (Unit unit : Unit.values()) {
+            assertEquals(unit, QuantityUnit.square(unit).getLinearUnit());
+            assertEquals(unit, QuantityUnit.cube(unit).getLinearUnit());
+        }
+    }
+    
+    @Test
+    public void testSerialization() throws Exception {
+        Quantity quantity = Quantity.create("12.5", CUBIC_YARD);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(quantity);
+        }
+        
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Quantity read = (Quantity) in.readObject();
+            
+            assertEquals(quantity, read);
+            assertEquals("12.5 cu yd", read.toString());
+        }
+    }
+}
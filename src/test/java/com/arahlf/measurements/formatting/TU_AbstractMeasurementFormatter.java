@@ -0,0 +1,70 @@
+package com.arahlf.measurements.formatting;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import com.arahlf.measurements.Measurement;
+import com.arahlf.measurements.Unit;
+import org.junit.jupiter.api.Test;
+
+public class TU_AbstractMeasurementFormatter {
+    @Test
+    public void testSubclassOverridingFormat() throws IOException {
+        MeasurementFormatter formatter = new WholeMeasurementFormatter(FOOT, INCH);
+        
+        assertEquals("1ft 3in", formatter.format(Measurement.create("15.2", INCH)));
+        assertEquals("~2ft", formatter.format(Measurement.create("23.9", INCH)));
+        assertEquals("-1ft 3in", formatter.format(Measurement.create("-15.2", INCH)));
+        
+        StringBuilder builder = new StringBuilder("length: ");
+        formatter.formatTo(Measurement.create("15.2", INCH), builder);
+        assertEquals("length: 1ft 3in", builder.toString());
+        
+        StringWriter writer = new StringWriter();
+        formatter.formatTo(Measurement.create("23.9", INCH), writer);
+        assertEquals("~2ft", writer.toString());
+    }
+    
+    /**
+     * A formatter written against the LinkedList pieces, as subclasses outside of this package were.
+     */
+    private static final class WholeMeasurementFormatter extends AbstractMeasurementFormatter {
+        
+        WholeMeasurementFormatter(Unit... units) {
+            super(Arrays.asList(units));
+        }
+        
+        @Override
+        public String format(Measurement measurement) {
+            LinkedList<Measurement> pieces = getPieces(measurement);
+            boolean roundedUp = adjustPiecesForRounding(pieces);
+            adjustPiecesForNegatives(pieces);
+            
+            StringBuilder builder = new StringBuilder(roundedUp ? "~" : "");
+            
+            for (Measurement piece : pieces) {
+                if (!piece.isZeroLength()) {
+                    builder.append(piece.scale(0, RoundingMode.DOWN)).append(' ');
+                }
+            }
+            
+            return builder.toString().trim();
+        }
+        
+        @Override
+        protected boolean shouldRoundUp(Measurement piece) {
+            return piece.getLength().remainder(BigDecimal.ONE).abs().compareTo(HALF) >= 0;
+        }
+        
+        private static final BigDecimal HALF = new BigDecimal("0.5");
+        
+        private static final long serialVersionUID = 1L;
+    }
+}
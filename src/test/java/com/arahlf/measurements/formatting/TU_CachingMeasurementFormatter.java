@@ -0,0 +1,105 @@
+package com.arahlf.measurements.formatting;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.arahlf.measurements.Measurement;
+import org.junit.jupiter.api.Test;
+
+public class TU_CachingMeasurementFormatter {
+    @Test
+    public void testHitsAndMisses() {
+        CachingMeasurementFormatter formatter = new CachingMeasurementFormatter(new FractionMeasurementFormatter(16, FOOT, INCH), 100);
+        
+        assertEquals("~1ft 3/16in", formatter.format(Measurement.create("12.2", INCH)));
+        assertEquals("~1ft 3/16in", formatter.format(Measurement.create("12.2", INCH)));
+        assertEquals("~1ft 3/16in", formatter.format(Measurement.create("1.01666666666666666666666", FOOT).convert(INCH)));
+        
+        assertEquals(2, formatter.getHitCount());
+        assertEquals(1, formatter.getMissCount());
+        assertEquals(1, formatter.getSize());
+    }
+    
+    @Test
+    public void testEqualLengthsShareAnEntry() {
+        CachingMeasurementFormatter formatter = new CachingMeasurementFormatter(new DecimalMeasurementFormatter(2, INCH), 100);
+        
+        assertEquals("12in", formatter.format(Measurement.create(1, FOOT)));
+        assertEquals("12in", formatter.format(Measurement.create(12, INCH)));
+        
+        assertEquals(1, formatter.getHitCount());
+    }
+    
+    @Test
+    public void testBoundedSize() {
+        MeasurementFormatter decimal = new DecimalMeasurementFormatter(3, MILLIMETER);
+        CachingMeasurementFormatter formatter = new CachingMeasurementFormatter(decimal, 50);
+        
+        for (int i = 0; i < 1000; i++) {
+            Measurement measurement = Measurement.create(i, MILLIMETER);
+            
+            assertEquals(decimal.format(measurement), formatter.format(measurement));
+            assertTrue(formatter.getSize() <= 50);
+        }
+        
+        assertEquals(1000, formatter.getMissCount());
+        
+        formatter.clear();
+        assertEquals(0, formatter.getSize());
+        assertEquals(1000, formatter.getMissCount());
+    }
+    
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        CachingMeasurementFormatter formatter = new CachingMeasurementFormatter(new DecimalMeasurementFormatter(3, MILLIMETER), 1);
+        
+        formatter.format(Measurement.create(1, MILLIMETER));
+        formatter.format(Measurement.create(2, MILLIMETER));
+        formatter.format(Measurement.create(1, MILLIMETER));
+        
+        assertEquals(0, formatter.getHitCount());
+        assertEquals(3, formatter.getMissCount());
+    }
+    
+    @Test
+    public void testConcurrentFormatting() throws Exception {
+        MeasurementFormatter fraction = new FractionMeasurementFormatter(64, YARD, FOOT, INCH);
+        CachingMeasurementFormatter formatter = new CachingMeasurementFormatter(fraction, 64);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        Measurement measurement = Measurement.create(i % 100, INCH);
+                        assertEquals(fraction.format(measurement), formatter.format(measurement));
+                    }
+                }));
+            }
+            
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        
+        assertEquals(40_000, formatter.getHitCount() + formatter.getMissCount());
+        assertTrue(formatter.getSize() <= 64);
+    }
+    
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingMeasurementFormatter(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> new CachingMeasurementFormatter(new DecimalMeasurementFormatter(2, INCH), 0));
+    }
+}
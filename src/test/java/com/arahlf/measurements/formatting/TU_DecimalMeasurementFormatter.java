@@ -1,7 +1,23 @@
 package com.arahlf.measurements.formatting;
 
 import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Locale;
 
 import com.arahlf.measurements.Measurement;
 import com.arahlf.measurements.Unit;
@@ -152,9 +168,126 @@ public class TU_DecimalMeasurementFormatter {
         _verify("~0in");
     }
     
+    @Test
+    public void testFormatAll() throws IOException {
+        // enough Measurements to be split into many chunks and windows
+        Measurement[] measurements = new Measurement[50_000];
+        for (int i = 0; i < measurements.length; i++) {
+            measurements[i] = Measurement.create(new BigDecimal(i - 25_000).movePointLeft(3), INCH);
+        }
+        
+        _formatter = new DecimalMeasurementFormatter(2, FEET_INCHES);
+        
+        String[] expected = new String[measurements.length];
+        for (int i = 0; i < measurements.length; i++) {
+            expected[i] = _formatter.format(measurements[i]);
+        }
+        
+        assertArrayEquals(expected, _formatter.formatAll(measurements));
+        assertArrayEquals(expected, _formatter.formatAll(new LinkedList<>(Arrays.asList(measurements))));
+        
+        StringWriter writer = new StringWriter();
+        _formatter.formatAll(Arrays.asList(measurements), writer, "\n");
+        assertEquals(String.join("\n", expected), writer.toString());
+        
+        assertArrayEquals(new String[0], _formatter.formatAll(new Measurement[0]));
+    }
+    
+    @Test
+    public void testInvalidUnits() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new DecimalMeasurementFormatter(2, INCH, FOOT));
+        assertEquals("Units not in descending length: [INCH, FOOT]", e.getMessage());
+        
+        assertThrows(IllegalArgumentException.class, () -> new DecimalMeasurementFormatter(2, FOOT, FOOT));
+        assertThrows(IllegalArgumentException.class, () -> new DecimalMeasurementFormatter(2));
+    }
+    
+    @Test
+    public void testStyles() {
+        _measurement = Measurement.create("-17.378", INCH);
+        
+        _formatter = new DecimalMeasurementFormatter(2, MeasurementStyle.SYMBOLS, FEET_INCHES);
+        _verify("~-1\u2032 5.38\u2033");
+        
+        _formatter = new DecimalMeasurementFormatter(2, MeasurementStyle.LONG_NAMES.withLocale(Locale.GERMANY).withApproximationMarker(""), FEET_INCHES);
+        _verify("-1 Feet 5,38 Inches");
+        
+        _formatter = new DecimalMeasurementFormatter(3, MeasurementStyle.DEFAULT.withDecimalSeparator(','), MILLIMETER);
+        
+        _measurement = Measurement.create("0.05", MILLIMETER);
+        _verify("0,05mm");
+        
+        // beyond the range formatted from primitives
+        _measurement = Measurement.create("12345678901234567890.5", MILLIMETER);
+        _verify("12345678901234567890,5mm");
+        
+        assertThrows(IllegalArgumentException.class, () -> new DecimalMeasurementFormatter(2, (MeasurementStyle) null, INCH));
+        assertEquals(MeasurementStyle.SYMBOLS, new DecimalMeasurementFormatter(2, MeasurementStyle.SYMBOLS, INCH).getStyle());
+        assertEquals(MeasurementStyle.DEFAULT, new DecimalMeasurementFormatter(2, INCH).getStyle());
+    }
+    
+    @Test
+    public void testSerialization() throws Exception {
+        _measurement = Measurement.create("-17.378", INCH);
+        _formatter = new DecimalMeasurementFormatter(2, FEET_INCHES);
+        
+        byte[] bytes = _serialize(_formatter);
+        _formatter = (MeasurementFormatter) _deserialize(bytes);
+        
+        assertSame(DecimalMeasurementFormatter.class, _formatter.getClass());
+        _verify("~-1ft 5.38in");
+        
+        // the default form, as kept by subclasses, is several times larger
+        assertTrue(bytes.length < 100, "serialized size " + bytes.length);
+        assertTrue(_serialize(new DefaultForm(2, FEET_INCHES)).length > bytes.length * 4);
+        
+        DefaultForm subclass = (DefaultForm) _deserialize(_serialize(new DefaultForm(2, FEET_INCHES)));
+        assertEquals("~-1ft 5.38in", subclass.format(_measurement));
+    }
+    
+    private static byte[] _serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static Object _deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+    
     private void _verify(String expected) {
         String actual = _formatter.format(_measurement);
         assertEquals(expected, actual);
+        
+        StringBuilder builder = new StringBuilder("|");
+        _formatter.formatTo(_measurement, builder);
+        assertEquals("|" + expected, builder.toString());
+        
+        StringWriter writer = new StringWriter();
+        StringBuffer buffer = new StringBuffer("|");
+        try {
+            _formatter.formatTo(_measurement, writer);
+            _formatter.formatTo(_measurement, (Appendable) buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        assertEquals(expected, writer.toString());
+        assertEquals("|" + expected, buffer.toString());
+    }
+    
+    private static final class DefaultForm extends DecimalMeasurementFormatter {
+        
+        DefaultForm(int scale, Unit... units) {
+            super(scale, units);
+        }
+        
+        private static final long serialVersionUID = 1L;
     }
     
     private Measurement _measurement;
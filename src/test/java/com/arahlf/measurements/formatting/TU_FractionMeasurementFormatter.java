@@ -2,6 +2,19 @@ package com.arahlf.measurements.formatting;
 
 import static com.arahlf.measurements.Unit.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Base64;
 
 import com.arahlf.measurements.Measurement;
 import com.arahlf.measurements.Unit;
@@ -144,9 +157,106 @@ public class TU_FractionMeasurementFormatter {
         _verify("1/8in");
     }
     
+    @Test
+    public void testStyles() {
+        _measurement = Measurement.create("100.3", INCH);
+        
+        _formatter = new FractionMeasurementFormatter(16, MeasurementStyle.SYMBOLS, FEET_INCHES);
+        _verify("~8\u2032 4-5/16\u2033");
+        
+        _formatter = new FractionMeasurementFormatter(16, MeasurementStyle.LONG_NAMES, FEET_INCHES);
+        _verify("~8 Feet 4-5/16 Inches");
+        
+        _formatter = new FractionMeasurementFormatter(16, MeasurementStyle.DEFAULT.withApproximationMarker("").withFractionSeparator(" ").withSeparator(", "), FEET_INCHES);
+        _verify("8ft, 4 5/16in");
+        
+        _measurement = Measurement.create("-1.5", INCH);
+        _verify("-1 1/2in");
+        
+        _measurement = Measurement.create("-0.5", INCH);
+        _verify("-1/2in");
+    }
+    
+    @Test
+    public void testStyleSerialization() throws Exception {
+        _measurement = Measurement.create("100.3", INCH);
+        _formatter = new FractionMeasurementFormatter(16, MeasurementStyle.SYMBOLS.withFractionSeparator(" "), FEET_INCHES);
+        
+        _formatter = (MeasurementFormatter) _deserialize(_serialize(_formatter));
+        
+        assertSame(FractionMeasurementFormatter.class, _formatter.getClass());
+        _verify("~8\u2032 4 5/16\u2033");
+    }
+    
+    @Test
+    public void testSerialization() throws Exception {
+        _measurement = Measurement.create("100.3", INCH);
+        _formatter = new FractionMeasurementFormatter(16, YARD_FEET_INCHES);
+        
+        byte[] bytes = _serialize(_formatter);
+        _formatter = (MeasurementFormatter) _deserialize(bytes);
+        
+        assertSame(FractionMeasurementFormatter.class, _formatter.getClass());
+        assertTrue(bytes.length < 100, "serialized size " + bytes.length);
+        _verify("~2yd 2ft 4-5/16in");
+        
+        // the Units' ordinals are followed by the (null) default style and the end of the block, so this claims the Units are out of order
+        bytes[bytes.length - 5] = (byte) INCH.ordinal();
+        byte[] invalid = bytes;
+        
+        assertThrows(InvalidObjectException.class, () -> _deserialize(invalid));
+    }
+    
+    @Test
+    public void testUnversionedSerialization() throws Exception {
+        // a FractionMeasurementFormatter(16, YARD, FOOT, INCH) serialized in the first form, without a version or style
+        byte[] bytes = Base64.getDecoder().decode("rO0ABXNyADZjb20uYXJhaGxmLm1lYXN1cmVtZW50cy5mb3JtYXR0aW5nLlNlcmlhbGl6ZWRGb3JtYXR0ZXIAAAAAAAAAAQwAAHhwdwkCAAAAEAMFBAN4");
+        
+        _measurement = Measurement.create("100.3", INCH);
+        _formatter = (MeasurementFormatter) _deserialize(bytes);
+        
+        assertSame(FractionMeasurementFormatter.class, _formatter.getClass());
+        assertEquals(MeasurementStyle.DEFAULT, ((FractionMeasurementFormatter) _formatter).getStyle());
+        _verify("~2yd 2ft 4-5/16in");
+        
+        // a version from the future
+        bytes[bytes.length - 10] |= 0x70;
+        byte[] invalid = bytes;
+        
+        assertThrows(InvalidObjectException.class, () -> _deserialize(invalid));
+    }
+    
+    private static byte[] _serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static Object _deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+    
     private void _verify(String expected) {
         String actual = _formatter.format(_measurement);
         assertEquals(expected, actual);
+        
+        StringBuilder builder = new StringBuilder("|");
+        _formatter.formatTo(_measurement, builder);
+        assertEquals("|" + expected, builder.toString());
+        
+        StringWriter writer = new StringWriter();
+        try {
+            _formatter.formatTo(_measurement, writer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        assertEquals(expected, writer.toString());
     }
     
     private Measurement _measurement;
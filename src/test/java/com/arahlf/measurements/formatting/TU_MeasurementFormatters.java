@@ -0,0 +1,76 @@
+package com.arahlf.measurements.formatting;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.arahlf.measurements.Measurement;
+import com.arahlf.measurements.Unit;
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementFormatters {
+    @Test
+    public void testSharedInstances() {
+        assertSame(MeasurementFormatters.decimal(2, FOOT, INCH), MeasurementFormatters.decimal(2, FOOT, INCH));
+        assertSame(MeasurementFormatters.fraction(16, INCH), MeasurementFormatters.fraction(16, INCH));
+        
+        assertNotSame(MeasurementFormatters.decimal(2, FOOT, INCH), MeasurementFormatters.decimal(3, FOOT, INCH));
+        assertNotSame(MeasurementFormatters.decimal(2, FOOT, INCH), MeasurementFormatters.decimal(2, INCH));
+        assertNotSame(MeasurementFormatters.decimal(16, INCH), MeasurementFormatters.fraction(16, INCH));
+    }
+    
+    @Test
+    public void testCallerArrayIsCopied() {
+        Unit[] units = { YARD, FOOT };
+        MeasurementFormatter formatter = MeasurementFormatters.decimal(1, units);
+        
+        units[1] = INCH;
+        
+        assertEquals("1yd 1ft", formatter.format(Measurement.create(4, FOOT)));
+        assertSame(formatter, MeasurementFormatters.decimal(1, YARD, FOOT));
+    }
+    
+    @Test
+    public void testParse() {
+        assertSame(MeasurementFormatters.fraction(16, FOOT, INCH), MeasurementFormatters.parse("fraction:16:ft,in"));
+        assertSame(MeasurementFormatters.fraction(16, FOOT, INCH), MeasurementFormatters.parse(" Fraction : 16 : Feet , IN "));
+        assertSame(MeasurementFormatters.decimal(2, METER), MeasurementFormatters.parse("decimal:2:meters"));
+        assertSame(MeasurementFormatters.parse("decimal:-1:m,cm"), MeasurementFormatters.parse("decimal:-1:m,cm"));
+        
+        assertEquals("~1ft 3/16in", MeasurementFormatters.parse("fraction:16:ft,in").format(Measurement.create("12.2", INCH)));
+    }
+    
+    @Test
+    public void testStyles() {
+        MeasurementStyle style = MeasurementStyle.SYMBOLS.withFractionSeparator(" ");
+        
+        assertSame(MeasurementFormatters.fraction(16, style, FOOT, INCH), MeasurementFormatters.fraction(16, MeasurementStyle.SYMBOLS.withFractionSeparator(" "), FOOT, INCH));
+        assertNotSame(MeasurementFormatters.fraction(16, style, FOOT, INCH), MeasurementFormatters.fraction(16, FOOT, INCH));
+        assertSame(MeasurementFormatters.fraction(16, FOOT, INCH), MeasurementFormatters.fraction(16, MeasurementStyle.DEFAULT, FOOT, INCH));
+        
+        assertSame(MeasurementFormatters.fraction(16, MeasurementStyle.SYMBOLS, FOOT, INCH), MeasurementFormatters.parse("fraction:16:ft,in:symbols"));
+        assertSame(MeasurementFormatters.decimal(2, MeasurementStyle.LONG_NAMES, METER), MeasurementFormatters.parse("decimal:2:m: Long "));
+        assertSame(MeasurementFormatters.decimal(2, METER), MeasurementFormatters.parse("decimal:2:m:default"));
+        
+        assertEquals("~1\u2032 3/16\u2033", MeasurementFormatters.parse("fraction:16:ft,in:symbols").format(Measurement.create("12.2", INCH)));
+    }
+    
+    @Test
+    public void testInvalidSpecs() {
+        _assertInvalid("fraction:16", "Invalid formatter spec, expected type:number:units: \"fraction:16\"");
+        _assertInvalid("fraction:sixteen:in", "Invalid formatter spec, expected a number: \"fraction:sixteen:in\"");
+        _assertInvalid("roman:2:in", "Invalid formatter spec, unknown type roman: \"roman:2:in\"");
+        _assertInvalid("decimal:2:ft,furlong", "Invalid formatter spec, unknown unit furlong: \"decimal:2:ft,furlong\"");
+        _assertInvalid("decimal:2:", "Invalid formatter spec, unknown unit : \"decimal:2:\"");
+        _assertInvalid("decimal:2:in,ft", "Units not in descending length: [INCH, FOOT]");
+        _assertInvalid("fraction:7:in", "Denominator must be a positive multiple of 2: 7");
+        _assertInvalid("fraction:0:in", "Denominator must be a positive multiple of 2: 0");
+        _assertInvalid("fraction:16:in:fancy", "Invalid formatter spec, unknown style fancy: \"fraction:16:in:fancy\"");
+        _assertInvalid("fraction:16:in:symbols:x", "Invalid formatter spec, expected type:number:units: \"fraction:16:in:symbols:x\"");
+    }
+    
+    private static void _assertInvalid(String spec, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> MeasurementFormatters.parse(spec));
+        
+        assertEquals(message, e.getMessage());
+    }
+}
@@ -0,0 +1,50 @@
+package com.arahlf.measurements.formatting;
+
+import static com.arahlf.measurements.Unit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+public class TU_MeasurementStyle {
+    @Test
+    public void testPresets() {
+        assertEquals("in", MeasurementStyle.DEFAULT.getSuffix(INCH));
+        assertEquals(" ", MeasurementStyle.DEFAULT.getSeparator());
+        assertEquals("~", MeasurementStyle.DEFAULT.getApproximationMarker());
+        assertEquals('.', MeasurementStyle.DEFAULT.getDecimalSeparator());
+        assertEquals("-", MeasurementStyle.DEFAULT.getFractionSeparator());
+        
+        assertEquals("\u2032", MeasurementStyle.SYMBOLS.getSuffix(FOOT));
+        assertEquals("\u2033", MeasurementStyle.SYMBOLS.getSuffix(INCH));
+        assertEquals("cm", MeasurementStyle.SYMBOLS.getSuffix(CENTIMETER));
+        
+        assertEquals(" Meters", MeasurementStyle.LONG_NAMES.getSuffix(METER));
+    }
+    
+    @Test
+    public void testCopiesAreModified() {
+        MeasurementStyle style = MeasurementStyle.DEFAULT.withSuffix(YARD, " yds").withLocale(Locale.FRANCE);
+        
+        assertEquals(" yds", style.getSuffix(YARD));
+        assertEquals(',', style.getDecimalSeparator());
+        assertEquals("yd", MeasurementStyle.DEFAULT.getSuffix(YARD));
+        assertEquals('.', MeasurementStyle.DEFAULT.getDecimalSeparator());
+        
+        assertEquals(style, MeasurementStyle.DEFAULT.withLocale(Locale.FRANCE).withSuffix(YARD, " yds"));
+        assertEquals(style.hashCode(), MeasurementStyle.DEFAULT.withLocale(Locale.FRANCE).withSuffix(YARD, " yds").hashCode());
+        assertNotEquals(style, MeasurementStyle.DEFAULT);
+        assertEquals(MeasurementStyle.DEFAULT, MeasurementStyle.SYMBOLS.withSuffix(FOOT, "ft").withSuffix(INCH, "in"));
+    }
+    
+    @Test
+    public void testInvalidArguments() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> MeasurementStyle.DEFAULT.withApproximationMarker(null));
+        assertEquals("Must specify an approximation marker.", e.getMessage());
+        
+        assertThrows(IllegalArgumentException.class, () -> MeasurementStyle.DEFAULT.withSuffix(null, "x"));
+        assertThrows(IllegalArgumentException.class, () -> MeasurementStyle.DEFAULT.withSuffix(INCH, null));
+        assertThrows(IllegalArgumentException.class, () -> MeasurementStyle.DEFAULT.withLocale(null));
+    }
+}